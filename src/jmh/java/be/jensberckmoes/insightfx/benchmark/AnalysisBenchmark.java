@@ -0,0 +1,61 @@
+package be.jensberckmoes.insightfx.benchmark;
+
+import be.jensberckmoes.insightfx.model.CategorySummary;
+import be.jensberckmoes.insightfx.model.DataRecord;
+import be.jensberckmoes.insightfx.model.TransactionTable;
+import be.jensberckmoes.insightfx.perf.StatementGenerator;
+import be.jensberckmoes.insightfx.service.AnalysisService;
+import be.jensberckmoes.insightfx.service.CsvParserService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Categorisation of 100 000 transactions, for different fractions of descriptions that match a keyword.
+ *
+ * <p>A description that matches no keyword is the worst case for the matcher: every rule has to be ruled
+ * out. The category cache of {@link AnalysisService} is warm after the first invocation, as it is in the
+ * application.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dlogback.configurationFile=logback-benchmark.xml"})
+public class AnalysisBenchmark {
+    @Param({"0.0", "0.5", "0.95"})
+    private double keywordHitRatio;
+
+    @Param("100000")
+    private int rows;
+
+    private final AnalysisService analysisService = new AnalysisService();
+    private List<DataRecord> records;
+    private TransactionTable table;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        final String csv = new StatementGenerator(42, keywordHitRatio).generate(rows);
+        records = new CsvParserService().parse(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        table = TransactionTable.of(records);
+    }
+
+    @Benchmark
+    public List<CategorySummary> analyseRecords() {
+        return analysisService.analyse(records);
+    }
+
+    @Benchmark
+    public List<CategorySummary> analyseTable() {
+        return analysisService.analyse(table);
+    }
+
+    @Benchmark
+    public List<CategorySummary> analyseTableParallel() {
+        return analysisService.analyseParallel(table);
+    }
+}
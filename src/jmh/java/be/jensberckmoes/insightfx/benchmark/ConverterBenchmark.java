@@ -0,0 +1,86 @@
+package be.jensberckmoes.insightfx.benchmark;
+
+import be.jensberckmoes.insightfx.converter.BigDecimalConverter;
+import be.jensberckmoes.insightfx.converter.LocalDateConverter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of amount and date fields, from strings and straight from a character buffer.
+ *
+ * <p>Every invocation converts {@value #VALUES} different values, so branch prediction can't learn a single
+ * input. Scores are per value.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class ConverterBenchmark {
+    private static final int VALUES = 1024;
+
+    private final String[] amounts = new String[VALUES];
+    private final String[] dates = new String[VALUES];
+    private char[] amountChars;
+    private char[] dateChars;
+    private final int[] amountOffsets = new int[VALUES + 1];
+    private final int[] dateOffsets = new int[VALUES + 1];
+
+    @Setup(Level.Trial)
+    public void generate() {
+        final SplittableRandom random = new SplittableRandom(42);
+        final DateTimeFormatter format = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        final StringBuilder amountBuffer = new StringBuilder();
+        final StringBuilder dateBuffer = new StringBuilder();
+        for (int i = 0; i < VALUES; i++) {
+            amounts[i] = BigDecimal.valueOf(random.nextLong(-400_000, 400_000) | 1, 2)
+                    .stripTrailingZeros().toPlainString().replace('.', ',');
+            dates[i] = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(2_000)).format(format);
+            amountBuffer.append(amounts[i]);
+            dateBuffer.append(dates[i]);
+            amountOffsets[i + 1] = amountBuffer.length();
+            dateOffsets[i + 1] = dateBuffer.length();
+        }
+        amountChars = amountBuffer.toString().toCharArray();
+        dateChars = dateBuffer.toString().toCharArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void parseAmountString(final Blackhole blackhole) {
+        for (final String amount : amounts) {
+            blackhole.consume(BigDecimalConverter.parseAmount(amount));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void parseAmountChars(final Blackhole blackhole) {
+        for (int i = 0; i < VALUES; i++) {
+            blackhole.consume(BigDecimalConverter.parseAmount(amountChars, amountOffsets[i], amountOffsets[i + 1]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void parseDateString(final Blackhole blackhole) {
+        for (final String date : dates) {
+            blackhole.consume(LocalDateConverter.parseDate(date));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void parseEpochDayChars(final Blackhole blackhole) {
+        for (int i = 0; i < VALUES; i++) {
+            blackhole.consume(LocalDateConverter.parseEpochDay(dateChars, dateOffsets[i], dateOffsets[i + 1]));
+        }
+    }
+}
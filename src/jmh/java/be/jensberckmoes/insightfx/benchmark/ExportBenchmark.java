@@ -0,0 +1,62 @@
+package be.jensberckmoes.insightfx.benchmark;
+
+import be.jensberckmoes.insightfx.model.CategorySummary;
+import be.jensberckmoes.insightfx.model.ExportType;
+import be.jensberckmoes.insightfx.service.ExportService;
+import be.jensberckmoes.insightfx.service.ExportServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Export of category summaries to CSV, European CSV and PDF.
+ *
+ * <p>Sixteen rows is what a typical analysis produces; the larger size shows how export scales with the
+ * number of rows.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dlogback.configurationFile=logback-benchmark.xml"})
+public class ExportBenchmark {
+    @Param({"CSV", "EUROPEAN_CSV", "PDF"})
+    private ExportType type;
+
+    @Param({"16", "1000"})
+    private int rows;
+
+    private final ExportService exportService = new ExportServiceImpl();
+    private List<CategorySummary> summaries;
+    private Path target;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        final SplittableRandom random = new SplittableRandom(42);
+        summaries = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            summaries.add(new CategorySummary("Category " + i, 1 + random.nextInt(500),
+                    BigDecimal.valueOf(random.nextLong(-5_000_000, 5_000_000), 2)));
+        }
+        target = Files.createTempFile("insightfx-export", ".out");
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public Path export() throws IOException {
+        exportService.export(summaries, target, type);
+        return target;
+    }
+}
@@ -0,0 +1,132 @@
+package be.jensberckmoes.insightfx.benchmark;
+
+import be.jensberckmoes.insightfx.converter.BigDecimalConverter;
+import be.jensberckmoes.insightfx.converter.LocalDateConverter;
+import be.jensberckmoes.insightfx.converter.RequiredTrimmedStringConverter;
+import be.jensberckmoes.insightfx.model.DataRecord;
+import be.jensberckmoes.insightfx.model.TransactionTable;
+import be.jensberckmoes.insightfx.perf.StatementGenerator;
+import be.jensberckmoes.insightfx.service.CsvParserService;
+import com.opencsv.bean.AbstractBeanField;
+import com.opencsv.bean.CsvBindByName;
+import com.opencsv.bean.CsvCustomBindByName;
+import com.opencsv.bean.CsvToBean;
+import com.opencsv.bean.CsvToBeanBuilder;
+import com.opencsv.bean.HeaderColumnNameMappingStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of statement files of different sizes, into records and into a {@link TransactionTable}.
+ *
+ * <p>Files of 16 MB and more take the parallel, memory-mapped path of {@link CsvParserService}.
+ * {@link #parseWithOpencsv()} is the baseline: the opencsv bean binding the statement decoder replaced, with the
+ * same converters, so its score against {@link #parseRecords()} is the decoder's speed-up.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlogback.configurationFile=logback-benchmark.xml"})
+public class ParseBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private final CsvParserService parser = new CsvParserService();
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        file = new StatementGenerator(42, 0.6).writeTo(Files.createTempFile("insightfx-parse", ".csv"), rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public List<DataRecord> parseRecords() {
+        return parser.parse(file);
+    }
+
+    @Benchmark
+    public TransactionTable parseTable() {
+        return parser.parseTable(file);
+    }
+
+    /**
+     * Parses the file as {@link CsvParserService} did before the statement decoder, without its inclusion filter.
+     */
+    @Benchmark
+    public List<DataRecord> parseWithOpencsv() throws IOException {
+        try (final Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            final HeaderColumnNameMappingStrategy<OpencsvRecord> strategy = new HeaderColumnNameMappingStrategy<>();
+            strategy.setType(OpencsvRecord.class);
+            final CsvToBean<OpencsvRecord> csvToBean = new CsvToBeanBuilder<OpencsvRecord>(reader)
+                    .withType(OpencsvRecord.class)
+                    .withMappingStrategy(strategy)
+                    .withSeparator(';')
+                    .withIgnoreLeadingWhiteSpace(true)
+                    .build();
+            final List<DataRecord> records = new ArrayList<>();
+            for (final OpencsvRecord record : csvToBean) {
+                records.add(new DataRecord(record.description, record.currencyDate, record.amount, record.comments,
+                        record.statementNumber, record.bookingDate, record.counterparty));
+            }
+            return records;
+        }
+    }
+
+    /**
+     * The annotated bean opencsv binds statement rows to.
+     */
+    public static class OpencsvRecord {
+        @CsvCustomBindByName(column = "Omschrijving", converter = RequiredTextField.class)
+        private String description;
+        @CsvCustomBindByName(column = "Valuta", converter = DateField.class)
+        private LocalDate currencyDate;
+        @CsvCustomBindByName(column = "Bedrag", converter = AmountField.class)
+        private BigDecimal amount;
+        @CsvBindByName(column = "Vrije mededeling")
+        private String comments;
+        @CsvBindByName(column = "Afschriftnummer")
+        private String statementNumber;
+        @CsvCustomBindByName(column = "Datum", converter = DateField.class)
+        private LocalDate bookingDate;
+        @CsvBindByName(column = "Naam tegenpartij")
+        private String counterparty;
+    }
+
+    public static class RequiredTextField extends AbstractBeanField<String, String> {
+        @Override
+        protected Object convert(final String value) {
+            return RequiredTrimmedStringConverter.requireTrimmed(value);
+        }
+    }
+
+    public static class DateField extends AbstractBeanField<LocalDate, String> {
+        @Override
+        protected Object convert(final String value) {
+            return LocalDateConverter.parseDate(value);
+        }
+    }
+
+    public static class AmountField extends AbstractBeanField<BigDecimal, String> {
+        @Override
+        protected Object convert(final String value) {
+            return BigDecimalConverter.parseAmount(value);
+        }
+    }
+}
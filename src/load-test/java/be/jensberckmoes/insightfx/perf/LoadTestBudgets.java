@@ -0,0 +1,103 @@
+package be.jensberckmoes.insightfx.perf;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Settings and budgets of a load test, read from a properties file.
+ *
+ * <p>Budgets are keyed by stage and metric, e.g. {@code parse.minRowsPerSecond}. A budget for one input size
+ * overrides the general one: {@code parse.maxPeakHeapMb.50000000} applies to the 50 million row run only.
+ * Supported metrics are {@code minRowsPerSecond}, {@code maxWallMillis}, {@code maxPeakHeapMb},
+ * {@code maxGcPauseMillis} (longest single pause) and {@code maxGcPauseTotalMillis}. Stages without budgets
+ * always pass.</p>
+ *
+ * <p>Every setting can be overridden with a system property of the same name prefixed with
+ * {@value #SYSTEM_PROPERTY_PREFIX}, e.g. {@code -Dload-test.sizes=10000,50000000}.</p>
+ */
+final class LoadTestBudgets {
+    static final String SYSTEM_PROPERTY_PREFIX = "load-test.";
+
+    private final Properties properties;
+
+    private LoadTestBudgets(final Properties properties) {
+        this.properties = properties;
+    }
+
+    static LoadTestBudgets load(final Path file) throws IOException {
+        final Properties properties = new Properties();
+        try (final Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith(SYSTEM_PROPERTY_PREFIX))
+                .forEach(name -> properties.setProperty(name.substring(SYSTEM_PROPERTY_PREFIX.length()), System.getProperty(name)));
+        return new LoadTestBudgets(properties);
+    }
+
+    int[] sizes() {
+        return Arrays.stream(required("sizes").split(","))
+                .map(String::trim)
+                .mapToInt(size -> Integer.parseInt(size.replace("_", "")))
+                .toArray();
+    }
+
+    long seed() {
+        return Long.parseLong(properties.getProperty("seed", "42"));
+    }
+
+    double keywordHitRatio() {
+        return Double.parseDouble(properties.getProperty("keywordHitRatio", "0.6"));
+    }
+
+    boolean keepFiles() {
+        return Boolean.parseBoolean(properties.getProperty("keepFiles", "false"));
+    }
+
+    /**
+     * Checks a measurement against its budgets.
+     *
+     * @param measurement the measured stage
+     * @param inputRows   the size of the run, used to find size-specific budgets
+     * @return a description of every exceeded budget; empty when the stage passes
+     */
+    List<String> violations(final StageProbe.Measurement measurement, final int inputRows) {
+        final List<String> violations = new ArrayList<>();
+        final String stage = measurement.stage();
+        final Double minRowsPerSecond = budget(stage, "minRowsPerSecond", inputRows);
+        if (Objects.nonNull(minRowsPerSecond) && measurement.rowsPerSecond() < minRowsPerSecond) {
+            violations.add("rows per second %.0f below %.0f".formatted(measurement.rowsPerSecond(), minRowsPerSecond));
+        }
+        checkMaximum(violations, "wall time ms", measurement.wallMillis(), budget(stage, "maxWallMillis", inputRows));
+        checkMaximum(violations, "peak heap MB", measurement.peakHeapMb(), budget(stage, "maxPeakHeapMb", inputRows));
+        checkMaximum(violations, "longest GC pause ms", measurement.gcMaxPauseMillis(), budget(stage, "maxGcPauseMillis", inputRows));
+        checkMaximum(violations, "total GC pause ms", measurement.gcPauseMillis(), budget(stage, "maxGcPauseTotalMillis", inputRows));
+        return violations;
+    }
+
+    private static void checkMaximum(final List<String> violations, final String metric, final long value, final Double budget) {
+        if (Objects.nonNull(budget) && value > budget) {
+            violations.add("%s %d above %.0f".formatted(metric, value, budget));
+        }
+    }
+
+    private Double budget(final String stage, final String metric, final int inputRows) {
+        final String value = properties.getProperty(stage + "." + metric + "." + inputRows,
+                properties.getProperty(stage + "." + metric));
+        return Objects.isNull(value) || value.isBlank() ? null : Double.valueOf(value.trim());
+    }
+
+    private String required(final String key) {
+        final String value = properties.getProperty(key);
+        if (Objects.isNull(value) || value.isBlank()) throw new IllegalArgumentException("Missing load test setting '" + key + "'");
+        return value;
+    }
+}
@@ -0,0 +1,203 @@
+package be.jensberckmoes.insightfx.perf;
+
+import be.jensberckmoes.insightfx.model.CategorySummary;
+import be.jensberckmoes.insightfx.model.ExportType;
+import be.jensberckmoes.insightfx.model.TransactionTable;
+import be.jensberckmoes.insightfx.service.AnalysisService;
+import be.jensberckmoes.insightfx.service.CsvParserService;
+import be.jensberckmoes.insightfx.service.ExportService;
+import be.jensberckmoes.insightfx.service.ExportServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Headless end-to-end load test: generates statement exports of increasing size and runs them through
+ * parsing, analysis and export, measuring every stage against the budgets of a {@link LoadTestBudgets} file.
+ *
+ * <p>Usage: {@code LoadTestRunner <budgets.properties> <report.json>}. The report lists, per input size and
+ * stage, the wall time, rows per second, peak heap and garbage collection pauses, and whether the stage
+ * stayed within its budgets. The process exits with status 1 when any budget is exceeded, so a build running
+ * it fails. Run it with {@code mvn -Pload-test verify}.</p>
+ *
+ * <p>Generated files use the {@linkplain StatementGenerator messy} layout: padded fields and quoted,
+ * multi-line comments.</p>
+ */
+public final class LoadTestRunner {
+    private static final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private final LoadTestBudgets budgets;
+    private final Path workDirectory;
+    private final CsvParserService parser = new CsvParserService();
+    private final AnalysisService analysisService = new AnalysisService();
+    private final ExportService exportService = new ExportServiceImpl();
+
+    private LoadTestRunner(final LoadTestBudgets budgets, final Path workDirectory) {
+        this.budgets = budgets;
+        this.workDirectory = workDirectory;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: LoadTestRunner <budgets.properties> <report.json>");
+            System.exit(2);
+        }
+        final LoadTestBudgets budgets = LoadTestBudgets.load(Path.of(args[0]));
+        final Path report = Path.of(args[1]);
+        final Path workDirectory = Files.createTempDirectory("insightfx-load-test");
+
+        final List<Run> runs = new ArrayList<>();
+        try (final StageProbe probe = new StageProbe()) {
+            final LoadTestRunner runner = new LoadTestRunner(budgets, workDirectory);
+            for (final int rows : budgets.sizes()) {
+                runs.add(runner.run(probe, rows));
+            }
+        } finally {
+            if (!budgets.keepFiles()) deleteRecursively(workDirectory);
+        }
+
+        final boolean passed = runs.stream().allMatch(Run::passed);
+        if (Objects.nonNull(report.getParent())) Files.createDirectories(report.getParent());
+        Files.writeString(report, toJson(runs, passed), StandardCharsets.UTF_8);
+        log.info("Load test {}; report written to {}", passed ? "passed" : "FAILED", report.toAbsolutePath());
+        if (!passed) System.exit(1);
+    }
+
+    /**
+     * Deletes the work directory with whatever a failed stage left in it. Failures to delete are only logged,
+     * so they never hide the failure of the run itself.
+     */
+    private static void deleteRecursively(final Path directory) {
+        try (final Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (final IOException e) {
+                    log.warn("Failed to delete {}: {}", path, e.getMessage());
+                }
+            });
+        } catch (final IOException | UncheckedIOException e) {
+            log.warn("Failed to delete {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private Run run(final StageProbe probe, final int rows) throws IOException {
+        log.info("Load test with {} rows", rows);
+        final Path csv = workDirectory.resolve("statement-" + rows + ".csv");
+        final List<StageResult> stages = new ArrayList<>();
+        try {
+            final StatementGenerator generator = new StatementGenerator(budgets.seed(), budgets.keywordHitRatio(), true);
+            record(stages, probe.measure("generate", rows, () -> generator.writeTo(csv, rows)), rows);
+
+            final TransactionTable table = record(stages, probe.measure("parse", rows, () -> parser.parseTable(csv)), rows);
+            final List<CategorySummary> summaries =
+                    record(stages, probe.measure("analyse", table.size(), () -> analysisService.analyse(table)), rows);
+            final List<ExportType> exportTypes = List.of(ExportType.values());
+            final List<Path> exports = record(stages, probe.measure("export", (long) summaries.size() * exportTypes.size(),
+                    () -> export(summaries, exportTypes, rows)), rows);
+            if (!budgets.keepFiles()) {
+                for (final Path export : exports) {
+                    Files.deleteIfExists(export);
+                }
+            }
+            return new Run(rows, Files.size(csv), table.size(), stages);
+        } finally {
+            if (!budgets.keepFiles()) Files.deleteIfExists(csv);
+        }
+    }
+
+    private <T> T record(final List<StageResult> stages, final StageProbe.Measured<T> measured, final int inputRows) {
+        final StageProbe.Measurement measurement = measured.measurement();
+        final List<String> violations = budgets.violations(measurement, inputRows);
+        stages.add(new StageResult(measurement, violations));
+        log.info("  {}: {} ms, {} rows/s, peak heap {} MB, {} GC pauses ({} ms, longest {} ms){}",
+                measurement.stage(), measurement.wallMillis(), Math.round(measurement.rowsPerSecond()),
+                measurement.peakHeapMb(), measurement.gcPauses(), measurement.gcPauseMillis(),
+                measurement.gcMaxPauseMillis(), violations.isEmpty() ? "" : " FAILED: " + String.join(", ", violations));
+        return measured.result();
+    }
+
+    private List<Path> export(final List<CategorySummary> summaries, final List<ExportType> exportTypes, final int rows) {
+        final List<Path> targets = new ArrayList<>();
+        for (final ExportType type : exportTypes) {
+            final Path target = workDirectory.resolve("export-" + rows + "." + type.name().toLowerCase(Locale.ROOT));
+            try {
+                exportService.export(summaries, target, type);
+                targets.add(target);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return targets;
+    }
+
+    private static String toJson(final List<Run> runs, final boolean passed) {
+        final StringBuilder json = new StringBuilder(4096);
+        json.append("{\n")
+                .append("  \"timestamp\": \"").append(Instant.now()).append("\",\n")
+                .append("  \"javaVersion\": \"").append(escape(System.getProperty("java.version"))).append("\",\n")
+                .append("  \"availableProcessors\": ").append(Runtime.getRuntime().availableProcessors()).append(",\n")
+                .append("  \"maxHeapMb\": ").append(Runtime.getRuntime().maxMemory() >> 20).append(",\n")
+                .append("  \"passed\": ").append(passed).append(",\n")
+                .append("  \"runs\": [");
+        for (int i = 0; i < runs.size(); i++) {
+            final Run run = runs.get(i);
+            json.append(i == 0 ? "\n" : ",\n")
+                    .append("    {\n")
+                    .append("      \"rows\": ").append(run.rows()).append(",\n")
+                    .append("      \"fileBytes\": ").append(run.fileBytes()).append(",\n")
+                    .append("      \"parsedRows\": ").append(run.parsedRows()).append(",\n")
+                    .append("      \"passed\": ").append(run.passed()).append(",\n")
+                    .append("      \"stages\": [");
+            for (int j = 0; j < run.stages().size(); j++) {
+                final StageResult stage = run.stages().get(j);
+                final StageProbe.Measurement measurement = stage.measurement();
+                json.append(j == 0 ? "\n" : ",\n")
+                        .append("        {\"stage\": \"").append(measurement.stage())
+                        .append("\", \"rows\": ").append(measurement.rows())
+                        .append(", \"wallMillis\": ").append(measurement.wallMillis())
+                        .append(", \"rowsPerSecond\": ").append(Math.round(measurement.rowsPerSecond()))
+                        .append(", \"peakHeapMb\": ").append(measurement.peakHeapMb())
+                        .append(", \"gcPauses\": ").append(measurement.gcPauses())
+                        .append(", \"gcPauseMillis\": ").append(measurement.gcPauseMillis())
+                        .append(", \"gcMaxPauseMillis\": ").append(measurement.gcMaxPauseMillis())
+                        .append(", \"passed\": ").append(stage.passed())
+                        .append(", \"violations\": [");
+                for (int k = 0; k < stage.violations().size(); k++) {
+                    json.append(k == 0 ? "\"" : ", \"").append(escape(stage.violations().get(k))).append('"');
+                }
+                json.append("]}");
+            }
+            json.append("\n      ]\n    }");
+        }
+        return json.append("\n  ]\n}\n").toString();
+    }
+
+    private static String escape(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private record StageResult(StageProbe.Measurement measurement, List<String> violations) {
+        boolean passed() {
+            return violations.isEmpty();
+        }
+    }
+
+    private record Run(int rows, long fileBytes, int parsedRows, List<StageResult> stages) {
+        boolean passed() {
+            return stages.stream().allMatch(StageResult::passed);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package be.jensberckmoes.insightfx.perf;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.Supplier;
+
+/**
+ * Measures one stage of a load test: wall time, peak heap and the garbage collection pauses it caused.
+ *
+ * <p>Pauses are taken from the JVM's garbage collection notifications. Collectors that run concurrently
+ * with the application, such as G1's concurrent cycle, are not counted as pauses. The peak heap is the sum
+ * of the peak usage of every heap pool, reset at the start of the stage; the heap is collected first so that
+ * garbage of earlier stages does not count.</p>
+ */
+final class StageProbe implements AutoCloseable {
+    private static final long NOTIFICATION_WAIT_MILLIS = 1_000;
+
+    private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+    private final List<GarbageCollectorMXBean> pausingCollectors = ManagementFactory.getGarbageCollectorMXBeans().stream()
+            .filter(StageProbe::isPausing)
+            .toList();
+    private final AtomicLong pauses = new AtomicLong();
+    private final AtomicLong pauseMillis = new AtomicLong();
+    private final LongAccumulator maxPauseMillis = new LongAccumulator(Math::max, 0);
+    private final NotificationListener listener = (notification, _) -> {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+        final GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        if (!isPausing(info.getGcName())) return;
+        final long duration = info.getGcInfo().getDuration();
+        pauses.incrementAndGet();
+        pauseMillis.addAndGet(duration);
+        maxPauseMillis.accumulate(duration);
+    };
+
+    StageProbe() {
+        for (final GarbageCollectorMXBean collector : pausingCollectors) {
+            ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+        }
+    }
+
+    /**
+     * Runs and measures a stage.
+     *
+     * @param stage the stage name
+     * @param rows  the number of rows the stage processes
+     * @param work  the stage
+     * @return the measurement, and the stage's result
+     */
+    <T> Measured<T> measure(final String stage, final long rows, final Supplier<T> work) {
+        System.gc();
+        awaitNotifications();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        final long pausesBefore = pauses.get();
+        final long pauseMillisBefore = pauseMillis.get();
+        maxPauseMillis.reset();
+
+        final long start = System.nanoTime();
+        final T result = work.get();
+        final long wallNanos = System.nanoTime() - start;
+
+        final long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        awaitNotifications();
+        return new Measured<>(result, new Measurement(stage, rows, wallNanos, peakHeap,
+                pauses.get() - pausesBefore, pauseMillis.get() - pauseMillisBefore, maxPauseMillis.get()));
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (final GarbageCollectorMXBean collector : pausingCollectors) {
+            ((NotificationEmitter) collector).removeNotificationListener(listener);
+        }
+    }
+
+    /**
+     * Notifications arrive asynchronously; wait until every collection the beans know of has been seen.
+     */
+    private void awaitNotifications() {
+        final long deadline = System.currentTimeMillis() + NOTIFICATION_WAIT_MILLIS;
+        while (pauses.get() < collections() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private long collections() {
+        return pausingCollectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static boolean isPausing(final GarbageCollectorMXBean collector) {
+        return collector instanceof NotificationEmitter && isPausing(collector.getName());
+    }
+
+    private static boolean isPausing(final String collectorName) {
+        return !collectorName.contains("Concurrent") && !collectorName.contains("Cycles");
+    }
+
+    /**
+     * A stage's result with its measurement.
+     */
+    record Measured<T>(T result, Measurement measurement) {
+    }
+
+    /**
+     * What a stage cost.
+     *
+     * @param stage              the stage name
+     * @param rows               rows processed
+     * @param wallNanos          elapsed time
+     * @param peakHeapBytes      peak heap usage during the stage
+     * @param gcPauses           garbage collection pauses during the stage
+     * @param gcPauseMillis      total time spent in those pauses
+     * @param gcMaxPauseMillis   the longest pause
+     */
+    record Measurement(String stage, long rows, long wallNanos, long peakHeapBytes,
+                       long gcPauses, long gcPauseMillis, long gcMaxPauseMillis) {
+
+        long wallMillis() {
+            return wallNanos / 1_000_000;
+        }
+
+        double rowsPerSecond() {
+            return wallNanos == 0 ? 0 : rows * 1e9 / wallNanos;
+        }
+
+        long peakHeapMb() {
+            return peakHeapBytes >> 20;
+        }
+    }
+}
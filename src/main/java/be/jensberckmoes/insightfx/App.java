@@ -1,5 +1,6 @@
 package be.jensberckmoes.insightfx;
 
+import be.jensberckmoes.insightfx.controller.MainController;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -12,6 +13,8 @@ public class App extends Application {
     public void start(final Stage stage) throws IOException {
         final FXMLLoader fxmlLoader = new FXMLLoader(App.class.getResource("main-view.fxml"));
         final Scene scene = new Scene(fxmlLoader.load(), 820, 513);
+        final MainController controller = fxmlLoader.getController();
+        stage.setOnHidden(_ -> controller.shutdown());
         stage.setTitle("InsightFX!");
         stage.setScene(scene);
         stage.show();
@@ -0,0 +1,67 @@
+package be.jensberckmoes.insightfx.controller;
+
+import be.jensberckmoes.insightfx.service.ProgressListener;
+import javafx.concurrent.Task;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * {@link Task} for the work behind a button: loading, analysing, exporting.
+ *
+ * <p>Progress is published through {@link #progress(long)}, which turns the rows and bytes reported by the
+ * services into the task's message and progress. {@link Task} hands both to the FX thread coalesced, so
+ * however often the services report, the UI is updated at most once per pulse.</p>
+ *
+ * <p>A task that changes shared state, such as the incremental analysis, calls {@link #commit()} just before
+ * doing so. From then on it can no longer be cancelled, so it never leaves that state changed while the UI
+ * discards its result.</p>
+ *
+ * @param <T> the result type
+ */
+abstract class BackgroundTask<T> extends Task<T> {
+    private final String action;
+    private boolean committed;
+
+    /**
+     * @param action what the task does, e.g. "Loading", used in progress messages
+     */
+    BackgroundTask(final String action) {
+        this.action = action;
+        updateMessage(action + "…");
+    }
+
+    /**
+     * Returns a listener that reports progress against the given number of bytes and cancels the service
+     * call when this task is cancelled.
+     *
+     * @param totalBytes the expected number of bytes, or 0 when unknown
+     * @return the listener
+     */
+    protected final ProgressListener progress(final long totalBytes) {
+        return (rows, bytes) -> {
+            if (isCancelled()) throw new CancellationException(action + " cancelled");
+            if (totalBytes > 0) {
+                updateProgress(bytes, totalBytes);
+                updateMessage("%s: %,d rows, %,d of %,d MB".formatted(action, rows, bytes >> 20, totalBytes >> 20));
+            } else {
+                updateMessage("%s: %,d rows".formatted(action, rows));
+            }
+        };
+    }
+
+    /**
+     * Marks the start of the step that publishes the result; the task can't be cancelled after this.
+     *
+     * @throws CancellationException if the task was cancelled before
+     */
+    protected final synchronized void commit() {
+        if (isCancelled()) throw new CancellationException(action + " cancelled");
+        committed = true;
+        updateMessage(action + ": finishing…");
+    }
+
+    @Override
+    public final synchronized boolean cancel(final boolean mayInterruptIfRunning) {
+        return !committed && super.cancel(mayInterruptIfRunning);
+    }
+}
@@ -2,36 +2,60 @@ package be.jensberckmoes.insightfx.controller;
 
 import be.jensberckmoes.insightfx.model.*;
 import be.jensberckmoes.insightfx.service.AnalysisService;
+import be.jensberckmoes.insightfx.service.CategoryRulesWatcher;
+import be.jensberckmoes.insightfx.service.ChartImage;
 import be.jensberckmoes.insightfx.service.CsvParserService;
 import be.jensberckmoes.insightfx.service.ExportService;
 import be.jensberckmoes.insightfx.service.ExportServiceImpl;
+import be.jensberckmoes.insightfx.service.MultiStatementLoader;
+import be.jensberckmoes.insightfx.service.StatementSnapshotCache;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.fxml.FXML;
+import javafx.geometry.Pos;
 import javafx.geometry.Side;
+import javafx.scene.Node;
 import javafx.scene.SnapshotParameters;
 import javafx.scene.chart.PieChart;
 import javafx.scene.control.*;
 import javafx.scene.image.WritableImage;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
+import javafx.scene.transform.Transform;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
+import javafx.util.StringConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class MainController {
     private static final Logger log = LoggerFactory.getLogger(MainController.class);
+    private static final Path APPLICATION_DIRECTORY = Path.of(System.getProperty("user.home"), ".insightfx");
+    private static final Path CATEGORY_RULES_FILE = APPLICATION_DIRECTORY.resolve("category-rules.csv");
+    private static final int MAX_CONCURRENT_READS = 4;
+    private static final int ALL_PERIODS = -1;
 
     @FXML
     public ComboBox<ExportType> exportTypeComboBox;
@@ -45,6 +69,11 @@ public class MainController {
     public Tab dataTab;
     @FXML
     private TableView<CategorySummary> analysisTable;
+    /**
+     * Period index in {@link #periodCube}, or {@link #ALL_PERIODS}.
+     */
+    @FXML
+    private ComboBox<Integer> periodComboBox;
     @FXML
     private TableColumn<CategorySummary, String> categoryColumn;
     @FXML
@@ -52,51 +81,132 @@ public class MainController {
     @FXML
     private TableColumn<CategorySummary, BigDecimal> totalColumn;
     @FXML
-    private TableView<DataRecord> tableView;
+    private TableView<Integer> tableView;
     @FXML
-    private TableColumn<DataRecord, String> dateColumn;
+    private TableColumn<Integer, String> dateColumn;
     @FXML
-    private TableColumn<DataRecord, String> descriptionColumn;
+    private TableColumn<Integer, String> descriptionColumn;
     @FXML
-    private TableColumn<DataRecord, BigDecimal> amountColumn;
+    private TableColumn<Integer, String> amountColumn;
     @FXML
-    private TableColumn<DataRecord, String> commentsColumn;
+    private TableColumn<Integer, String> commentsColumn;
     @FXML
     private Label statusLabel;
     @FXML
     private StackPane chartPane;
     @FXML
     private Button analyzeButton, chartButton, exportButton;
+    @FXML
+    private HBox actionBar;
+    @FXML
+    private ProgressBar progressBar;
+    @FXML
+    private Button cancelButton;
+    @FXML
+    private DatePicker fromDatePicker, toDatePicker;
+    @FXML
+    private TextField minimumAmountField, maximumAmountField;
 
     private final CsvParserService csvParserService = new CsvParserService();
     private final AnalysisService analysisService = new AnalysisService();
     private final ExportService exportService = new ExportServiceImpl();
+    private final StatementSnapshotCache snapshotCache = new StatementSnapshotCache(
+            APPLICATION_DIRECTORY.resolve("snapshots"), CsvParserService.FORMAT_VERSION);
+    private final MultiStatementLoader statementLoader = new MultiStatementLoader(
+            (file, progress) -> snapshotCache.load(file, path -> csvParserService.parseTable(path, progress)), MAX_CONCURRENT_READS);
+    private final ExecutorService backgroundExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("insightfx-background").factory());
 
     private final List<CategorySummary> results = new ArrayList<>();
-    private final List<DataRecord> records = new ArrayList<>();
+    private TransactionTable transactions = TransactionTable.empty();
+    private AnalysisService.IncrementalAnalysis analysis = analysisService.incremental();
+    private TransactionTableModel transactionModel = new TransactionTableModel(new TransactionIndex(transactions));
+    private TransactionIndex.Filter transactionFilter = TransactionIndex.Filter.NONE;
+    private boolean clearingFilterBar;
     private AnalysisResult analysisResult;
+    private List<CategorySummary> allPeriodSummaries = List.of();
+    private PeriodCube periodCube;
+    private int analysisVersion;
+    private ChartImage chartImage;
+    private int chartImageVersion = -1;
+    private CategoryRulesWatcher categoryRulesWatcher;
+    private Task<?> currentTask;
 
     @FXML
     public void initialize() {
         setupTableColumns();
-        rightAlignColumn(amountColumn);
+        tableView.setSortPolicy(this::sortTransactions);
         rightAlignColumn(totalColumn);
         exportTypeComboBox.setDisable(true);
+        setupPeriodComboBox();
+        watchCategoryRules();
     }
 
     /**
-     * Configures the TableView columns to display the correct properties of DataRecord and CategorySummary.
+     * Releases background resources; called when the main window closes.
+     */
+    public void shutdown() {
+        backgroundExecutor.shutdownNow();
+        if (Objects.isNull(categoryRulesWatcher)) return;
+        try {
+            categoryRulesWatcher.close();
+        } catch (final IOException e) {
+            log.warn("Failed to stop watching category rules: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Uses the category rules in {@link #CATEGORY_RULES_FILE} when that file exists, reloading them on every change.
+     * Otherwise the built-in rules stay in use.
+     */
+    private void watchCategoryRules() {
+        if (!Files.isRegularFile(CATEGORY_RULES_FILE)) {
+            log.info("No category rules in {}, using the built-in rules", CATEGORY_RULES_FILE);
+            return;
+        }
+        try {
+            categoryRulesWatcher = analysisService.watchRules(CATEGORY_RULES_FILE);
+        } catch (final IOException | IllegalArgumentException e) {
+            log.error("Failed to load category rules: {}", e.getMessage(), e);
+            statusLabel.setText("Problem loading category rules: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Configures the TableView columns to display the transactions and the properties of CategorySummary.
      */
     private void setupTableColumns() {
-        dateColumn.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(cell.getValue().getCurrencyDate().toString()));
-        descriptionColumn.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(cell.getValue().getDescription()));
-        amountColumn.setCellValueFactory(cell -> new javafx.beans.property.SimpleObjectProperty<>(cell.getValue().getAmount()));
-        commentsColumn.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(cell.getValue().getComments()));
+        bindTransactionColumn(dateColumn, TransactionIndex.Column.DATE, Pos.CENTER_LEFT);
+        bindTransactionColumn(descriptionColumn, TransactionIndex.Column.DESCRIPTION, Pos.CENTER_LEFT);
+        bindTransactionColumn(amountColumn, TransactionIndex.Column.AMOUNT, Pos.CENTER_RIGHT);
+        bindTransactionColumn(commentsColumn, TransactionIndex.Column.COMMENTS, Pos.CENTER_LEFT);
         categoryColumn.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(cell.getValue().getCategory()));
         countColumn.setCellValueFactory(cell -> new javafx.beans.property.SimpleObjectProperty<>(cell.getValue().getCount()));
         totalColumn.setCellValueFactory(cell -> new javafx.beans.property.SimpleObjectProperty<>(cell.getValue().getTotal()));
     }
 
+    /**
+     * Shows the months of the analysis as year and month, most recent first after "All months".
+     */
+    private void setupPeriodComboBox() {
+        periodComboBox.setDisable(true);
+        periodComboBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(final Integer period) {
+                if (Objects.isNull(period) || Objects.isNull(periodCube)) return "";
+                return period == ALL_PERIODS ? "All months" : YearMonth.from(periodCube.periodStart(period)).toString();
+            }
+
+            @Override
+            public Integer fromString(final String text) {
+                return periodComboBox.getItems().stream()
+                        .filter(period -> toString(period).equals(text))
+                        .findFirst()
+                        .orElse(null);
+            }
+        });
+    }
+
     /**
      * Aligns the given TableColumn of BigDecimal values to the right.
      *
@@ -104,61 +214,362 @@ public class MainController {
      * @param <S>    the type of the TableView items
      */
     private <S> void rightAlignColumn(final TableColumn<S, BigDecimal> column) {
-        column.setCellFactory(_ -> new TableCell<>() {
-            @Override
-            protected void updateItem(final BigDecimal item, final boolean empty) {
-                super.updateItem(item, empty);
-                if (empty || item == null) {
-                    setText(null);
-                } else {
-                    setText(item.toString());
-                    setStyle("-fx-alignment: CENTER-RIGHT;");
+        column.setCellFactory(_ -> {
+            final TableCell<S, BigDecimal> cell = new TableCell<>() {
+                @Override
+                protected void updateItem(final BigDecimal item, final boolean empty) {
+                    super.updateItem(item, empty);
+                    setText(empty || item == null ? null : item.toString());
                 }
-            }
+            };
+            cell.setAlignment(Pos.CENTER_RIGHT);
+            return cell;
         });
     }
 
+    /**
+     * Lets a column of the data table read its text straight from the {@link TransactionTableModel}.
+     *
+     * <p>The column has no cell value factory, so no property is created per cell: a cell looks its text up
+     * by its index whenever it is reused for another row. The alignment is set once, when the cell is
+     * created.</p>
+     *
+     * @param column    the column
+     * @param field     the value it shows
+     * @param alignment the alignment of its text
+     */
+    private void bindTransactionColumn(final TableColumn<Integer, String> column, final TransactionIndex.Column field,
+                                       final Pos alignment) {
+        column.setUserData(field);
+        column.setCellFactory(_ -> {
+            final TableCell<Integer, String> cell = new TableCell<>() {
+                @Override
+                public void updateIndex(final int index) {
+                    super.updateIndex(index);
+                    showText();
+                }
+
+                @Override
+                protected void updateItem(final String item, final boolean empty) {
+                    super.updateItem(item, empty);
+                    showText();
+                }
+
+                private void showText() {
+                    final int index = getIndex();
+                    setText(!isEmpty() && index >= 0 && index < transactionModel.size()
+                            ? transactionModel.text(field, index) : null);
+                }
+            };
+            cell.setAlignment(alignment);
+            return cell;
+        });
+    }
+
+    /**
+     * Shows the indexed transactions in the data table, in table order and through the current filter.
+     *
+     * @param index the index of the transactions
+     */
+    private void showTransactions(final TransactionIndex index) {
+        // Clearing the sort order runs the sort policy on the new model: it must already show the filtered rows.
+        transactionModel = new TransactionTableModel(index, transactionFilter);
+        tableView.getSortOrder().clear();
+        tableView.setItems(transactionModel);
+    }
+
+    /**
+     * Sorts the data table by taking the row order from the {@link TransactionIndex} instead of sorting the
+     * (read-only) item list.
+     *
+     * @param table the data table
+     * @return always true, sorting is always possible
+     */
+    private boolean sortTransactions(final TableView<Integer> table) {
+        transactionModel.reorder(transactionModel.index().rows(sortKeys(table), transactionFilter));
+        table.refresh();
+        return true;
+    }
+
+    private static List<TransactionIndex.SortKey> sortKeys(final TableView<Integer> table) {
+        return table.getSortOrder().stream()
+                .map(column -> new TransactionIndex.SortKey((TransactionIndex.Column) column.getUserData(),
+                        column.getSortType() == TableColumn.SortType.DESCENDING))
+                .toList();
+    }
+
+    /**
+     * Shows only the transactions within the date and amount ranges of the filter bar.
+     */
+    @FXML
+    private void onFilter() {
+        if (clearingFilterBar) return;
+        final TransactionIndex.Filter filter;
+        try {
+            filter = new TransactionIndex.Filter(fromDatePicker.getValue(), toDatePicker.getValue(),
+                    parseAmountBound(minimumAmountField.getText()), parseAmountBound(maximumAmountField.getText()));
+        } catch (final NumberFormatException e) {
+            statusLabel.setText("Filter amounts must be numbers, e.g. -25,50");
+            return;
+        }
+        transactionFilter = filter;
+        transactionModel.show(transactionModel.index().rows(sortKeys(tableView), filter));
+        statusLabel.setText(filter.isEmpty() ? "Showing all %,d transactions".formatted(transactions.size())
+                : "Showing %,d of %,d transactions".formatted(transactionModel.size(), transactions.size()));
+    }
+
+    @FXML
+    private void onClearFilter() {
+        clearFilterBar();
+        onFilter();
+    }
+
+    /**
+     * Empties the filter bar without applying it; a date picker applies the filter whenever its value changes.
+     */
+    private void clearFilterBar() {
+        clearingFilterBar = true;
+        try {
+            fromDatePicker.setValue(null);
+            toDatePicker.setValue(null);
+            minimumAmountField.clear();
+            maximumAmountField.clear();
+        } finally {
+            clearingFilterBar = false;
+        }
+    }
+
+    private static BigDecimal parseAmountBound(final String text) {
+        return Objects.isNull(text) || text.isBlank() ? null : new BigDecimal(text.replace(",", ".").trim());
+    }
+
     @FXML
     private void onLoadCsv() {
         resetForNewCSV();
-        final FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle("Select a CSV-file");
-        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+        final List<File> files = chooseCsvFiles();
+        if (Objects.isNull(files) || files.isEmpty()) return;
+
+        loadStatements(files.stream().map(File::toPath).toList(), false);
+    }
+
+    /**
+     * Loads every CSV file in a folder, such as a year of monthly exports.
+     */
+    @FXML
+    private void onLoadFolder() {
+        resetForNewCSV();
+        final DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle("Select a folder with CSV-files");
+        final File folder = directoryChooser.showDialog(null);
+        if (Objects.isNull(folder)) return;
 
-        final File file = fileChooser.showOpenDialog(null);
-        if (Objects.isNull(file)) return;
-
-        try (final InputStream stream = new FileInputStream(file)) {
-            records.clear();
-            records.addAll(csvParserService.parse(stream));
-            tableView.setItems(FXCollections.observableArrayList(records));
-            analyzeButton.setDisable(records.isEmpty());
-            log.info("CSV loaded successfully: {} records", records.size());
-            statusLabel.setText("CSV loaded: " + records.size() + " records");
-        } catch (final Exception e) {
-            log.error("Failed to load CSV: {}", e.getMessage(), e);
-            new Alert(Alert.AlertType.ERROR, "Error loading CSV:\n" + e.getMessage(), ButtonType.OK).showAndWait();
-            statusLabel.setText("Problem loading CSV: " + e.getMessage());
+        final List<Path> files;
+        try {
+            files = MultiStatementLoader.statementFiles(folder.toPath());
+        } catch (final UncheckedIOException e) {
+            log.error("Failed to list {}: {}", folder, e.getMessage(), e);
+            statusLabel.setText("Problem reading folder: " + e.getMessage());
+            return;
+        }
+        if (files.isEmpty()) {
+            statusLabel.setText("No CSV files in " + folder.getName());
+            return;
         }
+        loadStatements(files, false);
     }
 
+    /**
+     * Adds more statement exports to the loaded transactions. Only the new rows are analysed; statements
+     * that were loaded before are skipped.
+     */
+    @FXML
+    private void onAppendCsv() {
+        final List<File> files = chooseCsvFiles();
+        if (Objects.isNull(files) || files.isEmpty()) return;
+
+        loadStatements(files.stream().map(File::toPath).toList(), true);
+    }
+
+    /**
+     * Loads statement files concurrently and merges them by date, either replacing or extending the loaded
+     * transactions. Files that fail are listed afterwards; the others are loaded regardless.
+     *
+     * @param files  the statement files
+     * @param append whether to add to the loaded transactions instead of replacing them
+     */
+    private void loadStatements(final List<Path> files, final boolean append) {
+        final long totalBytes = files.stream().mapToLong(file -> file.toFile().length()).sum();
+        final AnalysisService.IncrementalAnalysis target = analysis;
+        final TransactionIndex loaded = transactionModel.index().snapshot();
+        runInBackground(new BackgroundTask<Loaded>(append ? "Appending" : "Loading") {
+            @Override
+            protected Loaded call() {
+                final MultiStatementLoader.Result result = statementLoader.load(files, progress(totalBytes));
+                commit();
+                final TransactionTable added = target.append(result.transactions());
+                // Appending newer statements extends the loaded indexes instead of rebuilding them.
+                final TransactionIndex all = append ? MultiStatementLoader.append(loaded, added) : new TransactionIndex(added);
+                // Sorting and filtering by date or amount then respond at once, even on millions of rows.
+                final TransactionIndex index = all.prepare(TransactionIndex.Column.DATE, TransactionIndex.Column.AMOUNT);
+                return new Loaded(added, index, result.failures());
+            }
+        }, result -> {
+            transactions = result.index().table();
+            showTransactions(result.index());
+            analyzeButton.setDisable(transactions.isEmpty());
+            final int loadedFiles = files.size() - result.failures().size();
+            log.info("CSV loaded successfully: {} new records from {} files, {} in total",
+                    result.added().size(), loadedFiles, transactions.size());
+            statusLabel.setText((append ? "CSV appended: " + result.added().size() + " new records, " : "CSV loaded: ")
+                    + transactions.size() + " records from " + loadedFiles + (loadedFiles == 1 ? " file" : " files")
+                    + (result.failures().isEmpty() ? "" : ", " + result.failures().size() + " failed"));
+            if (!result.failures().isEmpty()) showLoadFailures(result.failures());
+            if (append && !results.isEmpty()) onAnalyze();
+        }, "loading CSV");
+    }
+
+    private void showLoadFailures(final List<MultiStatementLoader.Failure> failures) {
+        final String details = failures.stream()
+                .map(failure -> failure.file().getFileName() + ": " + failure.error().getMessage())
+                .collect(Collectors.joining("\n"));
+        new Alert(Alert.AlertType.WARNING, "These files could not be loaded:\n" + details, ButtonType.OK).showAndWait();
+    }
+
+    /**
+     * Runs a task on the background thread while the action buttons are disabled and its progress is shown.
+     *
+     * <p>Only one task runs at a time. The result is handed to {@code onSucceeded} on the FX thread; a failure
+     * is reported in an alert, a cancellation in the status label. A cancelled task only stops at its next
+     * cancellation check, so the controls come back once the background thread has actually finished it.</p>
+     *
+     * @param task        the task
+     * @param onSucceeded receives the result on the FX thread
+     * @param what        what the task does, for error messages, e.g. "loading CSV"
+     * @param <T>         the result type
+     */
+    private <T> void runInBackground(final Task<T> task, final Consumer<T> onSucceeded, final String what) {
+        currentTask = task;
+        actionBar.setDisable(true);
+        showProgress(true);
+        progressBar.progressProperty().bind(task.progressProperty());
+        statusLabel.textProperty().bind(task.messageProperty());
+
+        task.setOnSucceeded(_ -> {
+            finishTask();
+            onSucceeded.accept(task.getValue());
+        });
+        task.setOnCancelled(_ -> {
+            log.info("Cancelling {}", what);
+            statusLabel.textProperty().unbind();
+            statusLabel.setText("Cancelling " + what + "…");
+            cancelButton.setDisable(true);
+            // The background thread runs one task at a time: this runs once the cancelled one has returned.
+            backgroundExecutor.execute(() -> Platform.runLater(() -> {
+                finishTask();
+                log.info("Cancelled {}", what);
+                statusLabel.setText("Cancelled " + what);
+            }));
+        });
+        task.setOnFailed(_ -> {
+            finishTask();
+            final Throwable e = task.getException();
+            log.error("Failed {}: {}", what, e.getMessage(), e);
+            new Alert(Alert.AlertType.ERROR, "Error " + what + ":\n" + e.getMessage(), ButtonType.OK).showAndWait();
+            statusLabel.setText("Problem " + what + ": " + e.getMessage());
+        });
+        backgroundExecutor.execute(task);
+    }
+
+    private void finishTask() {
+        currentTask = null;
+        progressBar.progressProperty().unbind();
+        statusLabel.textProperty().unbind();
+        showProgress(false);
+        cancelButton.setDisable(false);
+        actionBar.setDisable(false);
+    }
+
+    private void showProgress(final boolean visible) {
+        progressBar.setVisible(visible);
+        progressBar.setManaged(visible);
+        cancelButton.setVisible(visible);
+        cancelButton.setManaged(visible);
+    }
+
+    @FXML
+    private void onCancel() {
+        if (Objects.nonNull(currentTask)) currentTask.cancel();
+    }
+
+    private List<File> chooseCsvFiles() {
+        final FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Select one or more CSV-files");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+        return fileChooser.showOpenMultipleDialog(null);
+    }
+
+    /**
+     * Shows the analysis of the loaded transactions. They were aggregated per month while they were loaded, so
+     * "All months" and every single month are summarised from the same cube, without reading the transactions
+     * again.
+     */
     @FXML
     private void onAnalyze() {
-        if (records.isEmpty()) {
+        if (transactions.isEmpty()) {
             statusLabel.setText("No data to analyse");
             return;
         }
 
+        final AnalysisService.IncrementalAnalysis source = analysis;
+        runInBackground(new BackgroundTask<Analysed>("Analysing") {
+            @Override
+            protected Analysed call() {
+                final PeriodCube cube = source.cube();
+                return new Analysed(cube.summaries(), cube);
+            }
+        }, analysed -> {
+            allPeriodSummaries = analysed.summaries();
+            periodCube = analysed.cube();
+            final List<Integer> periods = new ArrayList<>(periodCube.periodCount() + 1);
+            periods.add(ALL_PERIODS);
+            for (int period = periodCube.periodCount() - 1; period >= 0; period--) periods.add(period);
+            // Selecting a value before the items are set would show the previous analysis once more.
+            periodComboBox.getSelectionModel().clearSelection();
+            periodComboBox.getItems().setAll(periods);
+            periodComboBox.setDisable(false);
+            periodComboBox.getSelectionModel().select(Integer.valueOf(ALL_PERIODS));
+
+            analysisTab.setDisable(false);
+            tabPane.getSelectionModel().select(analysisTab);
+
+            log.info("Analysis completed: {} categories", results.size());
+            statusLabel.setText("Analysis completed: " + results.size() + " categories");
+        }, "analysing data");
+    }
+
+    /**
+     * Shows the analysis of the selected month, summarised from the cube. The chart and the export follow the
+     * selection, so a chart made for another month is dropped.
+     */
+    @FXML
+    private void onPeriodSelected() {
+        final Integer period = periodComboBox.getValue();
+        if (Objects.isNull(period) || Objects.isNull(periodCube)) return;
+
+        showResults(period == ALL_PERIODS ? allPeriodSummaries : periodCube.summaries(period, period));
+        chartPane.getChildren().clear();
+        chartTab.setDisable(true);
+        exportButton.setDisable(true);
+        exportTypeComboBox.setDisable(true);
+        statusLabel.setText("Analysis of " + periodComboBox.getConverter().toString(period) + ": " + results.size() + " categories");
+    }
+
+    private void showResults(final List<CategorySummary> summaries) {
+        analysisVersion++;
         results.clear();
-        results.addAll(analysisService.analyse(records));
+        results.addAll(summaries);
         analysisTable.setItems(FXCollections.observableArrayList(results));
-
-        analysisTab.setDisable(false);
-        tabPane.getSelectionModel().select(analysisTab);
         chartButton.setDisable(results.isEmpty());
-
-        log.info("Analysis completed: {} categories", results.size());
-        statusLabel.setText("Analysis completed: " + results.size() + " categories");
     }
 
     @FXML
@@ -186,14 +597,30 @@ public class MainController {
         chartPane.getChildren().setAll(chart);
         chartTab.setDisable(false);
         tabPane.getSelectionModel().select(chartTab);
+
+        analysisResult = new AnalysisResult(List.copyOf(results), analysisVersion);
         exportButton.setDisable(chartData.isEmpty());
         loadExportComboBox();
-
-        analysisResult = prepareChartTempFile(chart);
         log.info("Chart generated with {} categories", chartData.size());
         statusLabel.setText("Chart generated: " + results.size() + " categories");
     }
 
+    /**
+     * Renders the chart for the PDF export, at {@link ChartImage#DPI} for the width it is drawn at.
+     * This has to happen on the FX thread.
+     *
+     * @return the rendered chart, or null when no chart was generated
+     */
+    private WritableImage renderChart() {
+        if (chartPane.getChildren().isEmpty()) return null;
+        final Node chart = chartPane.getChildren().getFirst();
+        final double width = chart.getBoundsInLocal().getWidth();
+        final double scale = width > 0 ? ChartImage.renderScale(width) : 1;
+        final SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setTransform(Transform.scale(scale, scale));
+        return chart.snapshot(parameters, null);
+    }
+
     /**
      * Filters out summary categories (Income, Expenses, Balance) from chart data.
      *
@@ -208,18 +635,6 @@ public class MainController {
                 .toList();
     }
 
-    /**
-     * Generates a temporary PNG image of the chart for export and returns it wrapped in an AnalysisResult.
-     *
-     * @param chart the JavaFX PieChart to snapshot
-     * @return AnalysisResult containing current results and chart image path
-     */
-    private AnalysisResult prepareChartTempFile(final PieChart chart) {
-        final WritableImage fxImage = chart.snapshot(new SnapshotParameters(), null);
-        final BufferedImage buffered = SwingFXUtils.fromFXImage(fxImage, null);
-        return new AnalysisResult(results, buffered);
-    }
-
     /**
      * Populates and enables the export type ComboBox with all available ExportType values.
      */
@@ -242,7 +657,7 @@ public class MainController {
             return;
         }
 
-        exportResults(selectedType, file.toPath(), results);
+        exportResults(selectedType, file.toPath(), List.copyOf(results));
 
     }
 
@@ -264,30 +679,124 @@ public class MainController {
             case PDF -> fileChooser.getExtensionFilters().add(
                     new FileChooser.ExtensionFilter("PDF file", "*.pdf")
             );
+            case XLSX -> fileChooser.getExtensionFilters().add(
+                    new FileChooser.ExtensionFilter("Excel workbook", "*.xlsx")
+            );
         }
 
         return fileChooser.showSaveDialog(null);
     }
 
     /**
-     * Handles the actual export process, including optional chart image deletion.
+     * Handles the actual export process, including the chart for a PDF.
+     *
+     * <p>The chart is only rendered when a PDF is exported, and encoded once per analysis: exporting the same
+     * analysis again reuses the encoded chart. Cancelling the export deletes the partly written file.</p>
      *
      * @param type the export type
      * @param path the target file path
      * @param rows the data to export
      */
-    private void exportResults(final ExportType type, final Path path, final List<? extends ExportableRow> rows) {
+    private void exportResults(final ExportType type, final Path path, final List<CategorySummary> rows) {
         log.info("Starting export: type={}, target={}", type, path.toAbsolutePath());
-        try {
-            final BufferedImage image = analysisResult.getChartImage().orElse(null);
-            exportService.export(rows, path, type, image);
-            log.info("Export completed successfully: {}", path.toAbsolutePath());
-            statusLabel.setText("Export completed: " + path.toAbsolutePath());
+        final int version = analysisResult.version();
+        final boolean withChart = type == ExportType.PDF;
+        final ChartImage cached = withChart && chartImageVersion == version ? chartImage : null;
+        final WritableImage rendered = withChart && Objects.isNull(cached) ? renderChart() : null;
+        runInBackground(new BackgroundTask<Exported>("Exporting") {
+            @Override
+            protected Exported call() throws Exception {
+                final ChartImage chart = Objects.isNull(rendered) ? cached
+                        : ChartImage.encode(SwingFXUtils.fromFXImage(rendered, null));
+                try {
+                    exportService.exportAsync(rows, CategorySummary.EXPORT_SCHEMA, Map.of(type, path), chart, progress(0)).join();
+                } catch (final CompletionException e) {
+                    throw e.getCause() instanceof final Exception cause ? cause : e;
+                }
+                return new Exported(path, chart);
+            }
+        }, exported -> {
+            if (Objects.nonNull(exported.chart())) {
+                chartImage = exported.chart();
+                chartImageVersion = version;
+            }
+            log.info("Export completed successfully: {}", exported.path().toAbsolutePath());
+            statusLabel.setText("Export completed: " + exported.path().toAbsolutePath());
             statusLabel.setTextOverrun(OverrunStyle.ELLIPSIS);
-        } catch (final IOException e) {
-            log.error("Export failed: {}", e.getMessage(), e);
-            statusLabel.setText("Export failed: " + e.getMessage());
+        }, "exporting");
+    }
+
+    /**
+     * Exports every transaction of the chosen statements with its category, streaming them from the files
+     * to the target without loading them. A target ending in {@code .gz} is compressed; one ending in
+     * {@code .xlsx} becomes a workbook, one ending in {@code .pdf} a PDF table. The file type chosen in the dialog decides between comma- and
+     * semicolon-separated CSV. A cancelled or failed export deletes the partly written file.
+     */
+    @FXML
+    private void onExportTransactions() {
+        final List<File> files = chooseCsvFiles();
+        if (Objects.isNull(files) || files.isEmpty()) return;
+
+        final FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Dialog");
+        fileChooser.setInitialFileName("InsightFX_transactions.csv");
+        final FileChooser.ExtensionFilter europeanCsv =
+                new FileChooser.ExtensionFilter("European CSV file, semicolon-separated", "*.csv", "*.csv.gz");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV file, comma-separated", "*.csv", "*.csv.gz"),
+                europeanCsv,
+                new FileChooser.ExtensionFilter("Excel workbook", "*.xlsx"),
+                new FileChooser.ExtensionFilter("PDF file", "*.pdf"));
+        final File target = fileChooser.showSaveDialog(null);
+        if (Objects.isNull(target)) {
+            log.info("Transaction export cancelled by user");
+            return;
+        }
+
+        final List<Path> sources = files.stream().map(File::toPath).toList();
+        final Path path = target.toPath();
+        final String name = path.getFileName().toString();
+        final boolean gzip = name.endsWith(".gz");
+        final ExportType type = name.endsWith(".xlsx") ? ExportType.XLSX
+                : name.endsWith(".pdf") ? ExportType.PDF
+                : fileChooser.getSelectedExtensionFilter() == europeanCsv ? ExportType.EUROPEAN_CSV : ExportType.CSV;
+        runInBackground(new BackgroundTask<Long>("Exporting") {
+            @Override
+            protected Long call() throws IOException {
+                updateMessage("Exporting transactions…");
+                final long count;
+                try (final Stream<DataRecord> records = sources.stream()
+                        .flatMap(source -> csvParserService.stream(newInputStream(source)))
+                        .takeWhile(_ -> !isCancelled())) {
+                    count = exportService.exportTransactions(records, analysisService.categoriser(), path, type, gzip);
+                } catch (final IOException | RuntimeException e) {
+                    deletePartialFile(path);
+                    throw e;
+                }
+                // Cancelling ends the stream early: what was written is only part of the transactions.
+                if (isCancelled()) deletePartialFile(path);
+                return count;
+            }
+        }, count -> {
+            log.info("Transaction export completed: {} rows to {}", count, path.toAbsolutePath());
+            statusLabel.setText("Exported " + count + " transactions: " + path.toAbsolutePath());
             statusLabel.setTextOverrun(OverrunStyle.ELLIPSIS);
+        }, "exporting transactions");
+    }
+
+    private static void deletePartialFile(final Path file) {
+        try {
+            if (Files.deleteIfExists(file)) log.info("Deleted partial export {}", file);
+        } catch (final IOException e) {
+            log.warn("Could not delete partial export {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static InputStream newInputStream(final Path file) {
+        try {
+            return Files.newInputStream(file);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -304,7 +813,15 @@ public class MainController {
         chartTab.setDisable(true);
 
         results.clear();
-        records.clear();
+        allPeriodSummaries = List.of();
+        periodCube = null;
+        periodComboBox.getItems().clear();
+        periodComboBox.setDisable(true);
+        transactions = TransactionTable.empty();
+        analysis = analysisService.incremental();
+        transactionFilter = TransactionIndex.Filter.NONE;
+        clearFilterBar();
+        showTransactions(new TransactionIndex(transactions));
         chartPane.getChildren().clear();
         analysisTable.getItems().clear();
 
@@ -324,4 +841,21 @@ public class MainController {
         return categorySummary.getCategory() + " (" + String.format("%.1f", percent) + "%)";
     }
 
+    /**
+     * Result of loading statements: the rows that were new, the index of all loaded rows and the files that failed.
+     */
+    private record Loaded(TransactionTable added, TransactionIndex index, List<MultiStatementLoader.Failure> failures) {
+    }
+
+    /**
+     * Result of an analysis: the summaries of all loaded transactions and the cube to summarise single months from.
+     */
+    private record Analysed(List<CategorySummary> summaries, PeriodCube cube) {
+    }
+
+    /**
+     * Result of an export: the file written and the chart it included, if any.
+     */
+    private record Exported(Path path, ChartImage chart) {
+    }
 }
@@ -0,0 +1,174 @@
+package be.jensberckmoes.insightfx.controller;
+
+import be.jensberckmoes.insightfx.model.TransactionIndex;
+import be.jensberckmoes.insightfx.model.TransactionIndex.Column;
+import be.jensberckmoes.insightfx.model.TransactionTable;
+import javafx.collections.ObservableListBase;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Backing list of the data table: a view over a {@link TransactionTable} that copies nothing.
+ *
+ * <p>The items are the table's row indices, in display order, as computed by a {@link TransactionIndex};
+ * the cells read their text through {@link #text(Column, int)} for the rows on screen only. Dates and amounts have to be formatted; the last
+ * texts are kept in small fixed-size caches, so scrolling back and forth formats each visible value once
+ * and the heap holds no more than a few thousand strings however many rows there are.</p>
+ *
+ * <p>Like the table view it backs, the model is used on the FX thread only.</p>
+ */
+final class TransactionTableModel extends ObservableListBase<Integer> implements RandomAccess {
+    private static final int TEXT_CACHE_SIZE = 1 << 12;
+
+    private final TransactionIndex index;
+    private final TransactionTable table;
+    private final TextCache dateTexts = new TextCache();
+    private final TextCache amountTexts = new TextCache();
+    private int[] order;
+
+    /**
+     * Shows every row of the indexed table, in table order.
+     *
+     * @param index the index of the table to show
+     */
+    TransactionTableModel(final TransactionIndex index) {
+        this.index = Objects.requireNonNull(index, "index");
+        this.table = index.table();
+    }
+
+    /**
+     * Shows the rows of the indexed table that pass a filter, in table order. The rows are there from the start,
+     * so a sort policy fired when the model is installed reorders exactly the rows it shows.
+     *
+     * @param index  the index of the table to show
+     * @param filter the filter, {@link TransactionIndex.Filter#NONE} for every row
+     */
+    TransactionTableModel(final TransactionIndex index, final TransactionIndex.Filter filter) {
+        this(index);
+        if (!filter.isEmpty()) order = index.rows(List.of(), filter);
+    }
+
+    TransactionIndex index() {
+        return index;
+    }
+
+    /**
+     * @param index the display index
+     * @return the table row shown at that index
+     */
+    int row(final int index) {
+        return Objects.isNull(order) ? Objects.checkIndex(index, table.size()) : order[index];
+    }
+
+    @Override
+    public Integer get(final int index) {
+        return row(index);
+    }
+
+    @Override
+    public int size() {
+        return Objects.isNull(order) ? table.size() : order.length;
+    }
+
+    /**
+     * Returns the text of one cell.
+     *
+     * @param column the column
+     * @param index  the display index
+     * @return the text, or null when the cell is empty
+     */
+    String text(final Column column, final int index) {
+        final int row = row(index);
+        return switch (column) {
+            case DATE -> {
+                final int epochDay = table.epochDay(row);
+                final String cached = dateTexts.get(epochDay);
+                yield Objects.nonNull(cached) ? cached : dateTexts.put(epochDay, LocalDate.ofEpochDay(epochDay).toString());
+            }
+            case DESCRIPTION -> table.description(row);
+            case AMOUNT -> {
+                final String cached = amountTexts.get(row);
+                yield Objects.nonNull(cached) ? cached : amountTexts.put(row, table.amount(row).toString());
+            }
+            case COMMENTS -> table.comments(row);
+        };
+    }
+
+    /**
+     * Puts the same rows in another order. Fires no change; the table view is refreshed by its sort policy.
+     *
+     * @param rows the rows in their new order, or null for table order
+     */
+    void reorder(final int[] rows) {
+        if ((Objects.isNull(rows) ? table.size() : rows.length) != size()) {
+            throw new IllegalArgumentException("Reordering can't change the number of rows");
+        }
+        order = rows;
+    }
+
+    /**
+     * Shows other rows, such as those passing a new filter, and tells the table view.
+     *
+     * @param rows the rows to show in display order, or null for every row in table order
+     */
+    void show(final int[] rows) {
+        final List<Integer> removed = new Rows(order, size());
+        order = rows;
+        beginChange();
+        nextReplace(0, size(), removed);
+        endChange();
+    }
+
+    /**
+     * The rows shown before a change, for the change event.
+     */
+    private static final class Rows extends AbstractList<Integer> implements RandomAccess {
+        private final int[] rows;
+        private final int size;
+
+        private Rows(final int[] rows, final int size) {
+            this.rows = rows;
+            this.size = size;
+        }
+
+        @Override
+        public Integer get(final int index) {
+            return Objects.isNull(rows) ? Objects.checkIndex(index, size) : rows[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Direct-mapped cache of formatted values: a key only ever lives in one slot, so a lookup is a single
+     * array read and a newer text simply replaces an older one.
+     */
+    private static final class TextCache {
+        private final int[] keys = new int[TEXT_CACHE_SIZE];
+        private final String[] texts = new String[TEXT_CACHE_SIZE];
+
+        private TextCache() {
+            Arrays.fill(keys, Integer.MIN_VALUE);
+        }
+
+        private String get(final int key) {
+            final int slot = key & TEXT_CACHE_SIZE - 1;
+            return keys[slot] == key ? texts[slot] : null;
+        }
+
+        private String put(final int key, final String text) {
+            final int slot = key & TEXT_CACHE_SIZE - 1;
+            keys[slot] = key;
+            texts[slot] = text;
+            return text;
+        }
+    }
+}
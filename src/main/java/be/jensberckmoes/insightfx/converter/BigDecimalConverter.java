@@ -3,17 +3,125 @@ import java.math.BigDecimal;
 import java.util.Objects;
 
 import be.jensberckmoes.insightfx.exception.CsvParsingException;
-import com.opencsv.bean.AbstractBeanField;
 /**
  * Converter for BigDecimal velden in CSV.
  * throws CsvParsingException when invalid or empty values received or when amount received is zero.
  */
-public class BigDecimalConverter extends AbstractBeanField<BigDecimal, String> {
-    @Override
-    protected Object convert(final String value) {
+public final class BigDecimalConverter {
+    private static final int MAX_FAST_DIGITS = 16;
+    private static final long NOT_PLAIN = Long.MIN_VALUE;
+    private static final long[] CENTS_PER_UNIT = {100, 10, 1};
+
+    private BigDecimalConverter() {
+    }
+
+    /**
+     * Parses an amount with either a decimal comma or a decimal point.
+     *
+     * @param value the raw CSV value
+     * @return the parsed amount
+     * @throws CsvParsingException when the value is empty or zero
+     * @throws NumberFormatException when the value is not a number
+     */
+    public static BigDecimal parseAmount(final String value) {
         if (Objects.isNull(value) || value.isBlank()) throw new CsvParsingException("Amount can't be empty");
         final BigDecimal decimal = new BigDecimal(value.replace(",", ".").trim());
         if(decimal.equals(BigDecimal.ZERO)) throw new CsvParsingException("Amount can't be zero");
         return decimal;
     }
+
+    /**
+     * Parses an amount straight from a character range, without creating intermediate strings.
+     * <p>
+     * Plain amounts such as {@code -11,6} or {@code 1250.00} with at most two decimals and sixteen digits
+     * are decoded directly into an unscaled {@code long}. Anything else goes through {@link #parseAmount(String)},
+     * so values and errors are identical to it, including the scale of the result.
+     * </p>
+     *
+     * @param chars the characters holding the raw CSV value
+     * @param from  index of the first character of the value
+     * @param to    index just after the last character of the value
+     * @return the parsed amount
+     * @throws CsvParsingException when the value is empty or zero
+     * @throws NumberFormatException when the value is not a number
+     * @see #parseAmountCents(char[], int, int, int[])
+     */
+    public static BigDecimal parseAmount(final char[] chars, final int from, final int to) {
+        final int[] scale = new int[1];
+        final long unscaled = parsePlain(chars, from, to, scale);
+        if (unscaled == NOT_PLAIN) return parseAmount(new String(chars, from, to - from));
+        return BigDecimal.valueOf(unscaled, scale[0]);
+    }
+
+    /**
+     * Parses an amount from a character range into whole cents, without allocating.
+     * <p>
+     * Accepts the same values as {@link #parseAmount(char[], int, int)} as long as they have at most two decimals.
+     * The number of decimals the amount was written with is stored in {@code scale[0]}, so that {@code -11,6}
+     * gives -1160 cents with scale 1.
+     * </p>
+     *
+     * @param chars the characters holding the raw CSV value
+     * @param from  index of the first character of the value
+     * @param to    index just after the last character of the value
+     * @param scale caller's buffer that receives the scale, 0 to 2, at index 0
+     * @return the amount in cents
+     * @throws CsvParsingException when the value is empty or zero
+     * @throws NumberFormatException when the value is not a number
+     * @throws IllegalArgumentException when the amount has more than two decimals or does not fit in cents
+     */
+    public static long parseAmountCents(final char[] chars, final int from, final int to, final int[] scale) {
+        final long unscaled = parsePlain(chars, from, to, scale);
+        if (unscaled != NOT_PLAIN) return unscaled * CENTS_PER_UNIT[scale[0]];
+
+        final BigDecimal amount = parseAmount(new String(chars, from, to - from));
+        final BigDecimal normalized = amount.scale() < 0 ? amount.setScale(0) : amount;
+        if (normalized.scale() > 2) {
+            throw new IllegalArgumentException("Amount has more than 2 decimals: " + amount);
+        }
+        try {
+            final long cents = normalized.movePointRight(2).longValueExact();
+            scale[0] = normalized.scale();
+            return cents;
+        } catch (final ArithmeticException e) {
+            throw new IllegalArgumentException("Amount too large: " + amount, e);
+        }
+    }
+
+    /**
+     * Decodes a plain amount into its unscaled value, storing the scale in {@code scale[0]}.
+     *
+     * @return the unscaled value, or {@link #NOT_PLAIN} when the value needs {@link #parseAmount(String)}
+     */
+    private static long parsePlain(final char[] chars, final int from, final int to, final int[] scale) {
+        int start = from;
+        int end = to;
+        while (start < end && chars[start] <= ' ') start++;
+        while (end > start && chars[end - 1] <= ' ') end--;
+
+        int i = start;
+        final boolean negative = i < end && chars[i] == '-';
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) i++;
+
+        long unscaled = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < end; i++) {
+            final char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (decimals >= 0) decimals++;
+            } else if ((c == ',' || c == '.') && decimals < 0) {
+                decimals = 0;
+            } else {
+                return NOT_PLAIN;
+            }
+        }
+        if (digits == 0 || digits > MAX_FAST_DIGITS || decimals > 2) return NOT_PLAIN;
+        decimals = Math.max(decimals, 0);
+        if (unscaled == 0 && decimals == 0) throw new CsvParsingException("Amount can't be zero");
+        scale[0] = decimals;
+        return negative ? -unscaled : unscaled;
+    }
 }
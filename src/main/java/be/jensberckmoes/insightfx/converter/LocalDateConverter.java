@@ -1,7 +1,6 @@
 package be.jensberckmoes.insightfx.converter;
 
 import be.jensberckmoes.insightfx.exception.CsvParsingException;
-import com.opencsv.bean.AbstractBeanField;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
@@ -10,12 +9,91 @@ import java.util.Objects;
  * Expects format "dd/MM/yyyy".
  * throws CsvParsingException when invalid or empty values received.
  */
-public class LocalDateConverter extends AbstractBeanField<LocalDate, String> {
+public final class LocalDateConverter {
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final long DAYS_0000_TO_1970 = 719528L;
 
-    @Override
-    protected Object convert(final String value) {
+    private LocalDateConverter() {
+    }
+
+    /**
+     * Parses a date in the format "dd/MM/yyyy".
+     *
+     * @param value the raw CSV value
+     * @return the parsed date
+     * @throws CsvParsingException when the value is empty
+     * @throws java.time.format.DateTimeParseException when the value is not a valid date
+     */
+    public static LocalDate parseDate(final String value) {
         if (Objects.isNull(value) || value.isBlank()) throw new CsvParsingException("Date can't be empty");
         return LocalDate.parse(value.trim(), FORMATTER);
     }
+
+    /**
+     * Parses a date in the format "dd/MM/yyyy" straight from a character range into an epoch day,
+     * without creating intermediate strings or going through {@link DateTimeFormatter}.
+     * <p>
+     * Values that are not a plain, valid date fall back to {@link #parseDate(String)}, so results and
+     * errors are identical to it.
+     * </p>
+     *
+     * @param chars the characters holding the raw CSV value
+     * @param from  index of the first character of the value
+     * @param to    index just after the last character of the value
+     * @return the parsed date as epoch day
+     * @throws CsvParsingException when the value is empty
+     * @throws java.time.format.DateTimeParseException when the value is not a valid date
+     */
+    public static long parseEpochDay(final char[] chars, final int from, final int to) {
+        int start = from;
+        int end = to;
+        while (start < end && chars[start] <= ' ') start++;
+        while (end > start && chars[end - 1] <= ' ') end--;
+
+        if (end - start == 10 && chars[start + 2] == '/' && chars[start + 5] == '/') {
+            final int day = digits(chars, start, 2);
+            final int month = digits(chars, start + 3, 2);
+            final int year = digits(chars, start + 6, 4);
+            if (day > 0 && month > 0 && month <= 12 && year > 0 && day <= lengthOfMonth(year, month)) {
+                return epochDay(year, month, day);
+            }
+        }
+        return parseDate(new String(chars, from, to - from)).toEpochDay();
+    }
+
+    private static int digits(final char[] chars, final int start, final int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            final char c = chars[i];
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(final int year, final int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean isLeapYear(final int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * Same arithmetic as {@link LocalDate#toEpochDay()} for positive years.
+     */
+    private static long epochDay(final int year, final int month, final int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367L * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) total--;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
 }
@@ -1,7 +1,6 @@
 package be.jensberckmoes.insightfx.converter;
 
 import be.jensberckmoes.insightfx.exception.CsvParsingException;
-import com.opencsv.bean.AbstractBeanField;
 
 import java.util.Objects;
 
@@ -9,9 +8,18 @@ import java.util.Objects;
  * Converter for String fields that are required in CSV.
  * throws CsvParsingException when invalid or empty values received.
  */
-public class RequiredTrimmedStringConverter extends AbstractBeanField<String, String> {
-    @Override
-    protected Object convert(final String value) {
+public final class RequiredTrimmedStringConverter {
+    private RequiredTrimmedStringConverter() {
+    }
+
+    /**
+     * Trims a mandatory value.
+     *
+     * @param value the raw CSV value
+     * @return the trimmed value
+     * @throws CsvParsingException when the value is null or blank
+     */
+    public static String requireTrimmed(final String value) {
         if (Objects.isNull(value)) {
             throw new CsvParsingException("Field is mandatory");
         }
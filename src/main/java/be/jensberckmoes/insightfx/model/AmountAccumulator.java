@@ -0,0 +1,103 @@
+package be.jensberckmoes.insightfx.model;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Exact running sum of monetary amounts, kept as scaled {@code long} cents.
+ *
+ * <p>Additions are primitive and allocation-free as long as every amount has at most two decimals
+ * and the sum fits in a {@code long}. When either condition is violated, the accumulator switches
+ * once to {@link BigDecimal} arithmetic, so the result is always exact.</p>
+ *
+ * <p>{@link #toBigDecimal()} returns the same value and scale as adding the amounts with
+ * {@link BigDecimal#add(BigDecimal)} starting from {@link BigDecimal#ZERO}: the scale is the largest
+ * scale that was added.</p>
+ *
+ * <p>Not thread-safe; use one accumulator per thread and {@link #add(AmountAccumulator)} to merge.</p>
+ */
+public final class AmountAccumulator {
+    private static final long[] POWERS_OF_TEN = {1, 10, 100};
+
+    private long cents = 0;
+    private int scale = 0;
+    private BigDecimal exact;
+
+    /**
+     * Adds an amount.
+     *
+     * @param amount the amount to add; must not be null
+     */
+    public void add(final BigDecimal amount) {
+        if (Objects.isNull(exact)) {
+            final int amountScale = amount.scale();
+            if (amountScale >= 0 && amountScale <= 2 && amount.precision() <= 16) {
+                final long unscaled = amountScale == 0 ? amount.longValue() : amount.unscaledValue().longValue();
+                if (tryAddCents(unscaled * POWERS_OF_TEN[2 - amountScale], amountScale)) return;
+            }
+            exact = toBigDecimal();
+        }
+        exact = exact.add(amount);
+    }
+
+    /**
+     * Adds an amount given in cents.
+     *
+     * @param amountCents the amount in cents
+     * @param amountScale the number of decimals the amount was written with, 0 to 2
+     */
+    public void addCents(final long amountCents, final int amountScale) {
+        if (amountScale < 0 || amountScale > 2) throw new IllegalArgumentException("Scale must be between 0 and 2: " + amountScale);
+        if (Objects.isNull(exact) && tryAddCents(amountCents, amountScale)) return;
+        if (Objects.isNull(exact)) exact = toBigDecimal();
+        exact = exact.add(BigDecimal.valueOf(amountCents, 2).setScale(amountScale));
+    }
+
+    /**
+     * Adds the sum of another accumulator; the other accumulator is left unchanged.
+     *
+     * @param other the accumulator to merge in
+     */
+    public void add(final AmountAccumulator other) {
+        if (Objects.isNull(exact) && Objects.isNull(other.exact) && tryAddCents(other.cents, other.scale)) return;
+        if (Objects.isNull(exact)) exact = toBigDecimal();
+        exact = exact.add(other.toBigDecimal());
+    }
+
+    /**
+     * Returns the exact sum.
+     *
+     * @return the sum, with the largest scale that was added
+     */
+    public BigDecimal toBigDecimal() {
+        if (Objects.nonNull(exact)) return exact;
+        return BigDecimal.valueOf(cents / POWERS_OF_TEN[2 - scale], scale);
+    }
+
+    /**
+     * Writes the sum to an export without converting it to a {@link BigDecimal} first.
+     *
+     * @param out the export writer
+     * @throws IOException if the writer fails
+     */
+    public void writeTo(final ExportSchema.FieldWriter out) throws IOException {
+        if (Objects.nonNull(exact)) out.decimal(exact);
+        else out.decimal(cents / POWERS_OF_TEN[2 - scale], scale);
+    }
+
+    /**
+     * @return true once the sum no longer fits the primitive representation
+     */
+    public boolean isExactFallback() {
+        return Objects.nonNull(exact);
+    }
+
+    private boolean tryAddCents(final long amountCents, final int amountScale) {
+        final long sum = cents + amountCents;
+        if (((cents ^ sum) & (amountCents ^ sum)) < 0) return false;
+        cents = sum;
+        if (amountScale > scale) scale = amountScale;
+        return true;
+    }
+}
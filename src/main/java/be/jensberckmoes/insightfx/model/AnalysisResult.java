@@ -1,13 +1,13 @@
 package be.jensberckmoes.insightfx.model;
 
-import java.awt.image.BufferedImage;
 import java.util.List;
-import java.util.Optional;
-
-public record AnalysisResult(List<CategorySummary> results, BufferedImage chartImage) {
-    public Optional<BufferedImage> getChartImage() {
-        return Optional.ofNullable(chartImage);
-    }
 
+/**
+ * The category summaries a chart was generated from.
+ *
+ * @param results the summaries
+ * @param version the analysis they came from; a new analysis has a higher version, so anything derived from an
+ *                older one, such as an encoded chart, can be recognised as outdated
+ */
+public record AnalysisResult(List<CategorySummary> results, int version) {
 }
-
@@ -1,16 +1,29 @@
 package be.jensberckmoes.insightfx.model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
 import java.math.BigDecimal;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 
 @Getter
 public class CategorySummary implements ExportableRow {
+    /**
+     * The export columns: the category and its total, written straight from the running sum.
+     */
+    public static final ExportSchema<CategorySummary> EXPORT_SCHEMA = ExportSchema.<CategorySummary>builder()
+            .text("Category", CategorySummary::getCategory)
+            .column("Amount", (summary, out) -> summary.accumulator.writeTo(out))
+            .build();
+
     private final String category;
     private int count = 0;
-    private BigDecimal total = BigDecimal.ZERO;
+    @Getter(AccessLevel.NONE)
+    private final AmountAccumulator accumulator = new AmountAccumulator();
+    @Getter(AccessLevel.NONE)
+    private BigDecimal total;
 
     public CategorySummary(final String category) {
         this.category = category;
@@ -18,19 +31,48 @@ public class CategorySummary implements ExportableRow {
 
     public CategorySummary(final String category, final BigDecimal total) {
         this.category = category;
+        this.accumulator.add(total);
         this.total = total;
     }
 
+    /**
+     * Creates a summary from totals that were aggregated elsewhere.
+     *
+     * @param category the category name
+     * @param count    the number of transactions
+     * @param total    the summed amount
+     */
+    public CategorySummary(final String category, final int count, final BigDecimal total) {
+        this.category = category;
+        this.count = count;
+        this.accumulator.add(total);
+        this.total = total;
+    }
+
+    /**
+     * Adds a transaction. The amount is summed in fixed-point cents; the total is only converted
+     * back to a {@link BigDecimal} when it is read.
+     *
+     * @param amount the transaction amount
+     */
     public void addTransaction(final BigDecimal amount) {
-        total = total.add(amount);
+        accumulator.add(amount);
+        total = null;
         count++;
     }
 
+    public BigDecimal getTotal() {
+        if (Objects.isNull(total)) {
+            total = accumulator.toBigDecimal();
+        }
+        return total;
+    }
+
     @Override
     public Map<String, Object> toRow() {
         final Map<String, Object> map = new LinkedHashMap<>();
         map.put("Category", category);
-        map.put("Amount", total);
+        map.put("Amount", getTotal());
         return map;
     }
-}
\ No newline at end of file
+}
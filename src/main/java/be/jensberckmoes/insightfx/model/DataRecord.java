@@ -1,10 +1,5 @@
 package be.jensberckmoes.insightfx.model;
 
-import be.jensberckmoes.insightfx.converter.BigDecimalConverter;
-import be.jensberckmoes.insightfx.converter.LocalDateConverter;
-import be.jensberckmoes.insightfx.converter.RequiredTrimmedStringConverter;
-import com.opencsv.bean.CsvBindByName;
-import com.opencsv.bean.CsvCustomBindByName;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -18,16 +13,18 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @ToString
 public class DataRecord {
-    @CsvCustomBindByName(column = "Omschrijving", converter = RequiredTrimmedStringConverter.class)
     private String description;
-
-    @CsvCustomBindByName(column = "Valuta", converter = LocalDateConverter.class)
     private LocalDate currencyDate;
-
-    @CsvCustomBindByName(column = "Bedrag", converter = BigDecimalConverter.class)
     private BigDecimal amount;
-
-    @CsvBindByName(column = "Vrije mededeling")
     private String comments;
+    private String statementNumber;
+    private LocalDate bookingDate;
+    private String counterparty;
 
+    /**
+     * Creates a record that is not linked to a statement.
+     */
+    public DataRecord(final String description, final LocalDate currencyDate, final BigDecimal amount, final String comments) {
+        this(description, currencyDate, amount, comments, null, null, null);
+    }
 }
@@ -0,0 +1,157 @@
+package be.jensberckmoes.insightfx.model;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * The fixed columns of an export, with a typed accessor per column.
+ *
+ * <p>An export writer asks the schema to {@link #write(Object, FieldWriter) write} each row. The schema hands the
+ * row's values to the writer one column at a time, as text, decimals or dates. No map, stream or line string is
+ * built per row, so a writer that formats into its own buffer exports without allocating.</p>
+ *
+ * <pre>{@code
+ * ExportSchema.<CategorySummary>builder()
+ *         .text("Category", CategorySummary::getCategory)
+ *         .decimal("Amount", CategorySummary::getTotal)
+ *         .build();
+ * }</pre>
+ *
+ * @param <R> the row type
+ */
+public final class ExportSchema<R> {
+    private final List<String> headers;
+    private final List<RowWriter<? super R>> columns;
+
+    private ExportSchema(final List<String> headers, final List<RowWriter<? super R>> columns) {
+        this.headers = List.copyOf(headers);
+        this.columns = List.copyOf(columns);
+    }
+
+    /**
+     * Receives the values of one row, in column order. Null values are written as empty fields.
+     */
+    public interface FieldWriter {
+        void text(CharSequence value) throws IOException;
+
+        /**
+         * Writes a decimal given as an unscaled value, e.g. {@code -475} with scale 2 for {@code -4.75}.
+         */
+        void decimal(long unscaled, int scale) throws IOException;
+
+        default void decimal(final BigDecimal value) throws IOException {
+            text(Objects.isNull(value) ? null : value.toPlainString());
+        }
+
+        default void date(final LocalDate value) throws IOException {
+            text(Objects.isNull(value) ? null : value.toString());
+        }
+    }
+
+    /**
+     * Writes the values of one or more columns of a row.
+     *
+     * @param <R> the row type
+     */
+    @FunctionalInterface
+    public interface RowWriter<R> {
+        void write(R row, FieldWriter out) throws IOException;
+    }
+
+    public static <R> Builder<R> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Returns a schema that reads rows through {@link ExportableRow#toRow()}, for rows without a schema of their own.
+     * It builds a map per row, so prefer a typed schema for large exports.
+     *
+     * @param headers the keys to export, in order
+     * @return the schema
+     */
+    public static ExportSchema<ExportableRow> ofRowMaps(final List<String> headers) {
+        final List<String> keys = List.copyOf(headers);
+        final RowWriter<ExportableRow> mapped = (row, out) -> {
+            final Map<String, Object> values = row.toRow();
+            for (final String key : keys) {
+                final Object value = values.get(key);
+                if (value instanceof final BigDecimal decimal) out.decimal(decimal);
+                else out.text(Objects.isNull(value) ? null : value.toString());
+            }
+        };
+        return new ExportSchema<>(keys, List.of(mapped));
+    }
+
+    /**
+     * @return the column names, in order
+     */
+    public List<String> headers() {
+        return headers;
+    }
+
+    /**
+     * Writes the values of a row, one per header.
+     *
+     * @param row the row
+     * @param out receives the values
+     * @throws IOException if the writer fails
+     */
+    public void write(final R row, final FieldWriter out) throws IOException {
+        for (final RowWriter<? super R> column : columns) {
+            column.write(row, out);
+        }
+    }
+
+    /**
+     * Builds a schema one column at a time.
+     *
+     * @param <R> the row type
+     */
+    public static final class Builder<R> {
+        private final List<String> headers = new ArrayList<>();
+        private final List<RowWriter<? super R>> columns = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder<R> text(final String name, final Function<? super R, ? extends CharSequence> accessor) {
+            return column(name, (row, out) -> out.text(accessor.apply(row)));
+        }
+
+        public Builder<R> decimal(final String name, final Function<? super R, BigDecimal> accessor) {
+            return column(name, (row, out) -> out.decimal(accessor.apply(row)));
+        }
+
+        /**
+         * Adds a decimal column read as a primitive, e.g. cents with scale 2.
+         */
+        public Builder<R> decimal(final String name, final ToLongFunction<? super R> unscaled, final int scale) {
+            if (scale < 0) throw new IllegalArgumentException("Scale must not be negative: " + scale);
+            return column(name, (row, out) -> out.decimal(unscaled.applyAsLong(row), scale));
+        }
+
+        public Builder<R> date(final String name, final Function<? super R, LocalDate> accessor) {
+            return column(name, (row, out) -> out.date(accessor.apply(row)));
+        }
+
+        /**
+         * Adds a column that writes its own value; it must write exactly one value per row.
+         */
+        public Builder<R> column(final String name, final RowWriter<? super R> writer) {
+            headers.add(Objects.requireNonNull(name));
+            columns.add(Objects.requireNonNull(writer));
+            return this;
+        }
+
+        public ExportSchema<R> build() {
+            return new ExportSchema<>(headers, columns);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 package be.jensberckmoes.insightfx.model;
 
 public enum ExportType {
-    CSV,PDF,EUROPEAN_CSV
+    CSV,PDF,EUROPEAN_CSV,XLSX
 }
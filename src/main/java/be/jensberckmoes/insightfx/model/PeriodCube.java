@@ -0,0 +1,333 @@
+package be.jensberckmoes.insightfx.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Transaction counts and sums per category, period and sign, aggregated once so that any slice of time can be
+ * summarised without going back to the transactions.
+ *
+ * <p>The periods are days, weeks or months, covering every period from the first to the last transaction. Each
+ * cell holds the count and the sum in cents of the income or expenses of one category in one period; amounts
+ * of zero count as expenses, as in the analysis. Summarising a range of periods, for instance one month, adds
+ * up the cells of that range: its cost depends on the number of categories and periods, not on the number of
+ * transactions.</p>
+ *
+ * <p>Categories keep the order in which they were first seen. Cubes of separate batches of transactions can be
+ * {@linkplain #merge(PeriodCube) merged}, at a cost that depends on their cells only. Immutable and thread-safe
+ * once built.</p>
+ */
+public final class PeriodCube {
+    private static final int SIGNS = 2;
+    private static final int INCOME = 0;
+    private static final int EXPENSE = 1;
+
+    private final Granularity granularity;
+    private final int firstBucket;
+    private final int periodCount;
+    private final List<String> categories;
+    private final int[][] counts;
+    private final long[][] cents;
+    private final byte[][] scales;
+
+    private PeriodCube(final Builder builder) {
+        this(builder.granularity, builder.firstBucket, builder.periodCount, builder.categories,
+                builder.counts.toArray(int[][]::new), builder.cents.toArray(long[][]::new), builder.scales.toArray(byte[][]::new));
+    }
+
+    private PeriodCube(final Granularity granularity, final int firstBucket, final int periodCount,
+                       final List<String> categories, final int[][] counts, final long[][] cents, final byte[][] scales) {
+        this.granularity = granularity;
+        this.firstBucket = firstBucket;
+        this.periodCount = periodCount;
+        this.categories = List.copyOf(categories);
+        this.counts = counts;
+        this.cents = cents;
+        this.scales = scales;
+    }
+
+    /**
+     * The length of the periods of a cube.
+     */
+    public enum Granularity {
+        DAY, WEEK, MONTH;
+
+        /**
+         * Numbers the periods consecutively: epoch days, ISO weeks counted from the one of 1970-01-01, or months
+         * counted from year zero.
+         */
+        private int bucket(final LocalDate date) {
+            final long epochDay = date.toEpochDay();
+            return switch (this) {
+                case DAY -> Math.toIntExact(epochDay);
+                // 1970-01-01 is a Thursday: the week containing it starts three days earlier.
+                case WEEK -> Math.toIntExact(Math.floorDiv(epochDay + 3, 7));
+                case MONTH -> date.getYear() * 12 + date.getMonthValue() - 1;
+            };
+        }
+
+        private LocalDate start(final int bucket) {
+            return switch (this) {
+                case DAY -> LocalDate.ofEpochDay(bucket);
+                case WEEK -> LocalDate.ofEpochDay(bucket * 7L - 3);
+                case MONTH -> LocalDate.of(Math.floorDiv(bucket, 12), Math.floorMod(bucket, 12) + 1, 1);
+            };
+        }
+    }
+
+    /**
+     * Starts a cube covering the periods from {@code first} to {@code last}; without dates it has no periods.
+     *
+     * @param granularity the length of the periods
+     * @param first       the date of the first transaction, or null when there are none
+     * @param last        the date of the last transaction, or null when there are none
+     * @return the builder
+     */
+    public static Builder builder(final Granularity granularity, final LocalDate first, final LocalDate last) {
+        return new Builder(granularity, first, last);
+    }
+
+    public Granularity granularity() {
+        return granularity;
+    }
+
+    /**
+     * @return the categories, in the order they were first seen
+     */
+    public List<String> categories() {
+        return categories;
+    }
+
+    public int periodCount() {
+        return periodCount;
+    }
+
+    /**
+     * @return the number of transactions in all cells
+     */
+    public long transactionCount() {
+        long total = 0;
+        for (final int[] categoryCounts : counts) {
+            for (final int count : categoryCounts) total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @param period the period index, from 0 to {@link #periodCount()} - 1
+     * @return the first day of the period
+     */
+    public LocalDate periodStart(final int period) {
+        return granularity.start(firstBucket + Objects.checkIndex(period, periodCount));
+    }
+
+    /**
+     * @param date a date
+     * @return the index of the period containing the date, or -1 when it lies outside the cube
+     */
+    public int period(final LocalDate date) {
+        final int period = granularity.bucket(date) - firstBucket;
+        return period >= 0 && period < periodCount ? period : -1;
+    }
+
+    /**
+     * @return the number of transactions in one cell
+     */
+    public int count(final int category, final int period, final boolean income) {
+        return counts[category][cell(period, income)];
+    }
+
+    /**
+     * @return the sum of the transactions in one cell, with the largest scale that was added
+     */
+    public BigDecimal sum(final int category, final int period, final boolean income) {
+        final AmountAccumulator sum = new AmountAccumulator();
+        final int cell = cell(period, income);
+        sum.addCents(cents[category][cell], scales[category][cell]);
+        return sum.toBigDecimal();
+    }
+
+    /**
+     * Summarises all periods, like {@link #summaries(int, int)} over the whole cube.
+     *
+     * @return the category summaries
+     */
+    public List<CategorySummary> summaries() {
+        return summaries(0, periodCount - 1);
+    }
+
+    /**
+     * Summarises a range of periods in the shape of an analysis: one summary per category with transactions in
+     * the range, followed by "Total Income", "Total Expenses" and "Balance".
+     *
+     * @param fromPeriod the first period, inclusive
+     * @param toPeriod   the last period, inclusive; before {@code fromPeriod} for an empty range
+     * @return the category summaries
+     */
+    public List<CategorySummary> summaries(final int fromPeriod, final int toPeriod) {
+        if (fromPeriod <= toPeriod) {
+            Objects.checkIndex(fromPeriod, periodCount);
+            Objects.checkIndex(toPeriod, periodCount);
+        }
+        final List<CategorySummary> summaries = new ArrayList<>(categories.size() + 3);
+        final AmountAccumulator income = new AmountAccumulator();
+        final AmountAccumulator expenses = new AmountAccumulator();
+        for (int category = 0; category < categories.size(); category++) {
+            final AmountAccumulator total = new AmountAccumulator();
+            int count = 0;
+            for (int cell = fromPeriod * SIGNS; cell < (toPeriod + 1) * SIGNS; cell++) {
+                if (counts[category][cell] == 0) continue;
+                count += counts[category][cell];
+                total.addCents(cents[category][cell], scales[category][cell]);
+                (cell % SIGNS == INCOME ? income : expenses).addCents(cents[category][cell], scales[category][cell]);
+            }
+            if (count > 0) summaries.add(new CategorySummary(categories.get(category), count, total.toBigDecimal()));
+        }
+        final BigDecimal totalIncome = income.toBigDecimal();
+        final BigDecimal totalExpenses = expenses.toBigDecimal();
+        summaries.add(new CategorySummary("Total Income", totalIncome));
+        summaries.add(new CategorySummary("Total Expenses", totalExpenses));
+        summaries.add(new CategorySummary("Balance", totalIncome.add(totalExpenses)));
+        return summaries;
+    }
+
+    /**
+     * Adds up this cube and another one, for instance the cube of a newly loaded batch of transactions. The
+     * result covers the periods of both; the categories of this cube come first, followed by the new ones of
+     * the other cube.
+     *
+     * @param other a cube with the same granularity
+     * @return the merged cube
+     * @throws IllegalArgumentException if the granularities differ
+     * @throws ArithmeticException      if a cell's sum no longer fits a {@code long}
+     */
+    public PeriodCube merge(final PeriodCube other) {
+        if (other.granularity != granularity) {
+            throw new IllegalArgumentException("Can't merge a " + other.granularity + " cube into a " + granularity + " cube");
+        }
+        if (other.periodCount == 0) return this;
+        if (periodCount == 0) return other;
+
+        final int first = Math.min(firstBucket, other.firstBucket);
+        final int count = Math.max(firstBucket + periodCount, other.firstBucket + other.periodCount) - first;
+        final List<String> merged = new ArrayList<>(categories);
+        final Map<String, Integer> categoryIndex = new HashMap<>();
+        for (int category = 0; category < categories.size(); category++) categoryIndex.put(categories.get(category), category);
+        for (final String category : other.categories) {
+            categoryIndex.computeIfAbsent(category, name -> {
+                merged.add(name);
+                return merged.size() - 1;
+            });
+        }
+        final int[][] mergedCounts = new int[merged.size()][count * SIGNS];
+        final long[][] mergedCents = new long[merged.size()][count * SIGNS];
+        final byte[][] mergedScales = new byte[merged.size()][count * SIGNS];
+        addTo(categoryIndex, first, mergedCounts, mergedCents, mergedScales);
+        other.addTo(categoryIndex, first, mergedCounts, mergedCents, mergedScales);
+        return new PeriodCube(granularity, first, count, merged, mergedCounts, mergedCents, mergedScales);
+    }
+
+    private void addTo(final Map<String, Integer> categoryIndex, final int first,
+                       final int[][] toCounts, final long[][] toCents, final byte[][] toScales) {
+        final int offset = (firstBucket - first) * SIGNS;
+        for (int category = 0; category < categories.size(); category++) {
+            final int to = categoryIndex.get(categories.get(category));
+            for (int cell = 0; cell < periodCount * SIGNS; cell++) {
+                if (counts[category][cell] == 0) continue;
+                toCounts[to][offset + cell] += counts[category][cell];
+                toCents[to][offset + cell] = Math.addExact(toCents[to][offset + cell], cents[category][cell]);
+                if (scales[category][cell] > toScales[to][offset + cell]) toScales[to][offset + cell] = scales[category][cell];
+            }
+        }
+    }
+
+    private static int cell(final int period, final boolean income) {
+        return period * SIGNS + (income ? INCOME : EXPENSE);
+    }
+
+    /**
+     * Adds transactions to a cube; not thread-safe.
+     */
+    public static final class Builder {
+        private final Granularity granularity;
+        private final int firstBucket;
+        private final int periodCount;
+        private final int firstDay;
+        /**
+         * Period index per day from the first to the last transaction, so adding a transaction needs no date.
+         */
+        private final int[] periodByDay;
+        private final List<String> categories = new ArrayList<>();
+        private final Map<String, Integer> categoryIndex = new HashMap<>();
+        private final List<int[]> counts = new ArrayList<>();
+        private final List<long[]> cents = new ArrayList<>();
+        private final List<byte[]> scales = new ArrayList<>();
+
+        private Builder(final Granularity granularity, final LocalDate first, final LocalDate last) {
+            this.granularity = Objects.requireNonNull(granularity);
+            if (Objects.isNull(first) || Objects.isNull(last)) {
+                firstBucket = 0;
+                periodCount = 0;
+                firstDay = 0;
+                periodByDay = new int[0];
+                return;
+            }
+            if (last.isBefore(first)) throw new IllegalArgumentException("Last date " + last + " is before " + first);
+            firstBucket = granularity.bucket(first);
+            periodCount = granularity.bucket(last) - firstBucket + 1;
+            firstDay = Math.toIntExact(first.toEpochDay());
+            periodByDay = new int[Math.toIntExact(last.toEpochDay() - firstDay + 1)];
+            for (int day = 0; day < periodByDay.length; day++) {
+                periodByDay[day] = granularity.bucket(first.plusDays(day)) - firstBucket;
+            }
+        }
+
+        /**
+         * Returns the index of a category, adding it when it is new.
+         *
+         * @param category the category name
+         * @return its index in {@link PeriodCube#categories()}
+         */
+        public int category(final String category) {
+            return categoryIndex.computeIfAbsent(category, name -> {
+                categories.add(name);
+                counts.add(new int[periodCount * SIGNS]);
+                cents.add(new long[periodCount * SIGNS]);
+                scales.add(new byte[periodCount * SIGNS]);
+                return categories.size() - 1;
+            });
+        }
+
+        /**
+         * Adds a transaction.
+         *
+         * @param category    the category index from {@link #category(String)}
+         * @param epochDay    the currency date, as epoch day, within the cube's dates
+         * @param amountCents the amount in cents
+         * @param amountScale the number of decimals the amount was written with, 0 to 2
+         * @throws ArithmeticException if a cell's sum no longer fits a {@code long}
+         */
+        public Builder add(final int category, final int epochDay, final long amountCents, final int amountScale) {
+            final int day = epochDay - firstDay;
+            if (day < 0 || day >= periodByDay.length) {
+                throw new IllegalArgumentException("Day " + LocalDate.ofEpochDay(epochDay) + " is outside the cube");
+            }
+            final int cell = cell(periodByDay[day], amountCents > 0);
+            counts.get(category)[cell]++;
+            final long[] categoryCents = cents.get(category);
+            categoryCents[cell] = Math.addExact(categoryCents[cell], amountCents);
+            final byte[] categoryScales = scales.get(category);
+            if (amountScale > categoryScales[cell]) categoryScales[cell] = (byte) amountScale;
+            return this;
+        }
+
+        public PeriodCube build() {
+            return new PeriodCube(this);
+        }
+    }
+}
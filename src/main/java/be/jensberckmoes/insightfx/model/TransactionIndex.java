@@ -0,0 +1,359 @@
+package be.jensberckmoes.insightfx.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Sort and range indexes over a {@link TransactionTable}, so that sorting and filtering never compare
+ * {@link BigDecimal}s or strings again after the index of a column is built.
+ *
+ * <p>The index of a column is the permutation of the table's rows that puts the column in ascending order,
+ * rows with equal values in table order. It is sorted once, as packed {@code long}s of sort key and row with
+ * {@link Arrays#parallelSort(long[])}:</p>
+ * <ul>
+ *     <li>dates sort on their epoch day</li>
+ *     <li>amounts on their rank among the distinct amounts</li>
+ *     <li>descriptions and comments on the rank of their text in the string pool, sorted with the default locale's
+ *     {@link Collator} like the table's own column sort, no comment first</li>
+ * </ul>
+ *
+ * <p>From then on the ascending order of a column is the index itself and the descending order a reversed
+ * copy; a sort on several columns re-sorts by dense ranks read off the indexes. A date or amount range is
+ * two binary searches in the column's index.</p>
+ *
+ * <p>Indexes are built on first use, or up front with {@link #prepare(Column...)}. The index is not
+ * thread-safe: prepare it, or take a {@link #snapshot()}, before handing it to another thread, and use it from
+ * that thread only.</p>
+ */
+public final class TransactionIndex {
+    private final TransactionTable table;
+    private final Map<Column, int[]> ascending = new EnumMap<>(Column.class);
+
+    public TransactionIndex(final TransactionTable table) {
+        this.table = Objects.requireNonNull(table, "table");
+    }
+
+    public TransactionTable table() {
+        return table;
+    }
+
+    /**
+     * Builds the indexes of the given columns now instead of on first use.
+     *
+     * @param columns the columns
+     * @return this index
+     */
+    public TransactionIndex prepare(final Column... columns) {
+        for (final Column column : columns) ascending(column);
+        return this;
+    }
+
+    /**
+     * Returns an index of the same table that starts out with the column indexes built so far. Built indexes are
+     * never modified, so the snapshot may be handed to another thread while this index stays in use; take it on
+     * the thread that uses this index.
+     *
+     * @return the snapshot
+     */
+    public TransactionIndex snapshot() {
+        final TransactionIndex snapshot = new TransactionIndex(table);
+        snapshot.ascending.putAll(ascending);
+        return snapshot;
+    }
+
+    /**
+     * Returns the index of this index's table followed by the rows of {@code later}, see
+     * {@link TransactionTable#concat(TransactionTable)}.
+     *
+     * <p>Date and amount indexes that were already built are extended: the new rows are sorted on their own and
+     * merged in, so the history is not sorted again. To append on another thread while this index is in use,
+     * append to a {@link #snapshot()} of it.</p>
+     *
+     * @param later the rows to append
+     * @return the index of the combined table
+     */
+    public TransactionIndex append(final TransactionTable later) {
+        final TransactionIndex appended = new TransactionIndex(table.concat(later));
+        final TransactionIndex laterIndex = new TransactionIndex(later);
+        for (final Column column : new Column[]{Column.DATE, Column.AMOUNT}) {
+            final int[] index = ascending.get(column);
+            if (Objects.nonNull(index)) appended.ascending.put(column, appended.merge(column, index, laterIndex.ascending(column)));
+        }
+        return appended;
+    }
+
+    /**
+     * Merges the index of the first rows with that of the rows after them; on equal values the earlier row,
+     * which is always one of the first rows, comes first.
+     */
+    private int[] merge(final Column column, final int[] first, final int[] later) {
+        final IntToLongFunction value = column == Column.DATE ? table::epochDay : table::amountCents;
+        final int offset = first.length;
+        final int[] merged = new int[first.length + later.length];
+        int i = 0;
+        int j = 0;
+        for (int out = 0; out < merged.length; out++) {
+            if (j == later.length || i < first.length && value.applyAsLong(first[i]) <= value.applyAsLong(later[j] + offset)) {
+                merged[out] = first[i++];
+            } else {
+                merged[out] = later[j++] + offset;
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the rows that pass a filter, in the given sort order.
+     *
+     * <p>The result may be an index itself and must not be modified.</p>
+     *
+     * @param sortOrder the columns to sort on, most significant first; rows that compare equal stay in table order
+     * @param filter    the rows to keep
+     * @return the rows in display order, or null for every row in table order
+     */
+    public int[] rows(final List<SortKey> sortOrder, final Filter filter) {
+        final int[] order = sortOrder.isEmpty() ? null : sorted(sortOrder);
+        return filter.isEmpty() ? order : select(order, filter);
+    }
+
+    private int[] sorted(final List<SortKey> sortOrder) {
+        final SortKey least = sortOrder.getLast();
+        int[] order = least.descending() ? descending(least.column()) : ascending(least.column());
+        // Least significant column first: each stable pass keeps the order of the passes before it among ties.
+        for (int i = sortOrder.size() - 2; i >= 0; i--) {
+            order = sortStable(order, denseRanks(sortOrder.get(i)));
+        }
+        return order;
+    }
+
+    private int[] select(final int[] order, final Filter filter) {
+        final Slice dates = filter.hasDateRange() ? slice(Column.DATE, table::epochDay,
+                Objects.isNull(filter.from()) ? Long.MIN_VALUE : filter.from().toEpochDay(),
+                Objects.isNull(filter.to()) ? Long.MAX_VALUE : filter.to().toEpochDay()) : null;
+        final Slice amounts = filter.hasAmountRange() ? slice(Column.AMOUNT, table::amountCents,
+                Objects.isNull(filter.minimumAmount()) ? Long.MIN_VALUE : cents(filter.minimumAmount(), RoundingMode.CEILING),
+                Objects.isNull(filter.maximumAmount()) ? Long.MAX_VALUE : cents(filter.maximumAmount(), RoundingMode.FLOOR)) : null;
+
+        if (Objects.isNull(order) && (Objects.isNull(dates) || Objects.isNull(amounts))) {
+            final int[] rows = Objects.requireNonNullElse(dates, amounts).rows();
+            Arrays.parallelSort(rows);
+            return rows;
+        }
+
+        final byte[] hits = new byte[table.size()];
+        int required = 0;
+        for (final Slice slice : new Slice[]{dates, amounts}) {
+            if (Objects.isNull(slice)) continue;
+            required++;
+            for (int i = slice.from(); i < slice.to(); i++) hits[slice.index()[i]]++;
+        }
+        final int matching = required;
+        return IntStream.range(0, table.size())
+                .map(i -> Objects.isNull(order) ? i : order[i])
+                .filter(row -> hits[row] == matching)
+                .toArray();
+    }
+
+    /**
+     * Finds the rows whose value lies within {@code [min, max]} with two binary searches in the column's index.
+     */
+    private Slice slice(final Column column, final IntToLongFunction value, final long min, final long max) {
+        final int[] index = ascending(column);
+        final int from = min == Long.MIN_VALUE ? 0 : firstAbove(index, value, min - 1);
+        final int to = max == Long.MAX_VALUE ? index.length : firstAbove(index, value, max);
+        return new Slice(index, from, Math.max(from, to));
+    }
+
+    /**
+     * @return the first position in the index with a value above the bound
+     */
+    private static int firstAbove(final int[] index, final IntToLongFunction value, final long bound) {
+        int low = 0;
+        int high = index.length;
+        while (low < high) {
+            final int mid = low + high >>> 1;
+            if (value.applyAsLong(index[mid]) > bound) high = mid;
+            else low = mid + 1;
+        }
+        return low;
+    }
+
+    private static long cents(final BigDecimal amount, final RoundingMode rounding) {
+        final BigDecimal cents = amount.movePointRight(2).setScale(0, rounding);
+        if (cents.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) >= 0) return Long.MAX_VALUE - 1;
+        if (cents.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) <= 0) return Long.MIN_VALUE + 1;
+        return cents.longValue();
+    }
+
+    private int[] ascending(final Column column) {
+        return ascending.computeIfAbsent(column, this::buildIndex);
+    }
+
+    private int[] buildIndex(final Column column) {
+        final int[] keys = new int[table.size()];
+        switch (column) {
+            case DATE -> Arrays.parallelSetAll(keys, table::epochDay);
+            case DESCRIPTION -> {
+                final int[] poolRanks = poolRanks();
+                Arrays.parallelSetAll(keys, row -> poolRanks[table.descriptionId(row)]);
+            }
+            case AMOUNT -> amountRanks(keys);
+            case COMMENTS -> {
+                final int[] poolRanks = poolRanks();
+                Arrays.parallelSetAll(keys, row -> table.commentId(row) < 0 ? -1 : poolRanks[table.commentId(row)]);
+            }
+        }
+        final long[] packed = new long[keys.length];
+        // Key in the high half, row in the low half: sorting the longs sorts by key, then by row.
+        Arrays.parallelSetAll(packed, row -> (long) keys[row] << 32 | row);
+        Arrays.parallelSort(packed);
+        final int[] index = new int[keys.length];
+        Arrays.parallelSetAll(index, i -> (int) packed[i]);
+        return index;
+    }
+
+    /**
+     * Ranks the pooled strings in the default locale's collation order. Each string gets its collation key once,
+     * so the sort compares keys instead of collating the strings again; strings that collate equal share a rank.
+     *
+     * @return for every string in the pool, its position among the pooled strings in alphabetical order
+     */
+    private int[] poolRanks() {
+        final Collator collator = Collator.getInstance();
+        final CollationKey[] keys = new CollationKey[table.poolSize()];
+        Arrays.setAll(keys, id -> collator.getCollationKey(table.pooledString(id)));
+        final CollationKey[] sorted = keys.clone();
+        Arrays.parallelSort(sorted);
+        final int[] ranks = new int[sorted.length];
+        Arrays.parallelSetAll(ranks, id -> Arrays.binarySearch(sorted, keys[id]));
+        return ranks;
+    }
+
+    /**
+     * Replaces every amount by its rank among the distinct amounts, which fits the high half of a packed key.
+     */
+    private void amountRanks(final int[] keys) {
+        final long[] distinct = new long[table.size()];
+        Arrays.parallelSetAll(distinct, table::amountCents);
+        Arrays.parallelSort(distinct);
+        int count = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) distinct[count++] = distinct[i];
+        }
+        final int distinctCount = count;
+        Arrays.parallelSetAll(keys, row -> Arrays.binarySearch(distinct, 0, distinctCount, table.amountCents(row)));
+    }
+
+    /**
+     * Reverses the index of a column group by group, so rows with equal values stay in table order.
+     */
+    private int[] descending(final Column column) {
+        final int[] index = ascending(column);
+        final int[] order = new int[index.length];
+        int out = 0;
+        int end = index.length;
+        for (int start = index.length - 1; start >= 0; start--) {
+            if (start == 0 || !sameValue(column, index[start - 1], index[start])) {
+                System.arraycopy(index, start, order, out, end - start);
+                out += end - start;
+                end = start;
+            }
+        }
+        return order;
+    }
+
+    /**
+     * @return for every row, the number of distinct smaller values in the column, or larger ones when descending
+     */
+    private int[] denseRanks(final SortKey key) {
+        final int[] index = ascending(key.column());
+        final int[] ranks = new int[index.length];
+        int rank = 0;
+        for (int i = 0; i < index.length; i++) {
+            if (i > 0 && !sameValue(key.column(), index[i - 1], index[i])) rank++;
+            ranks[index[i]] = rank;
+        }
+        if (key.descending()) {
+            final int highest = rank;
+            Arrays.parallelSetAll(ranks, row -> highest - ranks[row]);
+        }
+        return ranks;
+    }
+
+    private static int[] sortStable(final int[] order, final int[] ranks) {
+        final long[] packed = new long[order.length];
+        Arrays.parallelSetAll(packed, i -> (long) ranks[order[i]] << 32 | i);
+        Arrays.parallelSort(packed);
+        final int[] sorted = new int[order.length];
+        Arrays.parallelSetAll(sorted, i -> order[(int) packed[i]]);
+        return sorted;
+    }
+
+    private boolean sameValue(final Column column, final int a, final int b) {
+        return switch (column) {
+            case DATE -> table.epochDay(a) == table.epochDay(b);
+            case DESCRIPTION -> table.descriptionId(a) == table.descriptionId(b);
+            case AMOUNT -> table.amountCents(a) == table.amountCents(b);
+            case COMMENTS -> table.commentId(a) == table.commentId(b);
+        };
+    }
+
+    /**
+     * The columns that can be sorted on.
+     */
+    public enum Column {
+        DATE, DESCRIPTION, AMOUNT, COMMENTS
+    }
+
+    /**
+     * One column of a sort order.
+     *
+     * @param column     the column
+     * @param descending whether to sort from high to low
+     */
+    public record SortKey(Column column, boolean descending) {
+    }
+
+    /**
+     * A date range and an amount range, both inclusive; a null bound is open.
+     *
+     * @param from          the first currency date to keep
+     * @param to            the last currency date to keep
+     * @param minimumAmount the lowest amount to keep
+     * @param maximumAmount the highest amount to keep
+     */
+    public record Filter(LocalDate from, LocalDate to, BigDecimal minimumAmount, BigDecimal maximumAmount) {
+        public static final Filter NONE = new Filter(null, null, null, null);
+
+        public boolean isEmpty() {
+            return !hasDateRange() && !hasAmountRange();
+        }
+
+        private boolean hasDateRange() {
+            return Objects.nonNull(from) || Objects.nonNull(to);
+        }
+
+        private boolean hasAmountRange() {
+            return Objects.nonNull(minimumAmount) || Objects.nonNull(maximumAmount);
+        }
+    }
+
+    /**
+     * Positions {@code [from, to)} of a column index.
+     */
+    private record Slice(int[] index, int from, int to) {
+        private int[] rows() {
+            return Arrays.copyOfRange(index, from, to);
+        }
+    }
+}
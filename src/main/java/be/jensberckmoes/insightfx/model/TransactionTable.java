@@ -0,0 +1,643 @@
+package be.jensberckmoes.insightfx.model;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.stream.Collector;
+
+/**
+ * Immutable, column-oriented store of bank transactions.
+ *
+ * <p>Instead of one {@link DataRecord} object graph per transaction, every field lives in its own
+ * primitive column:</p>
+ * <ul>
+ *     <li>amounts as {@code long} cents, plus the number of decimals they were written with</li>
+ *     <li>currency and booking dates as {@code int} epoch days</li>
+ *     <li>descriptions, comments, statement numbers and counterparties as indices into a shared string pool, so repeated
+ *     texts are stored once</li>
+ * </ul>
+ *
+ * <p>A transaction costs 33 bytes plus its share of the pool, and scanning a column walks a single array.
+ * Rows are addressed by index; {@link #record(int)} and {@link #asRecords()} materialise {@link DataRecord}s
+ * on demand for code that needs them.</p>
+ */
+public final class TransactionTable {
+    private static final int NO_STRING = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100};
+    private static final TransactionTable EMPTY = builder().build();
+    private static final int SNAPSHOT_MAGIC = 0x49465854;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_BYTES = 16;
+    private static final int SNAPSHOT_BYTES_PER_ROW = 33;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    private final int size;
+    private final long[] amountCents;
+    private final byte[] amountScales;
+    private final int[] epochDays;
+    private final int[] descriptionIds;
+    private final int[] commentIds;
+    private final int[] statementIds;
+    private final int[] bookingEpochDays;
+    private final int[] counterpartyIds;
+    private final String[] strings;
+
+    private TransactionTable(final int size,
+                             final long[] amountCents,
+                             final byte[] amountScales,
+                             final int[] epochDays,
+                             final int[] descriptionIds,
+                             final int[] commentIds,
+                             final int[] statementIds,
+                             final int[] bookingEpochDays,
+                             final int[] counterpartyIds,
+                             final String[] strings) {
+        this.size = size;
+        this.amountCents = amountCents;
+        this.amountScales = amountScales;
+        this.epochDays = epochDays;
+        this.descriptionIds = descriptionIds;
+        this.commentIds = commentIds;
+        this.statementIds = statementIds;
+        this.bookingEpochDays = bookingEpochDays;
+        this.counterpartyIds = counterpartyIds;
+        this.strings = strings;
+    }
+
+    public static TransactionTable empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Packs the given records into a table.
+     *
+     * @param records the records to pack
+     * @return the table, with rows in iteration order
+     * @throws IllegalArgumentException if an amount has more than two decimals
+     */
+    public static TransactionTable of(final Iterable<DataRecord> records) {
+        final Builder builder = builder();
+        records.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Returns a collector that packs a stream of records into a table. Parallel streams are supported;
+     * partial tables are merged in encounter order.
+     *
+     * @return the collector
+     */
+    public static Collector<DataRecord, Builder, TransactionTable> collector() {
+        return Collector.of(Builder::new, Builder::add, Builder::addAll, Builder::build);
+    }
+
+    /**
+     * Returns a table with the rows of this table followed by those of {@code later}.
+     *
+     * <p>The columns are copied in bulk and only the rows of {@code later} are looked up in the string pool, so
+     * appending a batch to a long history never pools the history's strings again row by row.</p>
+     *
+     * @param later the rows to append
+     * @return the combined table
+     */
+    public TransactionTable concat(final TransactionTable later) {
+        if (later.isEmpty()) return this;
+        if (isEmpty()) return later;
+
+        final List<String> pool = new ArrayList<>(Arrays.asList(strings));
+        final Map<String, Integer> poolIds = HashMap.newHashMap(strings.length + later.strings.length);
+        for (int id = 0; id < strings.length; id++) poolIds.put(strings[id], id);
+        final int[] laterIds = new int[later.strings.length];
+        for (int id = 0; id < laterIds.length; id++) {
+            laterIds[id] = poolIds.computeIfAbsent(later.strings[id], value -> {
+                pool.add(value);
+                return pool.size() - 1;
+            });
+        }
+
+        final int combined = size + later.size;
+        return new TransactionTable(combined,
+                concat(amountCents, later.amountCents, combined),
+                concat(amountScales, later.amountScales, combined),
+                concat(epochDays, later.epochDays, combined),
+                concatIds(descriptionIds, later.descriptionIds, laterIds, combined),
+                concatIds(commentIds, later.commentIds, laterIds, combined),
+                concatIds(statementIds, later.statementIds, laterIds, combined),
+                concat(bookingEpochDays, later.bookingEpochDays, combined),
+                concatIds(counterpartyIds, later.counterpartyIds, laterIds, combined),
+                pool.toArray(String[]::new));
+    }
+
+    private static long[] concat(final long[] first, final long[] second, final int size) {
+        final long[] column = Arrays.copyOf(first, size);
+        System.arraycopy(second, 0, column, first.length, second.length);
+        return column;
+    }
+
+    private static byte[] concat(final byte[] first, final byte[] second, final int size) {
+        final byte[] column = Arrays.copyOf(first, size);
+        System.arraycopy(second, 0, column, first.length, second.length);
+        return column;
+    }
+
+    private static int[] concat(final int[] first, final int[] second, final int size) {
+        final int[] column = Arrays.copyOf(first, size);
+        System.arraycopy(second, 0, column, first.length, second.length);
+        return column;
+    }
+
+    private static int[] concatIds(final int[] first, final int[] second, final int[] secondToPool, final int size) {
+        final int[] column = Arrays.copyOf(first, size);
+        for (int row = 0; row < second.length; row++) {
+            column[first.length + row] = second[row] == NO_STRING ? NO_STRING : secondToPool[second[row]];
+        }
+        return column;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param row the row index
+     * @return the amount in cents
+     */
+    public long amountCents(final int row) {
+        return amountCents[checkIndex(row)];
+    }
+
+    /**
+     * @param row the row index
+     * @return the number of decimals (0 to 2) the amount was written with
+     */
+    public int amountScale(final int row) {
+        return amountScales[checkIndex(row)];
+    }
+
+    /**
+     * Returns the amount exactly as it was parsed, including its scale, so that {@code -11,6} comes back
+     * as {@code -11.6} and not as {@code -11.60}.
+     *
+     * @param row the row index
+     * @return the amount
+     */
+    public BigDecimal amount(final int row) {
+        final int scale = amountScale(row);
+        return BigDecimal.valueOf(amountCents[row] / POWERS_OF_TEN[2 - scale], scale);
+    }
+
+    /**
+     * @param row the row index
+     * @return the currency date as epoch day
+     */
+    public int epochDay(final int row) {
+        return epochDays[checkIndex(row)];
+    }
+
+    public LocalDate currencyDate(final int row) {
+        return LocalDate.ofEpochDay(epochDay(row));
+    }
+
+    /**
+     * @param row the row index
+     * @return the index of the description in the string pool; equal descriptions share an index
+     */
+    public int descriptionId(final int row) {
+        return descriptionIds[checkIndex(row)];
+    }
+
+    public String description(final int row) {
+        return strings[descriptionId(row)];
+    }
+
+    /**
+     * @param row the row index
+     * @return the index of the comments in the string pool, or -1 when the row has none
+     */
+    public int commentId(final int row) {
+        return commentIds[checkIndex(row)];
+    }
+
+    public String comments(final int row) {
+        final int id = commentId(row);
+        return id == NO_STRING ? null : strings[id];
+    }
+
+    /**
+     * @param row the row index
+     * @return the index of the statement number in the string pool, or -1 when the row has none
+     */
+    public int statementId(final int row) {
+        return statementIds[checkIndex(row)];
+    }
+
+    public String statementNumber(final int row) {
+        final int id = statementId(row);
+        return id == NO_STRING ? null : strings[id];
+    }
+
+    /**
+     * @param row the row index
+     * @return the booking date as epoch day, or {@link Integer#MIN_VALUE} when the row has none
+     */
+    public int bookingEpochDay(final int row) {
+        return bookingEpochDays[checkIndex(row)];
+    }
+
+    public LocalDate bookingDate(final int row) {
+        final int epochDay = bookingEpochDay(row);
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * @param row the row index
+     * @return the index of the counterparty name in the string pool, or -1 when the row has none
+     */
+    public int counterpartyId(final int row) {
+        return counterpartyIds[checkIndex(row)];
+    }
+
+    public String counterparty(final int row) {
+        final int id = counterpartyId(row);
+        return id == NO_STRING ? null : strings[id];
+    }
+
+    /**
+     * @return the number of distinct strings in the pool
+     */
+    public int poolSize() {
+        return strings.length;
+    }
+
+    /**
+     * @param id a pool index as returned by {@link #descriptionId(int)}
+     * @return the pooled string
+     */
+    public String pooledString(final int id) {
+        return strings[id];
+    }
+
+    /**
+     * Materialises one row as a {@link DataRecord}.
+     *
+     * @param row the row index
+     * @return a new record holding the row's values
+     */
+    public DataRecord record(final int row) {
+        return new DataRecord(description(row), currencyDate(row), amount(row), comments(row), statementNumber(row), bookingDate(row), counterparty(row));
+    }
+
+    /**
+     * Returns a read-only list view that materialises a {@link DataRecord} on every {@code get}.
+     *
+     * @return the view
+     */
+    public List<DataRecord> asRecords() {
+        return new RecordView();
+    }
+
+    /**
+     * Writes the table in a compact binary form that {@link #readFrom(ByteBuffer)} reads back without parsing.
+     * <p>
+     * The layout is big-endian: magic {@code IFXT}, format version, row count and pool size as {@code int}s,
+     * then every column as a raw array, then the string pool as length-prefixed UTF-8.
+     * </p>
+     *
+     * @param channel the target; not closed
+     * @throws IOException if writing fails
+     */
+    public void writeTo(final WritableByteChannel channel) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+        buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putInt(size).putInt(strings.length);
+        for (int offset = 0; offset < size; ) {
+            final int count = Math.min(size - offset, flushIfFull(channel, buffer, Long.BYTES));
+            buffer.asLongBuffer().put(amountCents, offset, count);
+            buffer.position(buffer.position() + count * Long.BYTES);
+            offset += count;
+        }
+        for (int offset = 0; offset < size; ) {
+            final int count = Math.min(size - offset, flushIfFull(channel, buffer, 1));
+            buffer.put(amountScales, offset, count);
+            offset += count;
+        }
+        for (final int[] column : new int[][]{epochDays, descriptionIds, commentIds, statementIds, bookingEpochDays, counterpartyIds}) {
+            for (int offset = 0; offset < size; ) {
+                final int count = Math.min(size - offset, flushIfFull(channel, buffer, Integer.BYTES));
+                buffer.asIntBuffer().put(column, offset, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                offset += count;
+            }
+        }
+        for (final String string : strings) {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            flushIfFull(channel, buffer, Integer.BYTES);
+            buffer.putInt(bytes.length);
+            for (int offset = 0; offset < bytes.length; ) {
+                final int count = Math.min(bytes.length - offset, flushIfFull(channel, buffer, 1));
+                buffer.put(bytes, offset, count);
+                offset += count;
+            }
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    /**
+     * Reads a table written by {@link #writeTo(WritableByteChannel)}, for instance from a memory-mapped file.
+     * Columns are bulk-copied; only the pooled strings are decoded.
+     *
+     * @param snapshot the binary form, from its position to its limit; the buffer itself is not modified
+     * @return the table
+     * @throws IllegalArgumentException if the data is not a valid snapshot of this format version
+     */
+    public static TransactionTable readFrom(final ByteBuffer snapshot) {
+        final ByteBuffer in = snapshot.duplicate().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (in.remaining() < SNAPSHOT_HEADER_BYTES || in.getInt() != SNAPSHOT_MAGIC) {
+                throw new IllegalArgumentException("Not a transaction snapshot");
+            }
+            final int version = in.getInt();
+            if (version != SNAPSHOT_VERSION) throw new IllegalArgumentException("Unsupported snapshot version " + version);
+            final int size = in.getInt();
+            final int poolSize = in.getInt();
+            if (size < 0 || poolSize < 0 || (long) size * SNAPSHOT_BYTES_PER_ROW + (long) poolSize * Integer.BYTES > in.remaining()) {
+                throw new IllegalArgumentException("Truncated snapshot");
+            }
+
+            final long[] amountCents = new long[size];
+            in.asLongBuffer().get(amountCents);
+            in.position(in.position() + size * Long.BYTES);
+            final byte[] amountScales = new byte[size];
+            in.get(amountScales);
+            final int[] epochDays = readInts(in, size);
+            final int[] descriptionIds = readInts(in, size);
+            final int[] commentIds = readInts(in, size);
+            final int[] statementIds = readInts(in, size);
+            final int[] bookingEpochDays = readInts(in, size);
+            final int[] counterpartyIds = readInts(in, size);
+
+            final String[] strings = new String[poolSize];
+            for (int i = 0; i < poolSize; i++) {
+                final int length = in.getInt();
+                if (length < 0 || length > in.remaining()) throw new IllegalArgumentException("Truncated snapshot");
+                final byte[] bytes = new byte[length];
+                in.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            for (int row = 0; row < size; row++) {
+                if (amountScales[row] < 0 || amountScales[row] > 2
+                        || descriptionIds[row] < 0 || descriptionIds[row] >= poolSize
+                        || commentIds[row] < NO_STRING || commentIds[row] >= poolSize
+                        || statementIds[row] < NO_STRING || statementIds[row] >= poolSize
+                        || counterpartyIds[row] < NO_STRING || counterpartyIds[row] >= poolSize) {
+                    throw new IllegalArgumentException("Corrupt snapshot row " + row);
+                }
+            }
+            return new TransactionTable(size, amountCents, amountScales, epochDays, descriptionIds, commentIds,
+                    statementIds, bookingEpochDays, counterpartyIds, strings);
+        } catch (final BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated snapshot", e);
+        }
+    }
+
+    private static int[] readInts(final ByteBuffer in, final int count) {
+        final int[] values = new int[count];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    /**
+     * Writes out the buffer when fewer than {@code elementBytes} bytes are left.
+     *
+     * @return the number of whole elements that fit in the buffer
+     */
+    private static int flushIfFull(final WritableByteChannel channel, final ByteBuffer buffer, final int elementBytes) throws IOException {
+        if (buffer.remaining() < elementBytes) {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+        return buffer.remaining() / elementBytes;
+    }
+
+    private int checkIndex(final int row) {
+        return Objects.checkIndex(row, size);
+    }
+
+    private final class RecordView extends AbstractList<DataRecord> implements RandomAccess {
+        @Override
+        public DataRecord get(final int index) {
+            return record(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Appends rows to a new table. Not thread-safe.
+     */
+    public static final class Builder {
+        private int size = 0;
+        private long[] amountCents = new long[256];
+        private byte[] amountScales = new byte[256];
+        private int[] epochDays = new int[256];
+        private int[] descriptionIds = new int[256];
+        private int[] commentIds = new int[256];
+        private int[] statementIds = new int[256];
+        private int[] bookingEpochDays = new int[256];
+        private int[] counterpartyIds = new int[256];
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIds = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Appends a record.
+         *
+         * @param record the record; description, date and amount are mandatory
+         * @return this builder
+         * @throws IllegalArgumentException if the amount has more than two decimals or does not fit in cents
+         */
+        public Builder add(final DataRecord record) {
+            final BigDecimal amount = Objects.requireNonNull(record.getAmount(), "amount");
+            final BigDecimal normalized = amount.scale() < 0 ? amount.setScale(0) : amount;
+            final int scale = normalized.scale();
+            if (scale > 2) {
+                throw new IllegalArgumentException("Amount has more than 2 decimals: " + amount);
+            }
+            final long cents;
+            try {
+                cents = Math.multiplyExact(normalized.unscaledValue().longValueExact(), POWERS_OF_TEN[2 - scale]);
+            } catch (final ArithmeticException e) {
+                throw new IllegalArgumentException("Amount too large: " + amount, e);
+            }
+            final LocalDate bookingDate = record.getBookingDate();
+            return add(record.getDescription(), Math.toIntExact(record.getCurrencyDate().toEpochDay()), cents, scale, record.getComments(),
+                    record.getStatementNumber(), Objects.isNull(bookingDate) ? NO_DATE : Math.toIntExact(bookingDate.toEpochDay()),
+                    record.getCounterparty());
+        }
+
+        /**
+         * Appends a row from already decoded values.
+         *
+         * @param description the description; mandatory
+         * @param epochDay    the currency date as epoch day
+         * @param cents       the amount in cents
+         * @param scale       the number of decimals the amount was written with, 0 to 2
+         * @param comments    the free text, may be null
+         * @return this builder
+         * @throws IllegalArgumentException if the cents have more decimals than the scale
+         */
+        public Builder add(final String description, final int epochDay, final long cents, final int scale, final String comments) {
+            return add(description, epochDay, cents, scale, comments, null, NO_DATE, null);
+        }
+
+        /**
+         * Appends a row from already decoded values, including its statement and counterparty.
+         *
+         * @param description      the description; mandatory
+         * @param epochDay         the currency date as epoch day
+         * @param cents            the amount in cents
+         * @param scale            the number of decimals the amount was written with, 0 to 2
+         * @param comments         the free text, may be null
+         * @param statementNumber  the statement number, may be null
+         * @param bookingEpochDay  the booking date as epoch day, or {@link Integer#MIN_VALUE} when unknown
+         * @param counterparty     the counterparty name, may be null
+         * @return this builder
+         * @throws IllegalArgumentException if the cents have more decimals than the scale, e.g. 1005 cents with scale 1
+         */
+        public Builder add(final String description, final int epochDay, final long cents, final int scale, final String comments,
+                           final String statementNumber, final int bookingEpochDay, final String counterparty) {
+            if (scale < 0 || scale > 2) throw new IllegalArgumentException("Scale must be between 0 and 2: " + scale);
+            if (cents % POWERS_OF_TEN[2 - scale] != 0) {
+                throw new IllegalArgumentException("Amount of " + cents + " cents has more than " + scale + " decimals");
+            }
+            if (size == amountCents.length) grow();
+            amountCents[size] = cents;
+            amountScales[size] = (byte) scale;
+            epochDays[size] = epochDay;
+            descriptionIds[size] = intern(Objects.requireNonNull(description, "description"));
+            commentIds[size] = Objects.isNull(comments) ? NO_STRING : intern(comments);
+            statementIds[size] = Objects.isNull(statementNumber) ? NO_STRING : intern(statementNumber);
+            bookingEpochDays[size] = bookingEpochDay;
+            counterpartyIds[size] = Objects.isNull(counterparty) ? NO_STRING : intern(counterparty);
+            size++;
+            return this;
+        }
+
+        /**
+         * Appends all rows of another builder, keeping their order.
+         *
+         * @param other the builder to append
+         * @return this builder
+         */
+        public Builder addAll(final Builder other) {
+            for (int row = 0; row < other.size; row++) {
+                add(other.strings.get(other.descriptionIds[row]),
+                        other.epochDays[row],
+                        other.amountCents[row],
+                        other.amountScales[row],
+                        other.pooled(other.commentIds[row]),
+                        other.pooled(other.statementIds[row]),
+                        other.bookingEpochDays[row],
+                        other.pooled(other.counterpartyIds[row]));
+            }
+            return this;
+        }
+
+        /**
+         * Appends one row of a table.
+         *
+         * @param table the table to copy from
+         * @param row   the row index in that table
+         * @return this builder
+         */
+        public Builder add(final TransactionTable table, final int row) {
+            return add(table.description(row), table.epochDays[row], table.amountCents[row], table.amountScales[row],
+                    table.comments(row), table.statementNumber(row), table.bookingEpochDays[row], table.counterparty(row));
+        }
+
+        /**
+         * Appends all rows of a table, keeping their order.
+         *
+         * @param table the table to append
+         * @return this builder
+         */
+        public Builder addAll(final TransactionTable table) {
+            for (int row = 0; row < table.size; row++) {
+                add(table, row);
+            }
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public TransactionTable build() {
+            return new TransactionTable(size,
+                    Arrays.copyOf(amountCents, size),
+                    Arrays.copyOf(amountScales, size),
+                    Arrays.copyOf(epochDays, size),
+                    Arrays.copyOf(descriptionIds, size),
+                    Arrays.copyOf(commentIds, size),
+                    Arrays.copyOf(statementIds, size),
+                    Arrays.copyOf(bookingEpochDays, size),
+                    Arrays.copyOf(counterpartyIds, size),
+                    strings.toArray(String[]::new));
+        }
+
+        private String pooled(final int id) {
+            return id == NO_STRING ? null : strings.get(id);
+        }
+
+        private int intern(final String value) {
+            final Integer existing = stringIds.get(value);
+            if (Objects.nonNull(existing)) return existing;
+            final int id = strings.size();
+            strings.add(value);
+            stringIds.put(value, id);
+            return id;
+        }
+
+        private void grow() {
+            final int capacity = amountCents.length * 2;
+            amountCents = Arrays.copyOf(amountCents, capacity);
+            amountScales = Arrays.copyOf(amountScales, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            descriptionIds = Arrays.copyOf(descriptionIds, capacity);
+            commentIds = Arrays.copyOf(commentIds, capacity);
+            statementIds = Arrays.copyOf(statementIds, capacity);
+            bookingEpochDays = Arrays.copyOf(bookingEpochDays, capacity);
+            counterpartyIds = Arrays.copyOf(counterpartyIds, capacity);
+        }
+    }
+}
@@ -1,39 +1,40 @@
 package be.jensberckmoes.insightfx.service;
 
+import be.jensberckmoes.insightfx.model.AmountAccumulator;
 import be.jensberckmoes.insightfx.model.CategorySummary;
 import be.jensberckmoes.insightfx.model.DataRecord;
+import be.jensberckmoes.insightfx.model.PeriodCube;
+import be.jensberckmoes.insightfx.model.TransactionTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.*;
-
-import static java.util.Map.entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class AnalysisService {
     private static final Logger log = LoggerFactory.getLogger(CsvParserService.class);
+    private static final int PARALLEL_THRESHOLD = 100_000;
+    private static final int MIN_ROWS_PER_RANGE = 25_000;
+    private static final int CATEGORY_CACHE_SIZE = 16_384;
 
-    private final Map<String, List<String>> keywordMap = Map.ofEntries(
-            entry("Groceries", List.of("AH", "Delhaize", "Lidl", "Colruyt", "Aldi", "Carrefour", "TOO GOOD TO")),
-            entry("Subscriptions", List.of("Netflix", "Spotify", "YouTube", "Apple", "Disney")),
-            entry("Health", List.of("Loes Koolen", "Therapie", "Therapy", "Ricardo", "A-cura")),
-            entry("Transport", List.of("NMBS", "Uber", "Shell", "Q8", "Van raak", "dats", "Gabriels", "Lukoil")),
-            entry("Takeout", List.of("McDonalds", "Burger King", "The Nile", "Hasselt-food")),
-            entry("Leasure time", List.of("Bol.com", "Coolblue", "Steam", "MediaMarkt")),
-            entry("Bank Costs", List.of("Bijdrage")),
-            entry("Clothing", List.of("Torfs")),
-            entry("Services", List.of("DIENSTENCHEQUE")),
-            entry("Household", List.of("Hasselt-store")),
-            entry("Income", List.of("Matt", "Salaris", "Uitkering", "Salary")),
-            entry("Pet", List.of("Invivo")),
-            entry("Insurance", List.of("Kliniplan", "AXA", "Dela")),
-            entry("Charitable contribution", List.of("Rode kruis"))
-    );
+    private final AtomicReference<Categoriser> categoriser = new AtomicReference<>(new Categoriser(CategoryRules.defaults()));
 
     /**
      * Analyzes a list of {@link DataRecord} and summarizes them into categories.
      * <p>
-     * Each record is assigned a category based on keywords defined in {@link #keywordMap}.
+     * Each record is assigned a category by the active {@link CategoryRules}: the matching rule with the
+     * highest priority wins. The rules are read once when the analysis starts, so a concurrent
+     * {@link #useRules(CategoryRules)} never affects an analysis in flight.
+     * Description matches are memoised in a bounded {@link CategoryCache} that belongs to the rule set.
      * The method calculates the total amount per category, as well as overall
      * totals for income, expenses, and balance.
      * </p>
@@ -48,53 +49,549 @@ public class AnalysisService {
      * </ul>
      *
      * @throws NullPointerException if the records list itself is null
-     * @see #determineCategory(String)
      */
     public List<CategorySummary> analyse(final List<DataRecord> records) {
         log.info("Starting analysis of {} records...", records.size());
-        final Map<String, CategorySummary> categoryMap = new LinkedHashMap<>();
+        final Aggregation aggregation = new Aggregation(categoriser.get());
+        records.forEach(aggregation::add);
+        return aggregation.finish();
+    }
 
-        BigDecimal totalExpenses = BigDecimal.ZERO;
-        BigDecimal totalIncome = BigDecimal.ZERO;
+    /**
+     * Analyzes a stream of {@link DataRecord} while it is being produced, for instance by
+     * {@link CsvParserService#stream(java.io.InputStream)}.
+     * <p>
+     * Records are aggregated one by one and not retained, so memory use is bounded by the number
+     * of categories rather than the number of records. The result is identical to
+     * {@link #analyse(List)} on the same records. The stream is consumed but not closed.
+     * </p>
+     *
+     * @param records the stream of {@link DataRecord} to analyze; must not be null
+     * @return the category summaries, in the same shape as {@link #analyse(List)}
+     * @throws NullPointerException if the stream itself is null
+     */
+    public List<CategorySummary> analyse(final Stream<DataRecord> records) {
+        log.info("Starting streaming analysis...");
+        final Aggregation aggregation = new Aggregation(categoriser.get());
+        records.forEachOrdered(aggregation::add);
+        return aggregation.finish();
+    }
 
-        for (final DataRecord record : records) {
-            final BigDecimal amount = record.getAmount();
-            final String category = determineCategory(record.getDescription());
+    /**
+     * Analyzes a columnar {@link TransactionTable}.
+     * <p>
+     * Equal descriptions and counterparties share a pool index in the table, so each distinct value is
+     * matched against the rules only once, and amounts are summed straight from the cents column without creating any
+     * {@link BigDecimal}. The result is identical to {@link #analyse(List)} on the same transactions.
+     * </p>
+     *
+     * @param transactions the transactions to analyze; must not be null
+     * @return the category summaries, in the same shape as {@link #analyse(List)}
+     */
+    public List<CategorySummary> analyse(final TransactionTable transactions) {
+        log.info("Starting analysis of {} transactions...", transactions.size());
+        return aggregate(transactions, categoriser.get()).finish();
+    }
 
-            final CategorySummary summary = categoryMap.computeIfAbsent(category, CategorySummary::new);
-            summary.addTransaction(amount);
+    /**
+     * Analyzes a list of {@link DataRecord} on the common fork/join pool.
+     * <p>
+     * The list is split into ranges that are aggregated independently and merged in list order, so the
+     * result is identical to {@link #analyse(List)}, including the order of the categories. Lists below
+     * {@value #PARALLEL_THRESHOLD} records are analyzed sequentially.
+     * </p>
+     *
+     * @param records the list of {@link DataRecord} to analyze; must not be null
+     * @return the category summaries, in the same shape as {@link #analyse(List)}
+     */
+    public List<CategorySummary> analyseParallel(final List<DataRecord> records) {
+        if (records.size() < PARALLEL_THRESHOLD) return analyse(records);
+        log.info("Starting parallel analysis of {} records...", records.size());
+        final Categoriser rules = categoriser.get();
+        return records.parallelStream()
+                .collect(Collector.of(() -> new Aggregation(rules), Aggregation::add, Aggregation::merge))
+                .finish();
+    }
 
-            if (amount.compareTo(BigDecimal.ZERO) > 0) {
-                totalIncome = totalIncome.add(amount);
-            } else {
-                totalExpenses = totalExpenses.add(amount);
+    /**
+     * Analyzes a columnar {@link TransactionTable} on the common fork/join pool.
+     * <p>
+     * Every worker aggregates a contiguous range of rows into its own {@code Aggregation}; the partial
+     * results are merged in row order, so the result is identical to {@link #analyse(TransactionTable)}.
+     * Tables below {@value #PARALLEL_THRESHOLD} rows are analyzed sequentially.
+     * </p>
+     *
+     * @param transactions the transactions to analyze; must not be null
+     * @return the category summaries, in the same shape as {@link #analyse(List)}
+     */
+    public List<CategorySummary> analyseParallel(final TransactionTable transactions) {
+        if (transactions.size() < PARALLEL_THRESHOLD) return analyse(transactions);
+        log.info("Starting parallel analysis of {} transactions...", transactions.size());
+        return aggregateParallel(transactions, categoriser.get()).finish();
+    }
+
+    /**
+     * Aggregates a columnar {@link TransactionTable} into a {@link PeriodCube} by category, period of the currency
+     * date and sign.
+     * <p>
+     * The table is read once, categorised like {@link #analyse(TransactionTable)}; afterwards every period or range
+     * of periods is summarised from the cube alone, and {@link PeriodCube#summaries()} equals the analysis of the
+     * whole table. Like {@link #analyseParallel(TransactionTable)}, tables of {@value #PARALLEL_THRESHOLD} rows or
+     * more are split into ranges whose cubes are built on the common fork/join pool and merged in row order.
+     * </p>
+     *
+     * @param transactions the transactions to aggregate; must not be null
+     * @param granularity  the length of the periods
+     * @return the cube
+     */
+    public PeriodCube cube(final TransactionTable transactions, final PeriodCube.Granularity granularity) {
+        return cube(transactions, granularity, categoriser.get());
+    }
+
+    private static PeriodCube cube(final TransactionTable transactions, final PeriodCube.Granularity granularity,
+                                   final Categoriser rules) {
+        final int size = transactions.size();
+        log.info("Building {} cube of {} transactions...", granularity, size);
+        final SlotMemo memo = new SlotMemo(rules, transactions.poolSize());
+        final PeriodCube built;
+        if (size < PARALLEL_THRESHOLD) {
+            built = cube(transactions, granularity, memo, 0, size);
+        } else {
+            final int ranges = ranges(size);
+            log.debug("Building the cube of {} transactions in {} ranges", size, ranges);
+            built = IntStream.range(0, ranges)
+                    .parallel()
+                    .mapToObj(range -> cube(transactions, granularity, memo, rangeStart(size, ranges, range), rangeStart(size, ranges, range + 1)))
+                    .reduce(PeriodCube::merge)
+                    .orElseThrow();
+        }
+        log.info("Cube completed: {} categories over {} periods.", built.categories().size(), built.periodCount());
+        return built;
+    }
+
+    private static PeriodCube cube(final TransactionTable transactions, final PeriodCube.Granularity granularity,
+                                   final SlotMemo memo, final int from, final int to) {
+        int firstDay = Integer.MAX_VALUE;
+        int lastDay = Integer.MIN_VALUE;
+        for (int row = from; row < to; row++) {
+            final int epochDay = transactions.epochDay(row);
+            firstDay = Math.min(firstDay, epochDay);
+            lastDay = Math.max(lastDay, epochDay);
+        }
+        final PeriodCube.Builder cube = from == to
+                ? PeriodCube.builder(granularity, null, null)
+                : PeriodCube.builder(granularity, LocalDate.ofEpochDay(firstDay), LocalDate.ofEpochDay(lastDay));
+
+        final int[] categoryBySlot = new int[memo.rules.slotCount()];
+        Arrays.fill(categoryBySlot, -1);
+        for (int row = from; row < to; row++) {
+            final int slot = memo.slot(transactions, row);
+            int category = categoryBySlot[slot];
+            if (category < 0) {
+                category = cube.category(memo.rules.category(slot));
+                categoryBySlot[slot] = category;
             }
+            cube.add(category, transactions.epochDay(row), transactions.amountCents(row), transactions.amountScale(row));
+        }
+        return cube.build();
+    }
+
+    /**
+     * Starts an empty {@link IncrementalAnalysis} that keeps a cube by month.
+     *
+     * @return a new incremental analysis
+     */
+    public IncrementalAnalysis incremental() {
+        return incremental(PeriodCube.Granularity.MONTH);
+    }
+
+    /**
+     * Starts an empty {@link IncrementalAnalysis}.
+     *
+     * @param granularity the length of the periods of its {@link IncrementalAnalysis#cube() cube}
+     * @return a new incremental analysis
+     */
+    public IncrementalAnalysis incremental(final PeriodCube.Granularity granularity) {
+        return new IncrementalAnalysis(granularity);
+    }
+
+    /**
+     * Returns the categorisation an analysis would apply, for code that needs the category of every single
+     * record, such as a transaction export. It uses the rules that are active now, with their description cache.
+     *
+     * @return a thread-safe function from a record to its category
+     */
+    public Function<DataRecord, String> categoriser() {
+        final Categoriser rules = categoriser.get();
+        return record -> rules.category(rules.slot(record.getDescription(), record.getCounterparty()));
+    }
+
+    /**
+     * @return the categorisation rules new analyses will use
+     */
+    public CategoryRules rules() {
+        return categoriser.get().rules;
+    }
+
+    /**
+     * Atomically replaces the categorisation rules. Analyses that already started finish with the rules
+     * they started with; the description cache starts empty for the new rules.
+     *
+     * @param rules the new rules; must not be null
+     */
+    public void useRules(final CategoryRules rules) {
+        categoriser.set(new Categoriser(Objects.requireNonNull(rules, "rules")));
+        log.info("Using {} category rules", rules.rules().size());
+    }
+
+    /**
+     * Loads the rules from a file and keeps reloading them whenever the file changes.
+     *
+     * @param file the rule file
+     * @return the watcher; close it to stop reloading
+     * @throws IOException if the file can't be read or watched
+     * @throws IllegalArgumentException if the file contains an invalid rule
+     */
+    public CategoryRulesWatcher watchRules(final Path file) throws IOException {
+        useRules(CategoryRules.load(file));
+        return new CategoryRulesWatcher(file, this::useRules);
+    }
+
+    /**
+     * @return the hit, miss and eviction counters of the description cache of the active rules
+     */
+    public CategoryCache.Stats categoryCacheStats() {
+        return categoriser.get().cache.stats();
+    }
+
+    private Aggregation aggregate(final TransactionTable transactions, final Categoriser rules) {
+        return aggregate(transactions, new SlotMemo(rules, transactions.poolSize()), 0, transactions.size());
+    }
+
+    private Aggregation aggregateParallel(final TransactionTable transactions, final Categoriser rules) {
+        final int size = transactions.size();
+        final int ranges = ranges(size);
+        log.debug("Aggregating {} transactions in {} ranges", size, ranges);
+
+        final SlotMemo memo = new SlotMemo(rules, transactions.poolSize());
+        return IntStream.range(0, ranges)
+                .parallel()
+                .mapToObj(range -> aggregate(transactions, memo, rangeStart(size, ranges, range), rangeStart(size, ranges, range + 1)))
+                .reduce(Aggregation::merge)
+                .orElseGet(() -> new Aggregation(rules));
+    }
+
+    /**
+     * @return the number of contiguous row ranges a parallel pass splits a table of {@code size} rows into
+     */
+    private static int ranges(final int size) {
+        return Math.max(1, Math.min(size / MIN_ROWS_PER_RANGE, ForkJoinPool.getCommonPoolParallelism() * 4));
+    }
+
+    private static int rangeStart(final int size, final int ranges, final int range) {
+        return (int) ((long) size * range / ranges);
+    }
+
+    private Aggregation aggregate(final TransactionTable transactions, final SlotMemo memo, final int from, final int to) {
+        final Aggregation aggregation = new Aggregation(memo.rules);
+        final CategoryTotal[] totalBySlot = new CategoryTotal[memo.rules.slotCount()];
+        for (int row = from; row < to; row++) {
+            final int slot = memo.slot(transactions, row);
+            CategoryTotal total = totalBySlot[slot];
+            if (Objects.isNull(total)) {
+                total = aggregation.totalFor(memo.rules.category(slot));
+                totalBySlot[slot] = total;
+            }
+            aggregation.addCents(total, transactions.amountCents(row), transactions.amountScale(row));
+        }
+        return aggregation;
+    }
+
+    /**
+     * Running totals of a single analysis. Categories keep the order in which they are first seen.
+     * <p>
+     * Amounts are summed as fixed-point cents in {@link AmountAccumulator}s and only turned into
+     * {@link BigDecimal}s once, when the summaries are published.
+     * </p>
+     */
+    private static final class Aggregation {
+        private final Categoriser rules;
+        private final Map<String, CategoryTotal> categoryMap = new LinkedHashMap<>();
+        private final AmountAccumulator totalExpenses = new AmountAccumulator();
+        private final AmountAccumulator totalIncome = new AmountAccumulator();
+        private long recordCount = 0;
+
+        private Aggregation(final Categoriser rules) {
+            this.rules = rules;
+        }
+
+        private void add(final DataRecord record) {
+            final String category = rules.category(rules.slot(record.getDescription(), record.getCounterparty()));
+            final BigDecimal amount = record.getAmount();
+            final CategoryTotal total = totalFor(category);
+            total.count++;
+            total.amount.add(amount);
+            (amount.signum() > 0 ? totalIncome : totalExpenses).add(amount);
+            recordCount++;
             log.debug("Processed record: '{}' | category: {} | amount: {}", record.getDescription(), category, amount);
         }
 
-        addSummaryCategories(totalIncome, categoryMap, totalExpenses);
-        log.info("Analysis completed: {} categories found.", categoryMap.size());
-        return new ArrayList<>(categoryMap.values());
+        private void addCents(final CategoryTotal total, final long cents, final int scale) {
+            total.count++;
+            total.amount.addCents(cents, scale);
+            (cents > 0 ? totalIncome : totalExpenses).addCents(cents, scale);
+            recordCount++;
+        }
+
+        private CategoryTotal totalFor(final String category) {
+            return categoryMap.computeIfAbsent(category, CategoryTotal::new);
+        }
+
+        /**
+         * Adds the totals of an aggregation over later records. Categories first seen in {@code other}
+         * are appended after the ones already present, which keeps the first-seen order of the
+         * concatenated input; merging is associative.
+         */
+        private Aggregation merge(final Aggregation other) {
+            other.categoryMap.forEach((category, total) -> totalFor(category).merge(total));
+            totalIncome.add(other.totalIncome);
+            totalExpenses.add(other.totalExpenses);
+            recordCount += other.recordCount;
+            return this;
+        }
+
+        private List<CategorySummary> finish() {
+            final List<CategorySummary> summaries = new ArrayList<>(categoryMap.size() + 3);
+            categoryMap.values().forEach(total -> summaries.add(total.publish()));
+            addSummaryCategories(summaries, totalIncome.toBigDecimal(), totalExpenses.toBigDecimal());
+            log.info("Analysis completed: {} records in {} categories.", recordCount, categoryMap.size());
+            log.debug("Category cache: {}", rules.cache.stats());
+            return summaries;
+        }
     }
 
-    private static void addSummaryCategories(final BigDecimal totalIncome, final Map<String, CategorySummary> categoryMap, final BigDecimal totalExpenses) {
-        categoryMap.put("Total Income", new CategorySummary("Total Income", totalIncome));
-        categoryMap.put("Total Expenses", new CategorySummary("Total Expenses", totalExpenses));
-        categoryMap.put("Balance", new CategorySummary("Balance", totalIncome.add(totalExpenses)));
+    private static void addSummaryCategories(final List<CategorySummary> summaries, final BigDecimal totalIncome, final BigDecimal totalExpenses) {
+        summaries.add(new CategorySummary("Total Income", totalIncome));
+        summaries.add(new CategorySummary("Total Expenses", totalExpenses));
+        summaries.add(new CategorySummary("Balance", totalIncome.add(totalExpenses)));
     }
 
-    private String determineCategory(final String description) {
-        if (Objects.isNull(description) || description.isBlank()) return "Unknown";
+    /**
+     * Mutable count and sum of one category while an analysis is running.
+     */
+    private static final class CategoryTotal {
+        private final String category;
+        private final AmountAccumulator amount = new AmountAccumulator();
+        private int count = 0;
+
+        private CategoryTotal(final String category) {
+            this.category = category;
+        }
+
+        private void merge(final CategoryTotal other) {
+            count += other.count;
+            amount.add(other.amount);
+        }
+
+        private CategorySummary publish() {
+            return new CategorySummary(category, count, amount.toBigDecimal());
+        }
+    }
+
+    /**
+     * Analysis that is kept up to date batch by batch, for instance when a daily statement is added to
+     * a multi-year history.
+     * <p>
+     * Appending a batch only builds the {@link PeriodCube} of its own rows, in parallel for large batches, and
+     * merges it into the running cube, which grows with the periods of the new batch; the summaries are read
+     * from the cube, at a cost proportional to its cells. Statements are identified by their
+     * statement number ({@value StatementCsvDecoder#STATEMENT_NUMBER_COLUMN}) and booking date
+     * ({@value StatementCsvDecoder#BOOKING_DATE_COLUMN}): rows of a statement that was already appended in an
+     * earlier batch are skipped, so loading the same export twice doesn't count it twice. Rows without a
+     * statement number are always counted.
+     * </p>
+     * <p>
+     * Every batch is categorised with the rules that are active when it is appended; earlier batches keep their
+     * categories. Methods are synchronized, so batches may be appended on a background thread while summaries
+     * are read on another.
+     * </p>
+     */
+    public final class IncrementalAnalysis {
+        private final Set<StatementKey> statements = new HashSet<>();
+        private PeriodCube cube;
+
+        private IncrementalAnalysis(final PeriodCube.Granularity granularity) {
+            this.cube = PeriodCube.builder(granularity, null, null).build();
+        }
+
+        /**
+         * Adds a batch of transactions to the analysis.
+         *
+         * @param batch the new transactions; must not be null
+         * @return the rows of the batch that were counted, i.e. without statements that were already known
+         */
+        public synchronized TransactionTable append(final TransactionTable batch) {
+            final Set<StatementKey> batchStatements = new HashSet<>();
+            final TransactionTable accepted = dropKnownStatements(batch, batchStatements);
+            // Everything is computed before any field changes, so a failing batch leaves the analysis unchanged and
+            // its statements unknown.
+            final PeriodCube merged = cube.merge(AnalysisService.cube(accepted, cube.granularity(), categoriser.get()));
+            cube = merged;
+            statements.addAll(batchStatements);
+            log.info("Appended {} of {} transactions; {} transactions analysed in total.", accepted.size(), batch.size(), merged.transactionCount());
+            return accepted;
+        }
+
+        /**
+         * Adds a batch of records to the analysis.
+         *
+         * @param batch the new records; must not be null
+         * @return the records of the batch that were counted
+         * @see #append(TransactionTable)
+         */
+        public List<DataRecord> append(final List<DataRecord> batch) {
+            return append(TransactionTable.of(batch)).asRecords();
+        }
 
-        for (final var entry : keywordMap.entrySet()) {
-            for (final String keyword : entry.getValue()) {
-                if (description.toLowerCase().contains(keyword.toLowerCase())) {
-                    log.debug("Matched keyword '{}' for category '{}'", keyword, entry.getKey());
-                    return entry.getKey();
+        /**
+         * Returns the summaries of everything appended so far.
+         *
+         * @return the category summaries, in the same shape as {@link AnalysisService#analyse(List)}
+         */
+        public synchronized List<CategorySummary> summaries() {
+            return cube.summaries();
+        }
+
+        /**
+         * Returns the cube of everything appended so far, which {@link #summaries()} summarises.
+         *
+         * @return the cube, covering the periods from the first to the last transaction appended
+         */
+        public synchronized PeriodCube cube() {
+            return cube;
+        }
+
+        /**
+         * @return the number of transactions counted so far
+         */
+        public synchronized long recordCount() {
+            return cube.transactionCount();
+        }
+
+        /**
+         * @param batch           the new transactions
+         * @param batchStatements receives the statements of the batch that were not known yet
+         * @return the rows of the batch that are not part of a known statement
+         */
+        private TransactionTable dropKnownStatements(final TransactionTable batch, final Set<StatementKey> batchStatements) {
+            final boolean[] known = new boolean[batch.size()];
+            int knownRows = 0;
+            for (int row = 0; row < batch.size(); row++) {
+                final int statementId = batch.statementId(row);
+                if (statementId < 0) continue;
+                final StatementKey key = new StatementKey(batch.pooledString(statementId), batch.bookingEpochDay(row));
+                if (statements.contains(key)) {
+                    known[row] = true;
+                    knownRows++;
+                } else {
+                    batchStatements.add(key);
                 }
             }
+            if (knownRows == 0) return batch;
+
+            log.info("Skipping {} transactions of statements that were already analysed.", knownRows);
+            final TransactionTable.Builder accepted = TransactionTable.builder();
+            for (int row = 0; row < batch.size(); row++) {
+                if (!known[row]) accepted.add(batch, row);
+            }
+            return accepted.build();
+        }
+    }
+
+    private record StatementKey(String statementNumber, int bookingEpochDay) {
+    }
+
+    /**
+     * Active rules together with the description cache that is only valid for them. Swapped as a whole,
+     * so an analysis never mixes two rule sets.
+     * <p>
+     * Matches are expressed as slots: the rank of the winning rule, {@link #otherSlot} when no rule
+     * matches and {@link #unknownSlot} for transactions without description.
+     * </p>
+     */
+    private static final class Categoriser {
+        private final CategoryRules rules;
+        private final CategoryCache<Integer> cache = new CategoryCache<>(CATEGORY_CACHE_SIZE);
+        private final int otherSlot;
+        private final int unknownSlot;
+
+        private Categoriser(final CategoryRules rules) {
+            this.rules = rules;
+            this.otherSlot = rules.rules().size();
+            this.unknownSlot = otherSlot + 1;
+        }
+
+        private int slotCount() {
+            return unknownSlot + 1;
+        }
+
+        private int slot(final String description, final String counterparty) {
+            return combine(descriptionSlot(description), counterpartySlot(counterparty));
+        }
+
+        private int descriptionSlot(final String description) {
+            if (Objects.isNull(description) || description.isBlank()) return unknownSlot;
+            return toSlot(cache.get(description, rules::matchDescription));
+        }
+
+        private int counterpartySlot(final String counterparty) {
+            return toSlot(rules.matchCounterparty(counterparty));
+        }
+
+        private int combine(final int descriptionSlot, final int counterpartySlot) {
+            return descriptionSlot == unknownSlot ? unknownSlot : Math.min(descriptionSlot, counterpartySlot);
+        }
+
+        private String category(final int slot) {
+            if (slot == unknownSlot) return "Unknown";
+            return slot == otherSlot ? CategoryRules.NO_MATCH_CATEGORY : rules.category(slot);
+        }
+
+        private int toSlot(final int rank) {
+            return rank == CategoryRules.NO_MATCH ? otherSlot : rank;
+        }
+    }
+
+    /**
+     * Slots per pooled string of one table, so every distinct description and counterparty is matched once.
+     * Shared between workers: racing writes store the same value, so they are harmless.
+     */
+    private static final class SlotMemo {
+        private final Categoriser rules;
+        private final int[] descriptionSlots;
+        private final int[] counterpartySlots;
+
+        private SlotMemo(final Categoriser rules, final int poolSize) {
+            this.rules = rules;
+            this.descriptionSlots = new int[poolSize];
+            this.counterpartySlots = new int[poolSize];
+        }
+
+        private int slot(final TransactionTable transactions, final int row) {
+            final int descriptionId = transactions.descriptionId(row);
+            int description = descriptionSlots[descriptionId] - 1;
+            if (description < 0) {
+                description = rules.descriptionSlot(transactions.pooledString(descriptionId));
+                descriptionSlots[descriptionId] = description + 1;
+            }
+            final int counterpartyId = transactions.counterpartyId(row);
+            if (counterpartyId < 0) return description;
+            int counterparty = counterpartySlots[counterpartyId] - 1;
+            if (counterparty < 0) {
+                counterparty = rules.counterpartySlot(transactions.pooledString(counterpartyId));
+                counterpartySlots[counterpartyId] = counterparty + 1;
+            }
+            return rules.combine(description, counterparty);
         }
-        log.debug("No category matched for description '{}', assigning 'Other'", description);
-        return "Other";
     }
 }
@@ -0,0 +1,134 @@
+package be.jensberckmoes.insightfx.service;
+
+import be.jensberckmoes.insightfx.model.ExportSchema;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Base for export writers that format rows from an {@link ExportSchema} into a reusable character buffer.
+ *
+ * <p>Values are formatted straight into the buffer: strings are copied and decimals are written digit by digit.
+ * Nothing is allocated per row; the buffer is handed to the underlying writer only when it is full.
+ * Subclasses add the format's row and field syntax. Not thread-safe.</p>
+ */
+abstract class BufferedRowWriter implements ExportSchema.FieldWriter, Closeable {
+    /**
+     * Longest decimal without a scale: 19 digits and a sign.
+     */
+    protected static final int MAX_NUMBER_CHARS = 20;
+
+    private final Writer out;
+    private final char[] buffer;
+    private int position;
+
+    protected BufferedRowWriter(final Writer out, final int bufferChars) {
+        if (bufferChars < 3 * MAX_NUMBER_CHARS) throw new IllegalArgumentException("Buffer too small: " + bufferChars);
+        this.out = out;
+        this.buffer = new char[bufferChars];
+    }
+
+    abstract void writeHeaders(List<String> headers) throws IOException;
+
+    <R> void writeRow(final ExportSchema<R> schema, final R row) throws IOException {
+        startRow();
+        schema.write(row, this);
+        endRow();
+    }
+
+    protected abstract void startRow() throws IOException;
+
+    protected abstract void endRow() throws IOException;
+
+    /**
+     * Writes what the format needs after the last row; by default only the buffered rows.
+     */
+    protected void finish() throws IOException {
+        flushBuffer();
+    }
+
+    /**
+     * Finishes the output and closes the underlying writer.
+     */
+    @Override
+    public final void close() throws IOException {
+        try (out) {
+            finish();
+        }
+    }
+
+    /**
+     * Appends a decimal as {@link java.math.BigDecimal#toPlainString()} would write it.
+     *
+     * @param unscaled the unscaled value
+     * @param scale    the number of decimals, 0 to {@value #MAX_NUMBER_CHARS}
+     */
+    protected final void appendDecimal(final long unscaled, final int scale) throws IOException {
+        ensureCapacity(MAX_NUMBER_CHARS + scale + 2);
+        // Digits are taken from the negative value, so Long.MIN_VALUE needs no special case.
+        long negative = unscaled < 0 ? unscaled : -unscaled;
+        final int digits = Math.max(digitCount(negative), scale + 1);
+        final int end = position + (unscaled < 0 ? 1 : 0) + digits + (scale > 0 ? 1 : 0);
+        int i = end;
+        for (int d = 0; d < digits; d++) {
+            if (d == scale && scale > 0) buffer[--i] = '.';
+            buffer[--i] = (char) ('0' - negative % 10);
+            negative /= 10;
+        }
+        if (unscaled < 0) buffer[--i] = '-';
+        position = end;
+    }
+
+    private static int digitCount(final long negative) {
+        int count = 1;
+        for (long rest = negative / 10; rest != 0; rest /= 10) count++;
+        return count;
+    }
+
+    protected final void append(final char c) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = c;
+    }
+
+    protected final void append(final CharSequence value) throws IOException {
+        append(value, 0, value.length());
+    }
+
+    protected final void append(final CharSequence value, int from, final int to) throws IOException {
+        while (from < to) {
+            if (position == buffer.length) flushBuffer();
+            final int count = Math.min(to - from, buffer.length - position);
+            if (value instanceof final String string) {
+                string.getChars(from, from + count, buffer, position);
+                position += count;
+            } else {
+                for (int i = from; i < from + count; i++) buffer[position++] = value.charAt(i);
+            }
+            from += count;
+        }
+    }
+
+    /**
+     * Makes room for a number of characters, to be written with {@link #put(char)}.
+     */
+    protected final void ensureCapacity(final int chars) throws IOException {
+        if (buffer.length - position < chars) flushBuffer();
+    }
+
+    /**
+     * Appends a character after {@link #ensureCapacity(int)} made room for it.
+     */
+    protected final void put(final char c) {
+        buffer[position++] = c;
+    }
+
+    /**
+     * Hands the buffered characters to the underlying writer.
+     */
+    protected final void flushBuffer() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+}
@@ -0,0 +1,120 @@
+package be.jensberckmoes.insightfx.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe memo from description to a categorisation result, such as a category or the rank
+ * of the matching rule.
+ *
+ * <p>Keys are trimmed descriptions. The cache is split into segments by key hash; every segment is a small
+ * LRU map guarded by its own lock, so concurrent analyses rarely contend. When a segment is full, its least
+ * recently used entry is evicted, which makes the whole cache an approximate LRU of at most
+ * {@code maximumSize} entries.</p>
+ */
+public final class CategoryCache<V> {
+    private static final int SEGMENTS = 16;
+
+    private final List<Segment> segments = new ArrayList<>(SEGMENTS);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize the maximum number of cached descriptions; at least {@value #SEGMENTS}
+     */
+    public CategoryCache(final int maximumSize) {
+        if (maximumSize < SEGMENTS) throw new IllegalArgumentException("Cache size must be at least " + SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments.add(new Segment(maximumSize / SEGMENTS));
+        }
+    }
+
+    /**
+     * Returns the cached result for a description, computing and caching it on a miss.
+     *
+     * @param description the description; must not be null
+     * @param categoriser computes the result for a (trimmed) description on a miss; must not return null
+     * @return the result
+     */
+    public V get(final String description, final Function<String, V> categoriser) {
+        final String key = description.trim();
+        final Segment segment = segments.get(spread(key.hashCode()) & (SEGMENTS - 1));
+
+        final V cached = segment.get(key);
+        if (Objects.nonNull(cached)) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        final V result = Objects.requireNonNull(categoriser.apply(key), "result");
+        segment.put(key, result);
+        return result;
+    }
+
+    /**
+     * @return a snapshot of the hit, miss and eviction counters
+     */
+    public Stats stats() {
+        int size = 0;
+        for (final Segment segment : segments) {
+            size += segment.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Counters of a {@link CategoryCache}.
+     *
+     * @param hits      lookups answered from the cache
+     * @param misses    lookups that had to compute the result
+     * @param evictions entries dropped to stay within the maximum size
+     * @param size      entries currently cached
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+
+        /**
+         * @return the fraction of lookups answered from the cache, or 0 when there were none
+         */
+        public double hitRate() {
+            final long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private final class Segment {
+        private final Map<String, V> entries;
+
+        private Segment(final int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, V> eldest) {
+                    if (size() <= capacity) return false;
+                    evictions.increment();
+                    return true;
+                }
+            };
+        }
+
+        private synchronized V get(final String key) {
+            return entries.get(key);
+        }
+
+        private synchronized void put(final String key, final V result) {
+            entries.put(key, result);
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+    }
+}
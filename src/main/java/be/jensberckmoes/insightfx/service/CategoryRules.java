@@ -0,0 +1,287 @@
+package be.jensberckmoes.insightfx.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Immutable, precompiled set of categorisation rules.
+ *
+ * <p>Rules are read from a {@code ;}-separated text file with one rule per line:</p>
+ * <pre>
+ * # priority;category;type;pattern
+ * 140;Groceries;keyword;Delhaize
+ * 90;Income;counterparty;ACME NV
+ * 50;Transport;regex;^NMBS\s+\d+
+ * </pre>
+ * <ul>
+ *     <li>{@code keyword}: the description contains the pattern, ignoring case</li>
+ *     <li>{@code prefix}: the description starts with the pattern, ignoring case</li>
+ *     <li>{@code counterparty}: the counterparty name equals the pattern, ignoring case</li>
+ *     <li>{@code regex}: the pattern, a Java regular expression, is found in the description</li>
+ * </ul>
+ *
+ * <p>The matching rule with the highest priority wins; between equal priorities the rule listed first wins.
+ * Blank lines and lines starting with {@code #} are ignored.</p>
+ *
+ * <p>Keyword rules are compiled into a single {@link KeywordMatcher}, counterparty rules into a
+ * case-insensitive map and regular expressions into {@link Pattern}s, so matching never re-parses the rules.
+ * Instances are immutable and safe to share between threads.</p>
+ */
+public final class CategoryRules {
+    /**
+     * Rank returned when no rule matches; worse than any real rank.
+     */
+    public static final int NO_MATCH = Integer.MAX_VALUE;
+    public static final String NO_MATCH_CATEGORY = "Other";
+
+    private static final String DEFAULT_RULES = "/be/jensberckmoes/insightfx/default-category-rules.csv";
+    private static final char SEPARATOR = ';';
+
+    private final List<Rule> rules;
+    private final KeywordMatcher keywords;
+    private final int[] keywordRanks;
+    private final String[] prefixes;
+    private final int[] prefixRanks;
+    private final Pattern[] regexes;
+    private final int[] regexRanks;
+    private final Map<String, Integer> counterpartyRanks;
+
+    private CategoryRules(final List<Rule> rules) {
+        this.rules = rules;
+        final List<String> keywordPatterns = new ArrayList<>();
+        final List<Integer> keywordRankList = new ArrayList<>();
+        final List<String> prefixList = new ArrayList<>();
+        final List<Integer> prefixRankList = new ArrayList<>();
+        final List<Pattern> regexList = new ArrayList<>();
+        final List<Integer> regexRankList = new ArrayList<>();
+        final Map<String, Integer> counterparties = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        for (int rank = 0; rank < rules.size(); rank++) {
+            final Rule rule = rules.get(rank);
+            switch (rule.type()) {
+                case KEYWORD -> {
+                    keywordPatterns.add(rule.pattern());
+                    keywordRankList.add(rank);
+                }
+                case PREFIX -> {
+                    prefixList.add(rule.pattern());
+                    prefixRankList.add(rank);
+                }
+                case REGEX -> {
+                    regexList.add(Pattern.compile(rule.pattern()));
+                    regexRankList.add(rank);
+                }
+                case COUNTERPARTY -> counterparties.putIfAbsent(rule.pattern().trim(), rank);
+            }
+        }
+        this.keywords = KeywordMatcher.compile(keywordPatterns);
+        this.keywordRanks = toArray(keywordRankList);
+        this.prefixes = prefixList.toArray(String[]::new);
+        this.prefixRanks = toArray(prefixRankList);
+        this.regexes = regexList.toArray(Pattern[]::new);
+        this.regexRanks = toArray(regexRankList);
+        this.counterpartyRanks = Collections.unmodifiableMap(counterparties);
+    }
+
+    /**
+     * Compiles a list of rules.
+     *
+     * @param rules the rules, in file order
+     * @return the compiled rule set
+     * @throws IllegalArgumentException if a pattern is blank or a regular expression is invalid
+     */
+    public static CategoryRules of(final List<Rule> rules) {
+        final List<Rule> ranked = new ArrayList<>(rules);
+        ranked.sort(Comparator.comparingInt(Rule::priority).reversed());
+        return new CategoryRules(List.copyOf(ranked));
+    }
+
+    /**
+     * Reads and compiles a rule file.
+     *
+     * @param file the rule file, in UTF-8
+     * @return the compiled rule set
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException if a line is not a valid rule
+     */
+    public static CategoryRules load(final Path file) throws IOException {
+        try (final Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Returns the built-in rules, used when no rule file is configured.
+     *
+     * @return the default rule set
+     */
+    public static CategoryRules defaults() {
+        try (final InputStream in = CategoryRules.class.getResourceAsStream(DEFAULT_RULES)) {
+            if (Objects.isNull(in)) throw new IllegalStateException("Default category rules are missing: " + DEFAULT_RULES);
+            return parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses and compiles rules in the rule file format.
+     *
+     * @param reader the rule text; not closed
+     * @return the compiled rule set
+     * @throws IOException if the reader fails
+     * @throws IllegalArgumentException if a line is not a valid rule
+     */
+    public static CategoryRules parse(final Reader reader) throws IOException {
+        final BufferedReader lines = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        final List<Rule> rules = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while (Objects.nonNull(line = lines.readLine())) {
+            lineNumber++;
+            final String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.charAt(0) == '#') continue;
+            try {
+                rules.add(parseRule(trimmed));
+            } catch (final IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid category rule on line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return of(rules);
+    }
+
+    private static Rule parseRule(final String line) {
+        final String[] fields = new String[4];
+        int start = 0;
+        for (int i = 0; i < 3; i++) {
+            final int end = line.indexOf(SEPARATOR, start);
+            if (end < 0) throw new IllegalArgumentException("expected priority;category;type;pattern");
+            fields[i] = line.substring(start, end).strip();
+            start = end + 1;
+        }
+        fields[3] = line.substring(start).strip();
+
+        final int priority;
+        try {
+            priority = Integer.parseInt(fields[0]);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("priority '" + fields[0] + "' is not a number");
+        }
+        return new Rule(priority, fields[1], RuleType.parse(fields[2]), fields[3]);
+    }
+
+    /**
+     * @return the rules in rank order: highest priority first
+     */
+    public List<Rule> rules() {
+        return rules;
+    }
+
+    /**
+     * Finds the best description rule: keyword, prefix or regular expression.
+     *
+     * @param description the description
+     * @return the rank of the best matching rule, or {@link #NO_MATCH}
+     */
+    public int matchDescription(final String description) {
+        final int keyword = keywords.matchIndex(description);
+        int best = keyword < 0 ? NO_MATCH : keywordRanks[keyword];
+        for (int i = 0; i < prefixes.length && prefixRanks[i] < best; i++) {
+            if (description.regionMatches(true, 0, prefixes[i], 0, prefixes[i].length())) best = prefixRanks[i];
+        }
+        for (int i = 0; i < regexes.length && regexRanks[i] < best; i++) {
+            if (regexes[i].matcher(description).find()) best = regexRanks[i];
+        }
+        return best;
+    }
+
+    /**
+     * Finds the counterparty rule for a counterparty name.
+     *
+     * @param counterparty the counterparty name; may be null
+     * @return the rank of the matching rule, or {@link #NO_MATCH}
+     */
+    public int matchCounterparty(final String counterparty) {
+        if (counterpartyRanks.isEmpty() || Objects.isNull(counterparty)) return NO_MATCH;
+        final Integer rank = counterpartyRanks.get(counterparty.trim());
+        return Objects.isNull(rank) ? NO_MATCH : rank;
+    }
+
+    /**
+     * Categorises a transaction.
+     *
+     * @param description  the description
+     * @param counterparty the counterparty name; may be null
+     * @return the category of the best matching rule, or {@value #NO_MATCH_CATEGORY}
+     */
+    public String categorise(final String description, final String counterparty) {
+        return category(Math.min(matchDescription(description), matchCounterparty(counterparty)));
+    }
+
+    /**
+     * @param rank a rank returned by one of the match methods
+     * @return the category of that rule, or {@value #NO_MATCH_CATEGORY} for {@link #NO_MATCH}
+     */
+    public String category(final int rank) {
+        return rank == NO_MATCH ? NO_MATCH_CATEGORY : rules.get(rank).category();
+    }
+
+    private static int[] toArray(final List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Kind of match a {@link Rule} performs.
+     */
+    public enum RuleType {
+        KEYWORD, PREFIX, COUNTERPARTY, REGEX;
+
+        private static RuleType parse(final String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (final IllegalArgumentException e) {
+                throw new IllegalArgumentException("unknown rule type '" + value + "'");
+            }
+        }
+    }
+
+    /**
+     * One categorisation rule.
+     *
+     * @param priority higher priorities win
+     * @param category the category assigned on a match
+     * @param type     how the pattern is matched
+     * @param pattern  the keyword, prefix, counterparty name or regular expression
+     */
+    public record Rule(int priority, String category, RuleType type, String pattern) {
+        public Rule {
+            Objects.requireNonNull(type, "type");
+            if (Objects.isNull(category) || category.isBlank()) throw new IllegalArgumentException("category can't be empty");
+            if (Objects.isNull(pattern) || pattern.isBlank()) throw new IllegalArgumentException("pattern can't be empty");
+            if (type == RuleType.REGEX) {
+                try {
+                    Pattern.compile(pattern);
+                } catch (final PatternSyntaxException e) {
+                    throw new IllegalArgumentException("invalid regular expression: " + e.getDescription(), e);
+                }
+            }
+        }
+    }
+}
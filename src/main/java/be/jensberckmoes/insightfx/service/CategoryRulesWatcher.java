@@ -0,0 +1,101 @@
+package be.jensberckmoes.insightfx.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reloads a category rule file whenever it changes on disk.
+ *
+ * <p>The file's directory is watched on a daemon thread. After a change, the watcher waits briefly for
+ * further events so that editors which write a file in several steps trigger a single reload. A file that
+ * fails to load is logged and ignored: the rules that were active before stay in use.</p>
+ */
+public final class CategoryRulesWatcher implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(CategoryRulesWatcher.class);
+    private static final long SETTLE_MILLIS = 200;
+
+    private final Path file;
+    private final Consumer<CategoryRules> onReload;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    /**
+     * Starts watching the given file.
+     *
+     * @param file     the rule file
+     * @param onReload receives every successfully reloaded rule set
+     * @throws IOException if the directory can't be watched
+     */
+    public CategoryRulesWatcher(final Path file, final Consumer<CategoryRules> onReload) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onReload = Objects.requireNonNull(onReload, "onReload");
+        this.watchService = this.file.getFileSystem().newWatchService();
+        this.file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = Thread.ofPlatform()
+                .daemon()
+                .name("category-rules-watcher")
+                .start(this::watch);
+        log.info("Watching category rules in {}", this.file);
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                final WatchKey key = watchService.take();
+                boolean changed = concernsFile(key);
+                key.reset();
+                // Let the writer finish and swallow the events of the same save.
+                WatchKey next;
+                while (Objects.nonNull(next = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS))) {
+                    changed |= concernsFile(next);
+                    next.reset();
+                }
+                if (changed) reload(file, onReload);
+            }
+        } catch (final InterruptedException | ClosedWatchServiceException _) {
+            log.debug("Stopped watching {}", file);
+        }
+    }
+
+    private boolean concernsFile(final WatchKey key) {
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path changed && file.getFileName().equals(changed)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Loads the rule file and hands the rules on; a file that fails to load is logged and ignored.
+     *
+     * @param file     the rule file
+     * @param onReload receives the rules when they load
+     */
+    static void reload(final Path file, final Consumer<CategoryRules> onReload) {
+        try {
+            final CategoryRules rules = CategoryRules.load(file);
+            onReload.accept(rules);
+            log.info("Reloaded {} category rules from {}", rules.rules().size(), file);
+        } catch (final IOException | IllegalArgumentException e) {
+            log.error("Keeping previous category rules, {} can't be loaded: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package be.jensberckmoes.insightfx.service;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * A chart encoded once for PDF export, so that exporting the same analysis again costs no rendering or compression.
+ *
+ * <p>The pixels are stored as they go into the PDF: 8-bit RGB, composited over white and Flate-compressed. A
+ * {@link PDImageXObject} belongs to the document it was created for, so {@link #toPdfImage(PDDocument)} wraps the
+ * encoded bytes in a new one for every export; the bytes are copied, not re-encoded.</p>
+ *
+ * <p>Charts are drawn {@link #WIDTH_POINTS} wide, and rendered at {@link #DPI} for that size: use
+ * {@link #renderScale(double)} when taking the snapshot.</p>
+ */
+public final class ChartImage {
+    /**
+     * Width of the chart on the page, in points.
+     */
+    public static final float WIDTH_POINTS = 240;
+    /**
+     * Resolution the chart is rendered at.
+     */
+    public static final int DPI = 150;
+
+    private static final float POINTS_PER_INCH = 72;
+    private static final int BITS_PER_COMPONENT = 8;
+
+    private final byte[] encoded;
+    private final int pixelWidth;
+    private final int pixelHeight;
+    private final float width;
+
+    private ChartImage(final byte[] encoded, final int pixelWidth, final int pixelHeight, final float width) {
+        this.encoded = encoded;
+        this.pixelWidth = pixelWidth;
+        this.pixelHeight = pixelHeight;
+        this.width = width;
+    }
+
+    /**
+     * Returns the scale at which to snapshot a chart so it has {@link #DPI} when drawn {@link #WIDTH_POINTS} wide.
+     *
+     * @param chartWidth the width of the chart on screen
+     * @return the scale
+     */
+    public static double renderScale(final double chartWidth) {
+        if (chartWidth <= 0) throw new IllegalArgumentException("Chart width must be positive: " + chartWidth);
+        return WIDTH_POINTS / POINTS_PER_INCH * DPI / chartWidth;
+    }
+
+    /**
+     * Encodes a chart to be drawn {@link #WIDTH_POINTS} wide.
+     *
+     * @param image the rendered chart
+     * @return the encoded chart
+     */
+    public static ChartImage encode(final BufferedImage image) {
+        return encode(image, WIDTH_POINTS);
+    }
+
+    /**
+     * Encodes a chart.
+     *
+     * @param image the rendered chart
+     * @param width the width to draw it at, in points; the height follows from the image
+     * @return the encoded chart
+     */
+    public static ChartImage encode(final BufferedImage image, final float width) {
+        final int pixelWidth = image.getWidth();
+        final int pixelHeight = image.getHeight();
+        final int[] pixels = new int[pixelWidth];
+        final byte[] row = new byte[pixelWidth * 3];
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(pixelWidth * pixelHeight / 4);
+        final Deflater deflater = new Deflater();
+        try (final DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater, row.length)) {
+            for (int y = 0; y < pixelHeight; y++) {
+                image.getRGB(0, y, pixelWidth, 1, pixels, 0, pixelWidth);
+                for (int x = 0, i = 0; x < pixelWidth; x++) {
+                    final int argb = pixels[x];
+                    final int alpha = argb >>> 24;
+                    row[i++] = overWhite(argb >> 16 & 0xff, alpha);
+                    row[i++] = overWhite(argb >> 8 & 0xff, alpha);
+                    row[i++] = overWhite(argb & 0xff, alpha);
+                }
+                out.write(row);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return new ChartImage(bytes.toByteArray(), pixelWidth, pixelHeight, width);
+    }
+
+    private static byte overWhite(final int component, final int alpha) {
+        return (byte) ((component * alpha + 255 * (255 - alpha) + 127) / 255);
+    }
+
+    /**
+     * Creates the image for one document from the encoded pixels.
+     *
+     * @param document the document the image is drawn in
+     * @return the image
+     * @throws IOException if the image can't be added to the document
+     */
+    public PDImageXObject toPdfImage(final PDDocument document) throws IOException {
+        return new PDImageXObject(document, new ByteArrayInputStream(encoded), COSName.FLATE_DECODE,
+                pixelWidth, pixelHeight, BITS_PER_COMPONENT, PDDeviceRGB.INSTANCE);
+    }
+
+    /**
+     * @return the width to draw the chart at, in points
+     */
+    public float width() {
+        return width;
+    }
+
+    /**
+     * @return the height to draw the chart at, in points
+     */
+    public float height() {
+        return width * pixelHeight / pixelWidth;
+    }
+
+    /**
+     * @return the size of the encoded pixels, in bytes
+     */
+    public int encodedSize() {
+        return encoded.length;
+    }
+}
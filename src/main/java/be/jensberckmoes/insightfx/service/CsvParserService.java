@@ -2,29 +2,45 @@ package be.jensberckmoes.insightfx.service;
 
 import be.jensberckmoes.insightfx.exception.CsvParsingException;
 import be.jensberckmoes.insightfx.model.DataRecord;
-import com.opencsv.bean.CsvToBean;
-import com.opencsv.bean.CsvToBeanBuilder;
-import com.opencsv.bean.HeaderColumnNameMappingStrategy;
+import be.jensberckmoes.insightfx.model.TransactionTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class CsvParserService {
     private static final Logger log = LoggerFactory.getLogger(CsvParserService.class);
+    /**
+     * Version of what a statement file parses to; bump it whenever the decoding or the inclusion filter changes,
+     * so that stored snapshots of earlier parses are no longer used.
+     */
+    public static final String FORMAT_VERSION = "1";
+    private static final long PARALLEL_THRESHOLD_BYTES = 16L * 1024 * 1024;
+    private static final long MIN_CHUNK_BYTES = 4L * 1024 * 1024;
+
+    private final ParallelStatementParser parallelParser =
+            new ParallelStatementParser(4, MIN_CHUNK_BYTES, CsvParserService::isIncluded);
 
     /**
      * Service to parse CSV-files to DataRecord objects.
      *
      * <p>Supports:</p>
      * <ul>
-     *     <li>Header-based mapping</li>
+     *     <li>Header-based mapping, resolved once by {@link StatementCsvDecoder}</li>
      *     <li>UTF-8 encoding</li>
      *     <li>Quotes, multi-line and separator within a field</li>
      *     <li>Custom exception when parsing mistakes</li>
@@ -32,35 +48,253 @@ public class CsvParserService {
      *
      * @see DataRecord
      * @see CsvParsingException
+     * @see #stream(InputStream)
      */
     public List<DataRecord> parse(final InputStream csvStream) {
         log.info("Start parsing CSV stream...");
-        try (final Reader reader = new InputStreamReader(csvStream, StandardCharsets.UTF_8)) {
-            final HeaderColumnNameMappingStrategy<DataRecord> strategy = new HeaderColumnNameMappingStrategy<>();
-            strategy.setType(DataRecord.class);
-
-            final CsvToBean<DataRecord> csvToBean = new CsvToBeanBuilder<DataRecord>(reader)
-                    .withType(DataRecord.class)
-                    .withMappingStrategy(strategy)
-                    .withSeparator(';')
-                    .withIgnoreLeadingWhiteSpace(true)
-                    .build();
-            final List<DataRecord> records = new ArrayList<>();
-            for (final DataRecord record : csvToBean) {
-                if (record.getDescription().contains("BEGUNSTIGDE: KREDBEBBXXX BERCKMOES J & DUMONT")
-                        || record.getDescription().contains("OPDRACHTGEVER: KREDBEBBXXX BERCKMOES")
-                || record.getDescription().contains("SALARIS")){
-                    continue;
-                }
-                log.debug("Parsed record: {}", record);
-                records.add(record);
-            }
+        try (final Stream<DataRecord> stream = stream(csvStream)) {
+            final List<DataRecord> records = stream.collect(Collectors.toCollection(ArrayList::new));
             log.debug("Amount of rows loaded: {}", records.size());
             return records;
+        }
+    }
+
+    /**
+     * Parses a CSV file on disk.
+     *
+     * <p>Small files are read sequentially. Larger files are memory-mapped and decoded in parallel
+     * by {@link ParallelStatementParser}, with the records returned in file order.</p>
+     *
+     * @param file the CSV file
+     * @return the parsed records, in file order
+     * @throws CsvParsingException if the file can't be read or contains a malformed record
+     */
+    public List<DataRecord> parse(final Path file) {
+        return parse(file, Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Parses a CSV file on disk straight into a columnar {@link TransactionTable}. Amounts are decoded into cents
+     * and dates into epoch days, without creating {@link DataRecord}s.
+     *
+     * @param file the CSV file
+     * @return the parsed transactions, in file order
+     * @throws CsvParsingException if the file can't be read or contains a malformed record
+     * @see #parse(Path)
+     */
+    public TransactionTable parseTable(final Path file) {
+        return parseTable(file, ProgressListener.NONE);
+    }
+
+    /**
+     * Parses a CSV file on disk into a {@link TransactionTable}, reporting the rows parsed and bytes read.
+     *
+     * @param file     the CSV file
+     * @param progress receives progress while parsing; may cancel by throwing a {@link CancellationException}
+     * @return the parsed transactions, in file order
+     * @throws CsvParsingException   if the file can't be read or contains a malformed record
+     * @throws CancellationException if the progress listener cancelled parsing
+     */
+    public TransactionTable parseTable(final Path file, final ProgressListener progress) {
+        final long size = size(file);
+        if (size < PARALLEL_THRESHOLD_BYTES) {
+            try (final CountingInputStream in = new CountingInputStream(Files.newInputStream(file));
+                 final StatementCsvDecoder decoder = new StatementCsvDecoder(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                final TransactionTable.Builder table = TransactionTable.builder();
+                int reported = 0;
+                while (decoder.next(table, CsvParserService::isIncluded)) {
+                    if (table.size() - reported == ProgressListener.REPORT_INTERVAL_ROWS) {
+                        reported = table.size();
+                        progress.onProgress(reported, in.count);
+                    }
+                }
+                progress.onProgress(table.size(), in.count);
+                return table.build();
+            } catch (final CancellationException e) {
+                throw e;
+            } catch (final IOException | RuntimeException e) {
+                throw toParsingException(e);
+            }
+        }
+
+        log.info("Start parallel parsing of {} ({} bytes)...", file, size);
+        final long start = System.currentTimeMillis();
+        try {
+            final TransactionTable table = parallelParser.parseTable(file, progress);
+            log.info("Parsed {} in {} ms", file, System.currentTimeMillis() - start);
+            return table;
+        } catch (final CancellationException e) {
+            throw e;
+        } catch (final RuntimeException e) {
+            throw toParsingException(e);
+        }
+    }
+
+    private <R> R parse(final Path file, final Collector<DataRecord, ?, R> collector) {
+        return parse(file, collector, ProgressListener.NONE);
+    }
+
+    private <R> R parse(final Path file, final Collector<DataRecord, ?, R> collector, final ProgressListener progress) {
+        final long size = size(file);
+        if (size < PARALLEL_THRESHOLD_BYTES) {
+            try (final CountingInputStream in = new CountingInputStream(Files.newInputStream(file));
+                 final Stream<DataRecord> stream = stream(in)) {
+                final RowCounter rows = new RowCounter(in, progress);
+                final R result = stream.peek(rows).collect(collector);
+                progress.onProgress(rows.count, in.count);
+                return result;
+            } catch (final IOException e) {
+                throw toParsingException(e);
+            }
+        }
+
+        log.info("Start parallel parsing of {} ({} bytes)...", file, size);
+        final long start = System.currentTimeMillis();
+        try {
+            final R result = parallelParser.parse(file, collector, progress);
+            log.info("Parsed {} in {} ms", file, System.currentTimeMillis() - start);
+            return result;
+        } catch (final CancellationException e) {
+            throw e;
+        } catch (final RuntimeException e) {
+            throw toParsingException(e);
+        }
+    }
+
+    /**
+     * Parses a CSV stream lazily, handing on each {@link DataRecord} as soon as it has been decoded.
+     *
+     * <p>Nothing is buffered beyond the record being decoded, so memory use does not grow with the
+     * size of the input. The returned stream owns the underlying reader and must be closed, preferably
+     * with try-with-resources. Parsing mistakes surface as {@link CsvParsingException}, either when the
+     * stream is opened or while it is being consumed.</p>
+     *
+     * @param csvStream the CSV input; closed together with the returned stream
+     * @return a sequential, ordered stream of parsed records
+     * @throws CsvParsingException if the header can't be read or a row can't be parsed
+     */
+    public Stream<DataRecord> stream(final InputStream csvStream) {
+        log.info("Start streaming CSV...");
+        final Reader reader = new InputStreamReader(csvStream, StandardCharsets.UTF_8);
+        try {
+            final StatementCsvDecoder decoder = new StatementCsvDecoder(reader);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(records(decoder), Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .filter(record -> isIncluded(record.getDescription()))
+                    .peek(record -> log.debug("Parsed record: {}", record))
+                    .onClose(() -> closeQuietly(reader));
         } catch (final Exception e) {
-            final Throwable rootCause = Objects.nonNull(e.getCause()) ? e.getCause() : e;
-            log.error("CSV parsing failure: {}", rootCause.getMessage(), e);
-            throw new CsvParsingException("Error parsing: " + rootCause.getMessage(), e);
+            closeQuietly(reader);
+            throw toParsingException(e);
+        }
+    }
+
+    /**
+     * Filters out transfers between own accounts and salary payments, which would distort the analysis.
+     *
+     * @param description the description of the parsed record
+     * @return true if the record should be handed on
+     */
+    private static boolean isIncluded(final String description) {
+        return !(description.contains("BEGUNSTIGDE: KREDBEBBXXX BERCKMOES J & DUMONT")
+                || description.contains("OPDRACHTGEVER: KREDBEBBXXX BERCKMOES")
+                || description.contains("SALARIS"));
+    }
+
+    private static long size(final Path file) {
+        try {
+            return Files.size(file);
+        } catch (final IOException e) {
+            throw toParsingException(e);
+        }
+    }
+
+    /**
+     * Adapts a decoder to an iterator, reporting every failure as a {@link CsvParsingException}.
+     *
+     * @param decoder the decoder positioned after the header
+     * @return iterator over the decoded records
+     */
+    private static Iterator<DataRecord> records(final StatementCsvDecoder decoder) {
+        return new Iterator<>() {
+            private DataRecord next;
+
+            @Override
+            public boolean hasNext() {
+                if (Objects.isNull(next)) {
+                    try {
+                        next = decoder.next();
+                    } catch (final Exception e) {
+                        throw toParsingException(e);
+                    }
+                }
+                return Objects.nonNull(next);
+            }
+
+            @Override
+            public DataRecord next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                final DataRecord record = next;
+                next = null;
+                return record;
+            }
+        };
+    }
+
+    /**
+     * Counts the bytes read from the underlying stream.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            final int read = super.read(buffer, offset, length);
+            if (read > 0) count += read;
+            return read;
+        }
+    }
+
+    /**
+     * Counts parsed records and reports progress every {@link ProgressListener#REPORT_INTERVAL_ROWS} of them.
+     */
+    private static final class RowCounter implements Consumer<DataRecord> {
+        private final CountingInputStream in;
+        private final ProgressListener progress;
+        private long count;
+
+        private RowCounter(final CountingInputStream in, final ProgressListener progress) {
+            this.in = in;
+            this.progress = progress;
+        }
+
+        @Override
+        public void accept(final DataRecord record) {
+            if (++count % ProgressListener.REPORT_INTERVAL_ROWS == 0) progress.onProgress(count, in.count);
+        }
+    }
+
+    private static CsvParsingException toParsingException(final Exception e) {
+        final Throwable rootCause = e instanceof CsvParsingException || Objects.isNull(e.getCause()) ? e : e.getCause();
+        log.error("CSV parsing failure: {}", rootCause.getMessage(), e);
+        return new CsvParsingException("Error parsing: " + rootCause.getMessage(), e);
+    }
+
+    private static void closeQuietly(final Reader reader) {
+        try {
+            reader.close();
+        } catch (final IOException e) {
+            log.warn("Failed to close CSV reader: {}", e.getMessage());
         }
     }
 }
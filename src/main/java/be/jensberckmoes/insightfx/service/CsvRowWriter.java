@@ -0,0 +1,117 @@
+package be.jensberckmoes.insightfx.service;
+
+import be.jensberckmoes.insightfx.model.CsvDelimiter;
+import be.jensberckmoes.insightfx.model.ExportSchema;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writes CSV rows from an {@link ExportSchema} into a reusable character buffer; dates are written as ISO dates.
+ *
+ * <p>With {@code quote} set, fields containing the delimiter, a quote or a line break are quoted as in RFC 4180.
+ * Not thread-safe.</p>
+ */
+final class CsvRowWriter extends BufferedRowWriter {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final char separator;
+    private final boolean quote;
+    private boolean firstField = true;
+
+    CsvRowWriter(final Writer out, final CsvDelimiter delimiter, final boolean quote, final int bufferChars) {
+        super(out, bufferChars);
+        this.separator = delimiter.getSymbol().charAt(0);
+        this.quote = quote;
+    }
+
+    @Override
+    void writeHeaders(final List<String> headers) throws IOException {
+        startRow();
+        for (final String header : headers) {
+            text(header);
+        }
+        endRow();
+    }
+
+    @Override
+    public void text(final CharSequence value) throws IOException {
+        startField();
+        if (Objects.isNull(value)) return;
+        final int length = value.length();
+        if (!quote || !needsQuotes(value, length)) {
+            append(value, 0, length);
+            return;
+        }
+        append('"');
+        int from = 0;
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) == '"') {
+                append(value, from, i + 1);
+                from = i;
+            }
+        }
+        append(value, from, length);
+        append('"');
+    }
+
+    @Override
+    public void decimal(final long unscaled, final int scale) throws IOException {
+        if (scale < 0 || scale > MAX_NUMBER_CHARS) {
+            text(BigDecimal.valueOf(unscaled, scale).toPlainString());
+            return;
+        }
+        startField();
+        appendDecimal(unscaled, scale);
+    }
+
+    @Override
+    public void date(final LocalDate value) throws IOException {
+        if (Objects.isNull(value) || value.getYear() < 1000 || value.getYear() > 9999) {
+            super.date(value);
+            return;
+        }
+        startField();
+        ensureCapacity(10);
+        final int year = value.getYear();
+        final int month = value.getMonthValue();
+        final int day = value.getDayOfMonth();
+        put((char) ('0' + year / 1000));
+        put((char) ('0' + year / 100 % 10));
+        put((char) ('0' + year / 10 % 10));
+        put((char) ('0' + year % 10));
+        put('-');
+        put((char) ('0' + month / 10));
+        put((char) ('0' + month % 10));
+        put('-');
+        put((char) ('0' + day / 10));
+        put((char) ('0' + day % 10));
+    }
+
+    @Override
+    protected void startRow() {
+        firstField = true;
+    }
+
+    @Override
+    protected void endRow() throws IOException {
+        append(LINE_SEPARATOR);
+    }
+
+    private void startField() throws IOException {
+        if (!firstField) append(separator);
+        firstField = false;
+    }
+
+    private boolean needsQuotes(final CharSequence value, final int length) {
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c == separator || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+}
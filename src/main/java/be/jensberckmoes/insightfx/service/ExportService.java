@@ -1,5 +1,7 @@
 package be.jensberckmoes.insightfx.service;
 
+import be.jensberckmoes.insightfx.model.DataRecord;
+import be.jensberckmoes.insightfx.model.ExportSchema;
 import be.jensberckmoes.insightfx.model.ExportType;
 import be.jensberckmoes.insightfx.model.ExportableRow;
 
@@ -7,9 +9,13 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
- * Service responsible for exporting data in various formats such as CSV, European-style CSV, and PDF.
+ * Service responsible for exporting data in various formats such as CSV, European-style CSV, XLSX and PDF.
  * Implementations should handle formatting, file creation, and optional inclusion of charts.
  */
 public interface ExportService {
@@ -41,4 +47,90 @@ public interface ExportService {
                 final ExportType type,
                 final BufferedImage chartImage) throws IOException;
 
+    /**
+     * Exports the given rows to a file of the specified type, optionally including a chart that was encoded
+     * before, so exporting the same chart again doesn't encode it again.
+     *
+     * @param rows   The list of {@link ExportableRow} to export. Must not be null.
+     * @param target The target file path where the exported file will be written. Must not be null.
+     * @param type   The type of export to perform ({@link ExportType}). Must not be null.
+     * @param chart  Optional chart to include in the export (PDF only). Can be null.
+     * @throws IOException              If there is an error writing to the target file.
+     * @throws IllegalArgumentException If the export type is null or unsupported.
+     */
+    void exportWithChart(final List<? extends ExportableRow> rows,
+                         final Path target,
+                         final ExportType type,
+                         final ChartImage chart) throws IOException;
+
+    /**
+     * Exports the given rows through a schema, optionally including a chart.
+     * <p>
+     * The schema's typed accessors are written straight to the output, without building a map or a line per row,
+     * so large exports are limited by writing rather than by allocating. The other {@code export} methods read the
+     * rows through {@link ExportableRow#toRow()} instead.
+     * </p>
+     *
+     * @param rows   The rows to export. Must not be null.
+     * @param schema The columns to export, e.g. {@link be.jensberckmoes.insightfx.model.CategorySummary#EXPORT_SCHEMA}. Must not be null.
+     * @param target The target file path where the exported file will be written. Must not be null.
+     * @param type   The type of export to perform ({@link ExportType}). Must not be null.
+     * @param chart  Optional chart to include in the export (PDF only). Can be null.
+     * @param <R>    The row type.
+     * @throws IOException              If there is an error writing to the target file.
+     * @throws IllegalArgumentException If the export type is null or unsupported.
+     */
+    <R> void export(final List<? extends R> rows,
+                    final ExportSchema<R> schema,
+                    final Path target,
+                    final ExportType type,
+                    final ChartImage chart) throws IOException;
+
+    /**
+     * Exports the given rows to several files at once, one per format, without blocking the caller.
+     * <p>
+     * All formats are written concurrently from one snapshot of the rows, taken when this method is called, and
+     * share the schema and the encoded chart. Progress is reported as the rows written over all formats, with
+     * no byte count. Cancelling the returned future, or throwing a {@link java.util.concurrent.CancellationException}
+     * from the listener, stops every format; when the export is cancelled or a format fails, all its files
+     * are deleted once the writers have stopped.
+     * </p>
+     *
+     * @param rows     The rows to export. Must not be null.
+     * @param schema   The columns to export. Must not be null.
+     * @param targets  The file to write for each export type. Must not be empty.
+     * @param chart    Optional chart to include in a PDF. Can be null.
+     * @param progress Receives the number of rows written. Must not be null.
+     * @param <R>      The row type.
+     * @return A future completed with the targets once every file has been written.
+     * @throws IllegalArgumentException If there are no targets, or an export type or target is null.
+     */
+    <R> CompletableFuture<Map<ExportType, Path>> exportAsync(final List<? extends R> rows,
+                                                             final ExportSchema<R> schema,
+                                                             final Map<ExportType, Path> targets,
+                                                             final ChartImage chart,
+                                                             final ProgressListener progress);
+
+    /**
+     * Exports individual transactions, each with its category, to a CSV, XLSX or PDF file.
+     * <p>
+     * Records are written as they are taken from the stream, so a stream from
+     * {@link CsvParserService#stream(java.io.InputStream)} is exported without ever holding all records in memory.
+     * The stream is consumed but not closed.
+     * </p>
+     *
+     * @param records     The transactions to export. Must not be null.
+     * @param categoriser Assigns each transaction its category, e.g. {@link AnalysisService#categoriser()}. Must not be null.
+     * @param target      The target file path where the exported file will be written. Must not be null.
+     * @param type        The type of export to perform ({@link ExportType}). Must not be null.
+     * @param gzip        Whether to GZIP-compress a CSV file; ignored for XLSX and PDF.
+     * @return The number of transactions written.
+     * @throws IOException              If there is an error writing to the target file.
+     * @throws IllegalArgumentException If the export type is null.
+     */
+    long exportTransactions(final Stream<DataRecord> records,
+                            final Function<? super DataRecord, String> categoriser,
+                            final Path target,
+                            final ExportType type,
+                            final boolean gzip) throws IOException;
 }
@@ -1,40 +1,86 @@
 package be.jensberckmoes.insightfx.service;
 
 import be.jensberckmoes.insightfx.model.CsvDelimiter;
+import be.jensberckmoes.insightfx.model.DataRecord;
+import be.jensberckmoes.insightfx.model.ExportSchema;
 import be.jensberckmoes.insightfx.model.ExportType;
 import be.jensberckmoes.insightfx.model.ExportableRow;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
-import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.image.BufferedImage;
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.function.Consumer;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * Implementation of {@link ExportService} providing CSV, European CSV, and PDF export capabilities.
+ * Implementation of {@link ExportService} providing CSV, European CSV, XLSX and PDF export capabilities.
+ *
+ * <p>Asynchronous exports run each format on its own virtual thread. Nothing is shared between exports except
+ * immutable rows and charts, so any number can run at once.</p>
  */
 
 public class ExportServiceImpl implements ExportService {
     private static final Logger log = LoggerFactory.getLogger(ExportServiceImpl.class);
-    private static final PDFont FONT_REGULAR = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
-    private static final PDFont FONT_BOLD = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+    private static final ThreadFactory EXPORT_THREADS = Thread.ofVirtual().name("insightfx-export-", 0).factory();
+    private static final float IMAGE_SCALE = 0.4f;
+    private static final float PAGE_TOP = 750;
+    private static final float PAGE_BOTTOM = 50;
+    private static final float ROW_HEIGHT = 20;
+    private static final float FONT_SIZE = 12;
+    private static final float TABLE_LEFT = 50;
+    private static final float TABLE_RIGHT = PDRectangle.LETTER.getWidth() - 50;
+    private static final float CELL_PADDING = 6;
+    /**
+     * Narrow columns get a smaller font, so a date or an amount still fits: at most one point per this many
+     * points of column width.
+     */
+    private static final float COLUMN_WIDTH_PER_FONT_POINT = 7;
+    /**
+     * Marks a text that was cut off; three dots, since the standard fonts' text extraction drops the ellipsis.
+     */
+    private static final String ELLIPSIS = "...";
+    private static final String SUMMARY_TITLE = "InsightFX Export Summary";
+    private static final String TRANSACTIONS_TITLE = "InsightFX Transactions";
+    /**
+     * Above this many rows a PDF is buffered in a temporary file instead of in memory.
+     */
+    private static final int LARGE_PDF_ROWS = 1_000;
+    private static final int CSV_BUFFER_CHARS = 1 << 13;
+    private static final int TRANSACTION_BUFFER_CHARS = 1 << 18;
+    private static final int GZIP_BUFFER_BYTES = 1 << 16;
 
     /**
      * {@inheritDoc}
@@ -43,17 +89,103 @@ public class ExportServiceImpl implements ExportService {
     public void export(final List<? extends ExportableRow> rows,
                        final Path targetFile,
                        final ExportType exportType) throws IOException {
-        export(rows, targetFile, exportType, null);
+        exportWithChart(rows, targetFile, exportType, null);
     }
 
     /**
      * {@inheritDoc}
+     *
+     * <p>The image is drawn at 0.4 point per pixel, and only encoded when exporting to PDF.</p>
      */
     @Override
     public void export(final List<? extends ExportableRow> rows,
                        final Path targetFile,
                        final ExportType exportType,
                        final BufferedImage chartImage) throws IOException {
+        final boolean drawn = exportType == ExportType.PDF && Objects.nonNull(chartImage) && !rows.isEmpty();
+        exportWithChart(rows, targetFile, exportType, drawn ? ChartImage.encode(chartImage, chartImage.getWidth() * IMAGE_SCALE) : null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void exportWithChart(final List<? extends ExportableRow> rows,
+                                final Path targetFile,
+                                final ExportType exportType,
+                                final ChartImage chart) throws IOException {
+        export(rows, ExportSchema.ofRowMaps(getCsvHeaders()), targetFile, exportType, chart);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <R> void export(final List<? extends R> rows,
+                           final ExportSchema<R> schema,
+                           final Path targetFile,
+                           final ExportType exportType,
+                           final ChartImage chart) throws IOException {
+        exportFile(rows, schema, targetFile, exportType, chart, ExportJob.NONE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <R> CompletableFuture<Map<ExportType, Path>> exportAsync(final List<? extends R> rows,
+                                                                    final ExportSchema<R> schema,
+                                                                    final Map<ExportType, Path> targets,
+                                                                    final ChartImage chart,
+                                                                    final ProgressListener progress) {
+        if (Objects.isNull(targets) || targets.isEmpty()) throw new IllegalArgumentException("No export targets");
+        for (final Map.Entry<ExportType, Path> target : targets.entrySet()) {
+            if (Objects.isNull(target.getKey()) || Objects.isNull(target.getValue())) {
+                throw new IllegalArgumentException("Unsupported export target: " + target);
+            }
+        }
+        final Map<ExportType, Path> files = Map.copyOf(targets);
+        final List<? extends R> snapshot = List.copyOf(rows);
+        final CompletableFuture<Map<ExportType, Path>> result = new CompletableFuture<>();
+        final ExportJob job = new ExportJob(result, progress);
+        log.info("Starting asynchronous export of {} rows to {}", snapshot.size(), files);
+
+        final CompletableFuture<?>[] writers = files.entrySet().stream()
+                .map(target -> CompletableFuture.runAsync(() -> {
+                    try {
+                        exportFile(snapshot, schema, target.getValue(), target.getKey(), chart, job);
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, task -> EXPORT_THREADS.newThread(task).start()).whenComplete((_, e) -> {
+                    if (Objects.nonNull(e)) job.stop(e);
+                }))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(writers).whenComplete((_, _) -> {
+            if (!job.isStopped()) {
+                result.complete(files);
+                return;
+            }
+            files.values().forEach(ExportServiceImpl::deletePartialFile);
+            result.completeExceptionally(job.failure());
+        });
+        return result;
+    }
+
+    private static void deletePartialFile(final Path file) {
+        try {
+            if (Files.deleteIfExists(file)) log.info("Deleted partial export {}", file);
+        } catch (final IOException e) {
+            log.warn("Could not delete partial export {}: {}", file, e.getMessage());
+        }
+    }
+
+    private <R> void exportFile(final List<? extends R> rows,
+                                final ExportSchema<R> schema,
+                                final Path targetFile,
+                                final ExportType exportType,
+                                final ChartImage chart,
+                                final ExportJob job) throws IOException {
         if (Objects.isNull(exportType)) {
             log.error("Export type is null for target file: {}", targetFile);
             throw new IllegalArgumentException("Unsupported export type");
@@ -62,20 +194,105 @@ public class ExportServiceImpl implements ExportService {
                 exportType, targetFile, rows.size());
         try {
             switch (exportType) {
-                case CSV -> exportCsv(rows, targetFile, CsvDelimiter.COMMA);
-                case PDF -> exportPdf(rows, targetFile, chartImage);
-                case EUROPEAN_CSV -> exportCsv(rows, targetFile, CsvDelimiter.SEMICOLON);
+                case CSV, EUROPEAN_CSV, XLSX -> exportTable(rows, schema, targetFile, exportType, job.counter());
+                case PDF -> exportPdf(rows, schema, targetFile, chart, job.counter());
                 default -> {
                     log.error("Unsupported export type: {}", exportType);
                     throw new IllegalArgumentException("Unsupported export type: " + exportType);
                 }
             }
             log.info("Export completed successfully: {}", targetFile);
+        } catch (final CancellationException e) {
+            log.info("Export to {} cancelled", targetFile);
+            throw e;
         } catch (final IOException | RuntimeException e) {
             log.error("Failed to export file {}: {}", targetFile, e.getMessage(), e);
             throw e;
         }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The file is written through a {@link FileChannel} behind a {@value #TRANSACTION_BUFFER_CHARS}-character
+     * row writer. CSV fields are quoted when they contain the delimiter, a quote or a line break, as descriptions
+     * often do. An XLSX file is a zip already, so it is never GZIP-compressed. A PDF lists the transactions in a
+     * table with a column per field; it is buffered in a temporary file, since the number of transactions isn't
+     * known up front, and never GZIP-compressed either.</p>
+     */
+    @Override
+    public long exportTransactions(final Stream<DataRecord> records,
+                                   final Function<? super DataRecord, String> categoriser,
+                                   final Path target,
+                                   final ExportType type,
+                                   final boolean gzip) throws IOException {
+        if (Objects.isNull(type)) throw new IllegalArgumentException("Unsupported export type");
+        log.info("Starting transaction export: type={}, target={}, gzip={}", type, target, gzip);
+        final long start = System.currentTimeMillis();
+        final ExportSchema<DataRecord> schema = ExportSchema.<DataRecord>builder()
+                .date("Date", DataRecord::getCurrencyDate)
+                .text("Description", DataRecord::getDescription)
+                .decimal("Amount", DataRecord::getAmount)
+                .text("Category", categoriser)
+                .text("Comments", DataRecord::getComments)
+                .text("Statement", DataRecord::getStatementNumber)
+                .date("Booking date", DataRecord::getBookingDate)
+                .text("Counterparty", DataRecord::getCounterparty)
+                .build();
+        long count = 0;
+        try {
+            if (type == ExportType.PDF) {
+                count = writePdf(records.iterator(), schema, target, TRANSACTIONS_TITLE, null, true, ExportJob.NONE.counter());
+            } else {
+                try (final BufferedRowWriter writer = openRowWriter(
+                        openTransactionStream(target, gzip && type != ExportType.XLSX), type, true, TRANSACTION_BUFFER_CHARS)) {
+                    writer.writeHeaders(schema.headers());
+                    final Iterator<DataRecord> iterator = records.iterator();
+                    while (iterator.hasNext()) {
+                        writer.writeRow(schema, iterator.next());
+                        count++;
+                    }
+                }
+            }
+        } catch (final IOException | RuntimeException e) {
+            log.error("Failed to export transactions to {}: {}", target, e.getMessage(), e);
+            throw e;
+        }
+        log.info("Exported {} transactions to {} in {} ms", count, target, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    private static OutputStream openTransactionStream(final Path target, final boolean gzip) throws IOException {
+        final FileChannel channel = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        OutputStream out = Channels.newOutputStream(channel);
+        try {
+            if (gzip) out = new GZIPOutputStream(out, GZIP_BUFFER_BYTES);
+        } catch (final IOException e) {
+            out.close();
+            throw e;
+        }
+        return out;
+    }
 
+    /**
+     * Opens the row writer for a tabular export type.
+     *
+     * @param out         the file to write; closed with the writer
+     * @param type        CSV, European CSV or XLSX
+     * @param quote       whether CSV fields that need it are quoted
+     * @param bufferChars size of the writer's buffer
+     * @return the writer
+     * @throws IOException if the output can't be started
+     */
+    private static BufferedRowWriter openRowWriter(final OutputStream out, final ExportType type,
+                                                   final boolean quote, final int bufferChars) throws IOException {
+        return switch (type) {
+            case CSV -> new CsvRowWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), CsvDelimiter.COMMA, quote, bufferChars);
+            case EUROPEAN_CSV -> new CsvRowWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), CsvDelimiter.SEMICOLON, quote, bufferChars);
+            case XLSX -> new XlsxRowWriter(out, bufferChars, XlsxRowWriter.MAX_SHEET_ROWS);
+            case PDF -> throw new IllegalArgumentException("PDF is not a tabular export type");
+        };
     }
 
     /**
@@ -88,98 +305,62 @@ public class ExportServiceImpl implements ExportService {
     }
 
     /**
-     * Writes the list of rows to a CSV file using the given delimiter.
+     * Writes the list of rows to a CSV or XLSX file.
      *
      * @param rows       the data to export
-     * @param targetFile the target CSV file path
-     * @param delimiter  the CSV delimiter to use
+     * @param schema     the columns to write
+     * @param targetFile the target file path
+     * @param type       CSV, European CSV or XLSX
+     * @param counter    counts the rows written
      * @throws IOException if writing to file fails
      */
-    private void exportCsv(final List<? extends ExportableRow> rows, final Path targetFile, final CsvDelimiter delimiter) throws IOException {
+    private <R> void exportTable(final List<? extends R> rows, final ExportSchema<R> schema,
+                                 final Path targetFile, final ExportType type,
+                                 final ExportJob.RowCounter counter) throws IOException {
         final long start = System.currentTimeMillis();
         if (rows.isEmpty()) {
-            log.warn("CSV export called with empty row list: {}", targetFile);
+            log.warn("{} export called with empty row list: {}", type, targetFile);
             return;
         }
-        final List<String> headers = getCsvHeaders();
-        if (log.isDebugEnabled()) {
-            log.debug("CSV headers: {}", headers);
-            rows.stream().limit(3).forEach(row -> log.debug("Sample row: {}", row.toRow()));
-        }
+        log.debug("{} headers: {}", type, schema.headers());
 
-        try (final BufferedWriter writer = Files.newBufferedWriter(targetFile)) {
-            writer.write(String.join(delimiter.getSymbol(), headers));
-            writer.newLine();
-
-            rows.stream()
-                    .map(ExportableRow::toRow)
-                    .map(mapRowToCsvLine(delimiter, headers))
-                    .forEach(writeCsvLine(writer));
+        try (final BufferedRowWriter writer = openRowWriter(Files.newOutputStream(targetFile), type, false, CSV_BUFFER_CHARS)) {
+            writer.writeHeaders(schema.headers());
+            for (final R row : rows) {
+                writer.writeRow(schema, row);
+                counter.rowWritten();
+            }
         }
-        log.info("CSV export finished: {}", targetFile);
-        log.info("Exported {} rows to {} in {} ms for CSV", rows.size(), targetFile, System.currentTimeMillis() - start);
+        counter.finish();
+        log.info("{} export finished: {}", type, targetFile);
+        log.info("Exported {} rows to {} in {} ms for {}", rows.size(), targetFile, System.currentTimeMillis() - start, type);
     }
 
     /**
-     * Returns a function that maps a row's key-value pairs to a CSV line string.
+     * Writes the given rows to a PDF document, optionally including a chart.
      *
-     * @param delimiter the CSV delimiter
-     * @param headers   the CSV headers
-     * @return function mapping a row map to CSV line
-     */
-    private static Function<Map<String, Object>, String> mapRowToCsvLine(final CsvDelimiter delimiter, final List<String> headers) {
-        return rowMap -> headers.stream()
-                .map(h -> Objects.toString(rowMap.get(h), ""))
-                .collect(Collectors.joining(delimiter.getSymbol()));
-    }
-
-    /**
-     * Returns a consumer that writes a CSV line to the provided BufferedWriter.
-     *
-     * @param writer BufferedWriter to write lines to
-     * @return consumer that writes each line
-     */
-    private static Consumer<String> writeCsvLine(final BufferedWriter writer) {
-        return line -> {
-            try {
-                writer.write(line);
-                writer.newLine();
-            } catch (final IOException e) {
-                throw new UncheckedIOException(e);
-            }
-        };
-    }
-
-    /**
-     * Writes the given rows to a PDF document, optionally including a chart image.
+     * <p>Rows continue on a new page when a page is full, each page starting with the column headers. A page's
+     * content is written out as soon as the page is full. For large reports the document is buffered in a
+     * temporary file and saved without object streams, so the heap only holds the page being written.</p>
      *
      * @param rows           data to write
+     * @param schema         the columns to write, each shown in a column of its own
      * @param targetFile     target PDF file path
-     * @param chartImage     optional chart image
+     * @param chart          optional chart
+     * @param counter        counts the rows written
      */
-    private void exportPdf(final List<? extends ExportableRow> rows, final Path targetFile, final BufferedImage chartImage) {
+    private <R> void exportPdf(final List<? extends R> rows, final ExportSchema<R> schema,
+                               final Path targetFile, final ChartImage chart, final ExportJob.RowCounter counter) {
         final long start = System.currentTimeMillis();
         if (rows.isEmpty()) {
             log.warn("PDF export called with empty row list: {}", targetFile);
             return;
         }
-        log.debug("PDF export rows count: {}, chart included: {}", rows.size(), Objects.nonNull(chartImage));
+        log.debug("PDF export rows count: {}, chart included: {}", rows.size(), Objects.nonNull(chart));
 
-        try (final PDDocument document = new PDDocument()) {
-            final PDPage page = new PDPage();
-            document.addPage(page);
-
-            try (final PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
-
-                float yPos = 750;
-                yPos = writeTitleWithSpaceBelow(contentStream, yPos);
-                yPos = drawChartIfExists(document, contentStream, chartImage, yPos);
-
-                writeRows(rows, contentStream, yPos);
-            }
-
-            document.save(targetFile.toFile());
-            log.info("PDF export finished: {}", targetFile);
+        try {
+            writePdf(rows.iterator(), schema, targetFile, SUMMARY_TITLE, chart, rows.size() > LARGE_PDF_ROWS, counter);
+            counter.finish();
             log.info("Exported {} rows to {} in {} ms for PDF", rows.size(), targetFile, System.currentTimeMillis() - start);
         } catch (final IOException e) {
             log.error("Error exporting PDF to {}: {}", targetFile, e.getMessage(), e);
@@ -187,86 +368,232 @@ public class ExportServiceImpl implements ExportService {
         }
     }
 
+    /**
+     * Writes a PDF with a title, an optional chart and a table of the rows.
+     *
+     * @param rows       the rows to write
+     * @param schema     the columns of the table
+     * @param targetFile target PDF file path
+     * @param title      the title above the table
+     * @param chart      optional chart
+     * @param large      whether to buffer the document in a temporary file instead of in memory
+     * @param counter    counts the rows written
+     * @return the number of rows written
+     * @throws IOException if writing fails
+     */
+    private static <R> long writePdf(final Iterator<? extends R> rows, final ExportSchema<R> schema,
+                                     final Path targetFile, final String title, final ChartImage chart,
+                                     final boolean large, final ExportJob.RowCounter counter) throws IOException {
+        try (final PDDocument document = new PDDocument(large
+                ? IOUtils.createTempFileOnlyStreamCache() : IOUtils.createMemoryOnlyStreamCache())) {
+            final long rowCount;
+            final int pageCount;
+            try (final PdfPages pages = new PdfPages(document, schema.headers())) {
+                float yPos = PAGE_TOP;
+                yPos = writeTitleWithSpaceBelow(pages.contentStream(), pages.bold, title, yPos);
+                yPos = drawChartIfExists(document, pages.contentStream(), chart, yPos);
+
+                rowCount = writeRows(rows, schema, pages, yPos, counter);
+                pageCount = pages.count();
+            }
+
+            document.save(targetFile.toFile(), large ? CompressParameters.NO_COMPRESSION : CompressParameters.DEFAULT_COMPRESSION);
+            log.info("PDF export finished: {} ({} pages)", targetFile, pageCount);
+            return rowCount;
+        }
+    }
+
     /**
      * Writes the PDF title and returns the new Y position after spacing.
      *
      * @param contentStream the content stream of the PDF
+     * @param font          the title font
+     * @param title         the title
      * @param yPos          current vertical position
      * @return new Y position after title
      * @throws IOException if writing to PDF fails
      */
     private static float writeTitleWithSpaceBelow(final PDPageContentStream contentStream,
+                                                  final PDFont font,
+                                                  final String title,
                                                   final float yPos) throws IOException {
         contentStream.beginText();
-        contentStream.setFont(ExportServiceImpl.FONT_BOLD, 18);
-        contentStream.newLineAtOffset(50, yPos);
-        contentStream.showText("InsightFX Export Summary");
+        contentStream.setFont(font, 18);
+        contentStream.newLineAtOffset(TABLE_LEFT, yPos);
+        contentStream.showText(title);
         contentStream.endText();
         return moveDown(yPos, 50);
     }
 
     /**
-     * Draws a chart image on the PDF if the path exists.
+     * Draws the chart on the PDF if there is one, at the size it was encoded for.
      *
      * @param document       the PDF document
      * @param contentStream  the content stream
-     * @param chartImage     the chart image
+     * @param chart          the encoded chart
      * @param yPos           current vertical position
      * @return new Y position after drawing chart
      * @throws IOException if drawing fails
      */
     private static float drawChartIfExists(final PDDocument document,
                                            final PDPageContentStream contentStream,
-                                           final BufferedImage chartImage,
+                                           final ChartImage chart,
                                            final float yPos) throws IOException {
-        if (Objects.nonNull(chartImage)) {
+        if (Objects.nonNull(chart)) {
             log.debug("Including chart in PDF");
-            final PDImageXObject chart = LosslessFactory.createFromImage(document, chartImage);
-            final float scale = 0.4f;
-            final float width = chart.getWidth() * scale;
-            final float height = chart.getHeight() * scale;
-            contentStream.drawImage(chart, 50, yPos - height, width, height);
-            return moveDown(yPos, height + 30);
+            final PDImageXObject image = chart.toPdfImage(document);
+            contentStream.drawImage(image, 50, yPos - chart.height(), chart.width(), chart.height());
+            return moveDown(yPos, chart.height() + 30);
         }
         return yPos;
     }
 
     /**
-     * Writes each row's data to the PDF content stream.
+     * Writes each row's data to the PDF, below the column headers.
      *
-     * @param rows        the data rows
-     * @param contentStream the PDF content stream
-     * @param startY      starting Y position
+     * @param rows   the data rows
+     * @param schema the columns to write
+     * @param pages  the pages to write on
+     * @param startY  starting Y position on the current page
+     * @param counter counts the rows written
+     * @return the number of rows written
      * @throws IOException if writing fails
      */
-    private static void writeRows(final List<? extends ExportableRow> rows,
-                                  final PDPageContentStream contentStream,
-                                  final float startY) throws IOException {
-        float xCategory = 50;
-        float xAmount = 200;
-        float fontSize = 12;
-        float y = startY;
-
-        contentStream.setFont(ExportServiceImpl.FONT_REGULAR, fontSize);
-
-        for (final ExportableRow row : rows) {
-            final Map<String, Object> data = row.toRow();
-            final String category = Objects.toString(data.get("Category"), "");
-            final String amount = Objects.toString(data.get("Amount"), "");
-
-            contentStream.beginText();
-            contentStream.newLineAtOffset(xCategory, y);
-            contentStream.showText(category);
-            contentStream.endText();
-
-            float textWidthForAligningRight = ExportServiceImpl.FONT_REGULAR.getStringWidth(amount) / 1000 * fontSize;
-            contentStream.beginText();
-            contentStream.newLineAtOffset(xAmount - textWidthForAligningRight, y);
-            contentStream.showText(amount);
-            contentStream.endText();
-
-            y = moveDown(y, 20);
+    private static <R> long writeRows(final Iterator<? extends R> rows,
+                                      final ExportSchema<R> schema,
+                                      final PdfPages pages,
+                                      final float startY,
+                                      final ExportJob.RowCounter counter) throws IOException {
+        pages.startTable(startY);
+        final PdfCells cells = new PdfCells(schema.headers().size());
+        long count = 0;
+        while (rows.hasNext()) {
+            cells.clear();
+            schema.write(rows.next(), cells);
+            pages.writeRow(cells.values, cells.numeric);
+            counter.rowWritten();
+            count++;
         }
+        pages.finishTable();
+        return count;
+    }
+
+    /**
+     * One export, possibly of several formats: adds up the rows written, reports progress and stops the writers
+     * once the export is cancelled or one of its formats fails.
+     */
+    private static final class ExportJob {
+        /**
+         * A job for a single synchronous export: it reports nothing and is never cancelled.
+         */
+        private static final ExportJob NONE = new ExportJob(new CompletableFuture<>(), ProgressListener.NONE);
+
+        private final CompletableFuture<?> result;
+        private final ProgressListener progress;
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private volatile boolean stopped;
+
+        private ExportJob(final CompletableFuture<?> result, final ProgressListener progress) {
+            this.result = result;
+            this.progress = Objects.requireNonNull(progress);
+        }
+
+        private RowCounter counter() {
+            return new RowCounter();
+        }
+
+        /**
+         * Stops the other formats after one failed. The first failure other than a cancellation is kept.
+         */
+        private void stop(final Throwable error) {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (cause instanceof final UncheckedIOException unchecked) cause = unchecked.getCause();
+            if (!(cause instanceof CancellationException)) failure.compareAndSet(null, cause);
+            stopped = true;
+        }
+
+        private boolean isStopped() {
+            return stopped || result.isCancelled();
+        }
+
+        private Throwable failure() {
+            return Objects.requireNonNullElseGet(failure.get(), () -> new CancellationException("Export cancelled"));
+        }
+
+        private void checkCancelled() {
+            if (isStopped()) throw new CancellationException("Export cancelled");
+        }
+
+        /**
+         * Counts the rows of one format, reporting them every {@value ProgressListener#REPORT_INTERVAL_ROWS} rows.
+         */
+        private final class RowCounter {
+            private int pending;
+
+            private void rowWritten() {
+                checkCancelled();
+                if (++pending == ProgressListener.REPORT_INTERVAL_ROWS) report();
+            }
+
+            private void finish() {
+                report();
+            }
+
+            private void report() {
+                progress.onProgress(rows.addAndGet(pending), 0);
+                pending = 0;
+            }
+        }
+    }
+
+    /**
+     * Collects the text of one row's cells, and which of them are numbers; PDFBox draws strings, so a PDF row
+     * can't avoid them.
+     */
+    private static final class PdfCells implements ExportSchema.FieldWriter {
+        private final String[] values;
+        private final boolean[] numeric;
+        private int next;
+
+        private PdfCells(final int columns) {
+            values = new String[columns];
+            numeric = new boolean[columns];
+        }
+
+        private void clear() {
+            next = 0;
+            Arrays.fill(numeric, false);
+        }
+
+        @Override
+        public void text(final CharSequence value) {
+            values[next++] = Objects.isNull(value) ? "" : value.toString();
+        }
+
+        @Override
+        public void decimal(final long unscaled, final int scale) {
+            decimal(BigDecimal.valueOf(unscaled, scale));
+        }
+
+        @Override
+        public void decimal(final BigDecimal value) {
+            numeric[next] = true;
+            text(Objects.isNull(value) ? null : value.toPlainString());
+        }
+    }
+
+    /**
+     * Writes a text left-aligned at x, or right-aligned when {@code alignRight} is set.
+     */
+    private static void showText(final PDPageContentStream contentStream, final PDFont font, final float fontSize,
+                                 final String text, final float x, final float y, final boolean alignRight) throws IOException {
+        final float offset = alignRight ? font.getStringWidth(text) / 1000 * fontSize : 0;
+        contentStream.beginText();
+        contentStream.setFont(font, fontSize);
+        contentStream.newLineAtOffset(x - offset, y);
+        contentStream.showText(text);
+        contentStream.endText();
     }
 
     /**
@@ -280,4 +607,121 @@ public class ExportServiceImpl implements ExportService {
         return y - amount;
     }
 
+    /**
+     * The pages of a PDF table: starts a new page, with the column headers, whenever a row doesn't fit.
+     * Closing a page's content stream writes it to the document's stream cache, so finished pages don't stay on the heap.
+     * The fonts belong to the document: PDFBox caches glyph widths in them, unsynchronised.
+     *
+     * <p>The columns share the width of the page equally, with a smaller font when they are narrow; a text that
+     * doesn't fit its column is cut off with three dots. Numbers are right-aligned, and so is the header of a
+     * column whose first cell is a number: the headers are drawn just before the first row.</p>
+     */
+    private static final class PdfPages implements AutoCloseable {
+        private final PDDocument document;
+        private final String[] headers;
+        private final float columnWidth;
+        private final float fontSize;
+        private final PDFont regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        private final PDFont bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+        private PDPageContentStream contentStream;
+        private boolean[] headerAlignment;
+        private boolean headersPending;
+        private float y;
+        private int count;
+
+        private PdfPages(final PDDocument document, final List<String> headers) throws IOException {
+            if (headers.isEmpty()) throw new IllegalArgumentException("A PDF table needs at least one column");
+            this.document = document;
+            this.headers = headers.toArray(String[]::new);
+            this.columnWidth = (TABLE_RIGHT - TABLE_LEFT) / headers.size();
+            this.fontSize = Math.min(FONT_SIZE, columnWidth / COLUMN_WIDTH_PER_FONT_POINT);
+            newPage();
+        }
+
+        private PDPageContentStream contentStream() {
+            return contentStream;
+        }
+
+        private int count() {
+            return count;
+        }
+
+        private void startTable(final float startY) throws IOException {
+            y = startY;
+            if (y - ROW_HEIGHT < PAGE_BOTTOM) newPage();
+            headersPending = true;
+        }
+
+        /**
+         * @param cells     the text of each cell
+         * @param alignRight which cells are numbers
+         */
+        private void writeRow(final String[] cells, final boolean[] alignRight) throws IOException {
+            if (Objects.isNull(headerAlignment)) headerAlignment = alignRight.clone();
+            if (y < PAGE_BOTTOM) {
+                newPage();
+                headersPending = true;
+            }
+            if (headersPending) {
+                drawRow(bold, headers, headerAlignment);
+                headersPending = false;
+            }
+            drawRow(regular, cells, alignRight);
+        }
+
+        /**
+         * Draws the headers of a table without rows.
+         */
+        private void finishTable() throws IOException {
+            if (headersPending) drawRow(bold, headers, new boolean[headers.length]);
+            headersPending = false;
+        }
+
+        private void drawRow(final PDFont font, final String[] cells, final boolean[] alignRight) throws IOException {
+            for (int column = 0; column < cells.length; column++) {
+                final float left = TABLE_LEFT + column * columnWidth;
+                final String text = fit(font, cells[column], columnWidth - CELL_PADDING);
+                showText(contentStream, font, fontSize, text,
+                        alignRight[column] ? left + columnWidth - CELL_PADDING : left, y, alignRight[column]);
+            }
+            y = moveDown(y, ROW_HEIGHT);
+        }
+
+        /**
+         * Cuts a text off with three dots when it is wider than the given width.
+         */
+        private String fit(final PDFont font, final String text, final float width) throws IOException {
+            if (width(font, text) <= width) return text;
+            // Glyph widths add up, so the text is measured once, character by character.
+            final float available = width - width(font, ELLIPSIS);
+            float used = 0;
+            int end = 0;
+            while (end < text.length()) {
+                final int next = end + Character.charCount(text.codePointAt(end));
+                used += width(font, text.substring(end, next));
+                if (used > available) break;
+                end = next;
+            }
+            return text.substring(0, end).stripTrailing() + ELLIPSIS;
+        }
+
+        private float width(final PDFont font, final String text) throws IOException {
+            return font.getStringWidth(text) / 1000 * fontSize;
+        }
+
+        private void newPage() throws IOException {
+            close();
+            final PDPage page = new PDPage();
+            document.addPage(page);
+            contentStream = new PDPageContentStream(document, page);
+            y = PAGE_TOP;
+            count++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (Objects.nonNull(contentStream)) contentStream.close();
+            contentStream = null;
+        }
+    }
 }
@@ -0,0 +1,249 @@
+package be.jensberckmoes.insightfx.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Case-insensitive multi-keyword matcher backed by an Aho-Corasick automaton.
+ *
+ * <p>The keyword table is compiled once into a deterministic finite automaton, so finding the
+ * category for a description is a single pass over its characters, independent of the number of
+ * keywords.</p>
+ *
+ * <p>When several keywords occur in the same description the winner is the keyword that was
+ * declared first: categories in map iteration order, keywords in list order. This keeps the
+ * result stable across runs, whatever order the keywords appear in within the description.</p>
+ *
+ * <p>Instances are immutable and safe to share between threads.</p>
+ */
+public final class KeywordMatcher {
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+    private static final int ASCII_LIMIT = 128;
+
+    private final String[] categories;
+    private final int[] patternCategory;
+    private final int[] asciiClass;
+    private final char[] extendedChars;
+    private final int[] extendedClass;
+    private final int alphabetSize;
+    private final int[] transitions;
+    private final int[] bestPattern;
+
+    private KeywordMatcher(final String[] categories,
+                           final int[] patternCategory,
+                           final int[] asciiClass,
+                           final char[] extendedChars,
+                           final int[] extendedClass,
+                           final int alphabetSize,
+                           final int[] transitions,
+                           final int[] bestPattern) {
+        this.categories = categories;
+        this.patternCategory = patternCategory;
+        this.asciiClass = asciiClass;
+        this.extendedChars = extendedChars;
+        this.extendedClass = extendedClass;
+        this.alphabetSize = alphabetSize;
+        this.transitions = transitions;
+        this.bestPattern = bestPattern;
+    }
+
+    /**
+     * Compiles a keyword table into a matcher.
+     *
+     * @param keywordsByCategory keywords per category; iteration order defines match priority
+     * @return the compiled matcher
+     * @throws IllegalArgumentException if a keyword is null or blank
+     */
+    public static KeywordMatcher compile(final Map<String, List<String>> keywordsByCategory) {
+        Objects.requireNonNull(keywordsByCategory, "keywordsByCategory");
+
+        final List<String> categoryNames = new ArrayList<>();
+        final List<char[]> patterns = new ArrayList<>();
+        final List<Integer> owners = new ArrayList<>();
+        for (final var entry : keywordsByCategory.entrySet()) {
+            final int categoryIndex = categoryNames.size();
+            categoryNames.add(entry.getKey());
+            for (final String keyword : entry.getValue()) {
+                if (Objects.isNull(keyword) || keyword.isBlank()) {
+                    throw new IllegalArgumentException("Keyword for category '" + entry.getKey() + "' can't be empty");
+                }
+                patterns.add(lowerCase(keyword));
+                owners.add(categoryIndex);
+            }
+        }
+        return build(categoryNames, patterns, owners);
+    }
+
+    /**
+     * Compiles a list of keywords, each forming its own group, for use with {@link #matchIndex(CharSequence)}.
+     *
+     * @param keywords the keywords; list order defines match priority
+     * @return the compiled matcher
+     * @throws IllegalArgumentException if a keyword is null or blank
+     */
+    public static KeywordMatcher compile(final List<String> keywords) {
+        final List<char[]> patterns = new ArrayList<>();
+        final List<Integer> owners = new ArrayList<>();
+        for (final String keyword : keywords) {
+            if (Objects.isNull(keyword) || keyword.isBlank()) {
+                throw new IllegalArgumentException("Keyword can't be empty");
+            }
+            owners.add(patterns.size());
+            patterns.add(lowerCase(keyword));
+        }
+        return build(new ArrayList<>(keywords), patterns, owners);
+    }
+
+    /**
+     * Returns the category of the highest-priority keyword found in the given text.
+     *
+     * @param text the text to scan; may be null
+     * @return the matching category, or {@code null} when no keyword occurs in the text
+     */
+    public String match(final CharSequence text) {
+        final int index = matchIndex(text);
+        return index < 0 ? null : categories[index];
+    }
+
+    /**
+     * Returns the position of the highest-priority group with a keyword in the given text: the index
+     * of the category in the compiled map, or of the keyword in the compiled list.
+     *
+     * @param text the text to scan; may be null
+     * @return the index, or -1 when no keyword occurs in the text
+     */
+    public int matchIndex(final CharSequence text) {
+        if (Objects.isNull(text)) return -1;
+
+        int state = 0;
+        int best = NO_MATCH;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            final int symbol = classOf(Character.toLowerCase(text.charAt(i)));
+            state = symbol < 0 ? 0 : transitions[state * alphabetSize + symbol];
+            final int candidate = bestPattern[state];
+            if (candidate < best) {
+                best = candidate;
+                if (best == 0) break;
+            }
+        }
+        return best == NO_MATCH ? -1 : patternCategory[best];
+    }
+
+    private int classOf(final char c) {
+        if (c < ASCII_LIMIT) return asciiClass[c];
+        final int index = Arrays.binarySearch(extendedChars, c);
+        return index < 0 ? -1 : extendedClass[index];
+    }
+
+    private static char[] lowerCase(final String keyword) {
+        final char[] chars = keyword.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return chars;
+    }
+
+    private static KeywordMatcher build(final List<String> categoryNames,
+                                        final List<char[]> patterns,
+                                        final List<Integer> owners) {
+        final Map<Character, Integer> alphabet = new HashMap<>();
+        for (final char[] pattern : patterns) {
+            for (final char c : pattern) {
+                alphabet.putIfAbsent(c, alphabet.size());
+            }
+        }
+        final int alphabetSize = Math.max(1, alphabet.size());
+
+        final int[] asciiClass = new int[ASCII_LIMIT];
+        Arrays.fill(asciiClass, -1);
+        final StringBuilder extended = new StringBuilder();
+        alphabet.forEach((c, symbol) -> {
+            if (c < ASCII_LIMIT) {
+                asciiClass[c] = symbol;
+            } else {
+                extended.append(c.charValue());
+            }
+        });
+        final char[] extendedChars = extended.toString().toCharArray();
+        Arrays.sort(extendedChars);
+        final int[] extendedClass = new int[extendedChars.length];
+        for (int i = 0; i < extendedChars.length; i++) {
+            extendedClass[i] = alphabet.get(extendedChars[i]);
+        }
+
+        // Trie: goto function with -1 for missing edges, output holds the best pattern ending in that state.
+        final List<int[]> trie = new ArrayList<>();
+        final List<Integer> output = new ArrayList<>();
+        trie.add(newRow(alphabetSize));
+        output.add(NO_MATCH);
+        for (int p = 0; p < patterns.size(); p++) {
+            int state = 0;
+            for (final char c : patterns.get(p)) {
+                final int symbol = alphabet.get(c);
+                if (trie.get(state)[symbol] < 0) {
+                    trie.get(state)[symbol] = trie.size();
+                    trie.add(newRow(alphabetSize));
+                    output.add(NO_MATCH);
+                }
+                state = trie.get(state)[symbol];
+            }
+            output.set(state, Math.min(output.get(state), p));
+        }
+
+        // Breadth-first construction of the failure links, folded directly into a dense transition table.
+        final int stateCount = trie.size();
+        final int[] transitions = new int[stateCount * alphabetSize];
+        final int[] failure = new int[stateCount];
+        final int[] bestPattern = new int[stateCount];
+        final int[] queue = new int[stateCount];
+        int head = 0;
+        int tail = 0;
+
+        bestPattern[0] = output.getFirst();
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            final int next = trie.getFirst()[symbol];
+            if (next < 0) {
+                transitions[symbol] = 0;
+            } else {
+                transitions[symbol] = next;
+                failure[next] = 0;
+                queue[tail++] = next;
+            }
+        }
+        while (head < tail) {
+            final int state = queue[head++];
+            bestPattern[state] = Math.min(output.get(state), bestPattern[failure[state]]);
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                final int next = trie.get(state)[symbol];
+                final int fallback = transitions[failure[state] * alphabetSize + symbol];
+                if (next < 0) {
+                    transitions[state * alphabetSize + symbol] = fallback;
+                } else {
+                    transitions[state * alphabetSize + symbol] = next;
+                    failure[next] = fallback;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        return new KeywordMatcher(
+                categoryNames.toArray(String[]::new),
+                owners.stream().mapToInt(Integer::intValue).toArray(),
+                asciiClass,
+                extendedChars,
+                extendedClass,
+                alphabetSize,
+                transitions,
+                bestPattern);
+    }
+
+    private static int[] newRow(final int alphabetSize) {
+        final int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
@@ -0,0 +1,283 @@
+package be.jensberckmoes.insightfx.service;
+
+import be.jensberckmoes.insightfx.model.TransactionIndex;
+import be.jensberckmoes.insightfx.model.TransactionTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+/**
+ * Loads several statement files at once, for example a folder of monthly exports, into one date-ordered table.
+ *
+ * <p>Every file is loaded on its own virtual thread. A semaphore limits how many files are read at the same
+ * time, so a folder of dozens of exports does not thrash the disk. The loaded tables are then merged with a
+ * k-way merge on the currency date: each table is put in date order first (exports are usually already
+ * sorted, either way), and rows with the same date keep the order of the files and of the rows within them.</p>
+ *
+ * <p>A file that fails to load does not stop the others; its error is reported in the {@link Result}.</p>
+ */
+public final class MultiStatementLoader {
+    private static final Logger log = LoggerFactory.getLogger(MultiStatementLoader.class);
+    private static final String CSV_EXTENSION = ".csv";
+
+    private final BiFunction<Path, ProgressListener, TransactionTable> loader;
+    private final int maxConcurrentReads;
+
+    /**
+     * @param loader             loads one file, reporting its progress to the given listener
+     * @param maxConcurrentReads how many files may be read at the same time; at least 1
+     */
+    public MultiStatementLoader(final BiFunction<Path, ProgressListener, TransactionTable> loader, final int maxConcurrentReads) {
+        if (maxConcurrentReads < 1) throw new IllegalArgumentException("At least one concurrent read is needed");
+        this.loader = Objects.requireNonNull(loader, "loader");
+        this.maxConcurrentReads = maxConcurrentReads;
+    }
+
+    /**
+     * Lists the statement files in a folder, by name; subfolders are not searched.
+     *
+     * @param folder the folder
+     * @return the CSV files in the folder
+     * @throws UncheckedIOException if the folder can't be listed
+     */
+    public static List<Path> statementFiles(final Path folder) {
+        try (final Stream<Path> files = Files.list(folder)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(CSV_EXTENSION))
+                    .sorted()
+                    .toList();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Loads and merges the given files.
+     *
+     * @param files    the statement files
+     * @param progress receives the rows and bytes loaded over all files; may cancel by throwing a
+     *                 {@link CancellationException}
+     * @return the merged transactions and the files that failed
+     * @throws CancellationException if the progress listener cancelled loading, or the thread was interrupted
+     */
+    public Result load(final List<Path> files, final ProgressListener progress) {
+        final Semaphore reads = new Semaphore(maxConcurrentReads);
+        final Totals totals = new Totals(progress);
+        final List<Future<TransactionTable>> futures = new ArrayList<>(files.size());
+        final List<TransactionTable> tables = new ArrayList<>(files.size());
+        final List<Failure> failures = new ArrayList<>();
+
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (final Path file : files) {
+                futures.add(executor.submit(() -> {
+                    reads.acquire();
+                    try {
+                        return loader.apply(file, totals.forFile());
+                    } finally {
+                        reads.release();
+                    }
+                }));
+            }
+            for (int i = 0; i < files.size(); i++) {
+                try {
+                    tables.add(futures.get(i).get());
+                } catch (final ExecutionException e) {
+                    if (e.getCause() instanceof CancellationException cancelled) {
+                        executor.shutdownNow();
+                        throw cancelled;
+                    }
+                    log.error("Failed to load {}: {}", files.get(i), e.getCause().getMessage(), e.getCause());
+                    failures.add(new Failure(files.get(i), e.getCause()));
+                } catch (final InterruptedException e) {
+                    // Closing the executor waits for every file: interrupt them first, so that files still being
+                    // hashed or parsed stop as well.
+                    executor.shutdownNow();
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Loading interrupted");
+                }
+            }
+        }
+
+        final TransactionTable merged = merge(tables);
+        log.info("Loaded {} transactions from {} files, {} failed", merged.size(), files.size(), failures.size());
+        return new Result(merged, failures);
+    }
+
+    /**
+     * Merges tables into one, ordered by currency date. Rows with the same date keep the order of the tables
+     * and of the rows within a table.
+     *
+     * @param tables the tables
+     * @return the merged table
+     */
+    public static TransactionTable merge(final List<TransactionTable> tables) {
+        if (tables.size() == 1 && isSorted(tables.getFirst())) return tables.getFirst();
+
+        final PriorityQueue<Cursor> queue = new PriorityQueue<>(Math.max(1, tables.size()),
+                Comparator.comparingInt(Cursor::epochDay).thenComparingInt(Cursor::source));
+        for (int i = 0; i < tables.size(); i++) {
+            final TransactionTable table = tables.get(i);
+            if (!table.isEmpty()) queue.add(new Cursor(i, table, dateOrder(table)));
+        }
+
+        final TransactionTable.Builder builder = TransactionTable.builder();
+        while (!queue.isEmpty()) {
+            final Cursor cursor = queue.poll();
+            builder.add(cursor.table, cursor.row());
+            if (cursor.advance()) queue.add(cursor);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Adds rows to indexed, date-ordered transactions, with the same result as {@link #merge(List)} of both tables.
+     *
+     * <p>Statements are usually appended in date order. When no added row lies before the last loaded one, the
+     * added rows are appended with {@link TransactionIndex#append(TransactionTable)}, which neither merges nor
+     * sorts the loaded rows again. Otherwise everything is merged and indexed anew.</p>
+     *
+     * @param loaded the index of the loaded transactions, in date order
+     * @param added  the transactions to add
+     * @return the index of all transactions; its date and amount indexes are built when the loaded ones were
+     */
+    public static TransactionIndex append(final TransactionIndex loaded, final TransactionTable added) {
+        final TransactionTable table = loaded.table();
+        final TransactionTable sorted = merge(List.of(added));
+        if (table.isEmpty() || sorted.isEmpty() || sorted.epochDay(0) >= table.epochDay(table.size() - 1)) {
+            return loaded.append(sorted);
+        }
+        log.debug("Appended transactions start before the loaded ones, merging all {} rows", table.size() + sorted.size());
+        return new TransactionIndex(merge(List.of(table, sorted)));
+    }
+
+    /**
+     * Returns the rows of a table in ascending date order, rows with the same date in table order.
+     */
+    private static int[] dateOrder(final TransactionTable table) {
+        final int size = table.size();
+        final int[] order = new int[size];
+        if (isSorted(table)) {
+            Arrays.setAll(order, row -> row);
+            return order;
+        }
+        // Date in the high half, row in the low half: sorting the keys sorts by date, then by row.
+        final long[] keys = new long[size];
+        for (int row = 0; row < size; row++) {
+            keys[row] = (long) table.epochDay(row) << 32 | row;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    private static boolean isSorted(final TransactionTable table) {
+        for (int row = 1; row < table.size(); row++) {
+            if (table.epochDay(row) < table.epochDay(row - 1)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * The merged transactions, and the files that could not be loaded.
+     *
+     * @param transactions the transactions of all loaded files, in date order
+     * @param failures     the files that failed, in the order they were given
+     */
+    public record Result(TransactionTable transactions, List<Failure> failures) {
+    }
+
+    /**
+     * A file that failed to load.
+     *
+     * @param file  the file
+     * @param error why it failed
+     */
+    public record Failure(Path file, Throwable error) {
+    }
+
+    /**
+     * Position in one table during the merge.
+     */
+    private static final class Cursor {
+        private final int source;
+        private final TransactionTable table;
+        private final int[] order;
+        private int position;
+
+        private Cursor(final int source, final TransactionTable table, final int[] order) {
+            this.source = source;
+            this.table = table;
+            this.order = order;
+        }
+
+        private int source() {
+            return source;
+        }
+
+        private int row() {
+            return order[position];
+        }
+
+        private int epochDay() {
+            return table.epochDay(row());
+        }
+
+        private boolean advance() {
+            return ++position < order.length;
+        }
+    }
+
+    /**
+     * Sums the progress of files that load concurrently.
+     */
+    private static final class Totals {
+        private final ProgressListener listener;
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+
+        private Totals(final ProgressListener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Returns a listener for one file, which turns the file's running totals into increments of the sum.
+         * A large file may report from several threads, hence the lock.
+         */
+        private ProgressListener forFile() {
+            final long[] reported = new long[2];
+            return (fileRows, fileBytes) -> {
+                final long totalRows;
+                final long totalBytes;
+                synchronized (reported) {
+                    totalRows = rows.addAndGet(fileRows - reported[0]);
+                    totalBytes = bytes.addAndGet(fileBytes - reported[1]);
+                    reported[0] = fileRows;
+                    reported[1] = fileBytes;
+                }
+                listener.onProgress(totalRows, totalBytes);
+            };
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package be.jensberckmoes.insightfx.service;
+
+import be.jensberckmoes.insightfx.exception.CsvParsingException;
+import be.jensberckmoes.insightfx.model.DataRecord;
+import be.jensberckmoes.insightfx.model.TransactionTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Parses a statement file on disk in parallel.
+ *
+ * <p>The file is memory-mapped and cut into byte ranges that each start on a real record boundary:</p>
+ * <ol>
+ *     <li>The body is divided into equally sized nominal ranges and every range counts its quotes and
+ *     line feeds in parallel.</li>
+ *     <li>A prefix over the quote parities tells whether a nominal boundary falls inside a quoted field,
+ *     so each boundary can be moved forward to the first line feed outside quotes.</li>
+ *     <li>The resulting ranges are decoded independently by {@link StatementCsvDecoder}, on the common
+ *     fork/join pool, and concatenated in file order.</li>
+ * </ol>
+ *
+ * <p>The quote parity assumes that quotes only enclose fields, as in the bank export. Line feeds are the
+ * only record terminators recognised for splitting; a file without them is parsed as one range.</p>
+ */
+public final class ParallelStatementParser {
+    private static final Logger log = LoggerFactory.getLogger(ParallelStatementParser.class);
+    private static final int MAX_MAPPED_RANGE = 256 * 1024 * 1024;
+    private static final int SCAN_WINDOW = 1024 * 1024;
+
+    private final int parallelism;
+    private final long minChunkBytes;
+    private final Predicate<String> filter;
+
+    /**
+     * @param parallelism   number of ranges per available core to aim for; at least 1
+     * @param minChunkBytes smallest range worth decoding on its own
+     * @param filter        records whose description fails this predicate are dropped
+     */
+    public ParallelStatementParser(final int parallelism, final long minChunkBytes, final Predicate<String> filter) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1");
+        if (minChunkBytes < 1) throw new IllegalArgumentException("Chunk size must be at least 1 byte");
+        this.parallelism = parallelism;
+        this.minChunkBytes = minChunkBytes;
+        this.filter = Objects.requireNonNull(filter, "filter");
+    }
+
+    /**
+     * Parses the given file.
+     *
+     * @param file the statement export
+     * @return the records in file order
+     * @throws CsvParsingException if the file can't be read or contains a malformed record
+     */
+    public List<DataRecord> parse(final Path file) {
+        return parse(file, Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Parses the given file, collecting every range into its own container and combining the containers
+     * in file order with the collector's combiner.
+     *
+     * @param file      the statement export
+     * @param collector the collector for the records of one range
+     * @param <A>       the collector's container type
+     * @param <R>       the result type
+     * @return the collected records
+     * @throws CsvParsingException if the file can't be read or contains a malformed record
+     */
+    public <A, R> R parse(final Path file, final Collector<DataRecord, A, R> collector) {
+        return parse(file, collector, ProgressListener.NONE);
+    }
+
+    /**
+     * Parses the given file like {@link #parse(Path, Collector)}, reporting the rows decoded and bytes read over
+     * all ranges. Ranges are decoded concurrently, so the listener is called from several threads.
+     *
+     * @param file      the statement export
+     * @param collector the collector for the records of one range
+     * @param progress  receives progress; may cancel by throwing a {@link java.util.concurrent.CancellationException}
+     * @param <A>       the collector's container type
+     * @param <R>       the result type
+     * @return the collected records
+     * @throws CsvParsingException if the file can't be read or contains a malformed record
+     */
+    public <A, R> R parse(final Path file, final Collector<DataRecord, A, R> collector, final ProgressListener progress) {
+        return parse(file, collector.supplier(), (decoder, container) -> {
+            final DataRecord record = decoder.next();
+            if (Objects.isNull(record)) return false;
+            if (filter.test(record.getDescription())) collector.accumulator().accept(container, record);
+            return true;
+        }, collector.combiner(), collector.finisher(), progress);
+    }
+
+    /**
+     * Parses the given file straight into a {@link TransactionTable}. Every range decodes its rows into its own
+     * {@link TransactionTable.Builder} with {@link StatementCsvDecoder#next(TransactionTable.Builder, Predicate)},
+     * so no {@link DataRecord}s are created; the builders are appended in file order.
+     *
+     * @param file     the statement export
+     * @param progress receives progress; may cancel by throwing a {@link java.util.concurrent.CancellationException}
+     * @return the parsed transactions, in file order
+     * @throws CsvParsingException if the file can't be read or contains a malformed record
+     */
+    public TransactionTable parseTable(final Path file, final ProgressListener progress) {
+        return parse(file, TransactionTable::builder, (decoder, table) -> decoder.next(table, filter),
+                TransactionTable.Builder::addAll, TransactionTable.Builder::build, progress);
+    }
+
+    private <A, R> R parse(final Path file, final Supplier<A> supplier, final RangeDecoder<A> rangeDecoder,
+                           final BinaryOperator<A> combiner, final Function<A, R> finisher, final ProgressListener progress) {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final Header header = readHeader(channel, size);
+            final long[] starts = splitBody(channel, header.end(), size);
+            final long[] lines = new long[starts.length];
+            final int chunks = starts.length - 1;
+            log.debug("Parsing {} bytes of {} in {} chunks", size, file, chunks);
+
+            countLines(channel, starts, lines, header.lines());
+            final Progress total = new Progress(progress, header.end());
+            final List<A> parts = IntStream.range(0, chunks)
+                    .parallel()
+                    .mapToObj(i -> decodeRange(channel, starts[i], starts[i + 1], lines[i], header.layout(), supplier.get(), rangeDecoder, total))
+                    .toList();
+            progress.onProgress(total.rows.get(), total.bytes.get());
+
+            A combined = parts.getFirst();
+            for (int i = 1; i < parts.size(); i++) {
+                combined = combiner.apply(combined, parts.get(i));
+            }
+            return finisher.apply(combined);
+        } catch (final IOException | UncheckedIOException e) {
+            throw new CsvParsingException("Error reading CSV: " + e.getMessage(), e);
+        }
+    }
+
+    private Header readHeader(final FileChannel channel, final long size) throws IOException {
+        final long end = findRecordEnd(channel, 0, false, size);
+        if (end == 0) throw new CsvParsingException("CSV header is missing");
+        final StatementCsvDecoder decoder = new StatementCsvDecoder(reader(map(channel, 0, end)));
+        return new Header(end, decoder.layout(), 1 + countLineFeeds(map(channel, 0, end)));
+    }
+
+    /**
+     * Computes record-aligned range starts; the last element is the end of the file.
+     */
+    private long[] splitBody(final FileChannel channel, final long bodyStart, final long size) {
+        final long bodySize = size - bodyStart;
+        final int wanted = (int) Math.min(
+                Math.max(1, bodySize / minChunkBytes),
+                Math.max((long) Runtime.getRuntime().availableProcessors() * parallelism, ceilDiv(bodySize, MAX_MAPPED_RANGE)));
+        final long nominalSize = Math.max(1, ceilDiv(bodySize, Math.max(1, wanted)));
+
+        final List<Long> nominal = new ArrayList<>();
+        for (long start = bodyStart; start < size; start += nominalSize) {
+            nominal.add(start);
+        }
+        nominal.add(size);
+
+        final int ranges = nominal.size() - 1;
+        final boolean[] oddQuotes = new boolean[Math.max(ranges, 0)];
+        IntStream.range(0, ranges).parallel().forEach(i -> oddQuotes[i] = hasOddQuotes(channel, nominal.get(i), nominal.get(i + 1)));
+
+        final long[] aligned = new long[ranges + 1];
+        boolean inQuotes = false;
+        final boolean[] quotedAtStart = new boolean[ranges];
+        for (int i = 0; i < ranges; i++) {
+            quotedAtStart[i] = inQuotes;
+            inQuotes ^= oddQuotes[i];
+        }
+        aligned[0] = bodyStart;
+        aligned[ranges] = size;
+        IntStream.range(1, ranges).parallel().forEach(i -> aligned[i] = findRecordEnd(channel, nominal.get(i), quotedAtStart[i], size));
+
+        return dropEmptyRanges(aligned);
+    }
+
+    private static long[] dropEmptyRanges(final long[] aligned) {
+        final long[] distinct = new long[aligned.length];
+        int count = 0;
+        for (final long start : aligned) {
+            if (count == 0 || start > distinct[count - 1]) distinct[count++] = start;
+        }
+        if (count == 1) return new long[]{distinct[0], distinct[0]};
+        final long[] result = new long[count];
+        System.arraycopy(distinct, 0, result, 0, count);
+        return result;
+    }
+
+    private void countLines(final FileChannel channel, final long[] starts, final long[] lines, final long firstLine) {
+        final long[] lineFeeds = new long[starts.length - 1];
+        IntStream.range(0, lineFeeds.length).parallel().forEach(i -> lineFeeds[i] = countLineFeeds(channel, starts[i], starts[i + 1]));
+        long line = firstLine;
+        for (int i = 0; i < lineFeeds.length; i++) {
+            lines[i] = line;
+            line += lineFeeds[i];
+        }
+    }
+
+    private <A> A decodeRange(final FileChannel channel, final long start, final long end, final long firstLine,
+                              final StatementCsvDecoder.Layout layout, final A container, final RangeDecoder<A> rangeDecoder,
+                              final Progress progress) {
+        if (start >= end) return container;
+        final ByteBufferInputStream in = new ByteBufferInputStream(mapLarge(channel, start, end));
+        final StatementCsvDecoder decoder = new StatementCsvDecoder(new InputStreamReader(in, StandardCharsets.UTF_8), layout, firstLine);
+        int rows = 0;
+        long reportedBytes = 0;
+        while (rangeDecoder.decodeNext(decoder, container)) {
+            if (++rows == ProgressListener.REPORT_INTERVAL_ROWS) {
+                progress.add(rows, in.consumed - reportedBytes);
+                reportedBytes = in.consumed;
+                rows = 0;
+            }
+        }
+        progress.add(rows, end - start - reportedBytes);
+        return container;
+    }
+
+    private static boolean hasOddQuotes(final FileChannel channel, final long start, final long end) {
+        boolean odd = false;
+        for (final ByteBuffer buffer : mapLarge(channel, start, end)) {
+            for (int i = buffer.position(), limit = buffer.limit(); i < limit; i++) {
+                if (buffer.get(i) == '"') odd = !odd;
+            }
+        }
+        return odd;
+    }
+
+    private static long countLineFeeds(final FileChannel channel, final long start, final long end) {
+        long count = 0;
+        for (final ByteBuffer buffer : mapLarge(channel, start, end)) {
+            count += countLineFeeds(buffer);
+        }
+        return count;
+    }
+
+    private static long countLineFeeds(final ByteBuffer buffer) {
+        long count = 0;
+        for (int i = buffer.position(), limit = buffer.limit(); i < limit; i++) {
+            if (buffer.get(i) == '\n') count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the offset just after the first line feed outside quotes at or after {@code from}.
+     */
+    private static long findRecordEnd(final FileChannel channel, final long from, final boolean quoted, final long size) {
+        boolean inQuotes = quoted;
+        for (long windowStart = from; windowStart < size; windowStart += SCAN_WINDOW) {
+            final ByteBuffer window = map(channel, windowStart, Math.min(size, windowStart + SCAN_WINDOW));
+            for (int i = 0, limit = window.limit(); i < limit; i++) {
+                final byte b = window.get(i);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    return windowStart + i + 1;
+                }
+            }
+        }
+        return size;
+    }
+
+    private static List<ByteBuffer> mapLarge(final FileChannel channel, final long start, final long end) {
+        final List<ByteBuffer> buffers = new ArrayList<>();
+        for (long offset = start; offset < end; offset += MAX_MAPPED_RANGE) {
+            buffers.add(map(channel, offset, Math.min(end, offset + MAX_MAPPED_RANGE)));
+        }
+        return buffers;
+    }
+
+    private static MappedByteBuffer map(final FileChannel channel, final long start, final long end) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static InputStreamReader reader(final ByteBuffer buffer) {
+        return reader(List.of(buffer));
+    }
+
+    private static InputStreamReader reader(final List<ByteBuffer> buffers) {
+        return new InputStreamReader(new ByteBufferInputStream(buffers), StandardCharsets.UTF_8);
+    }
+
+    private static long ceilDiv(final long value, final long divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    private record Header(long end, StatementCsvDecoder.Layout layout, long lines) {
+    }
+
+    /**
+     * Decodes one record of a range into that range's container.
+     */
+    @FunctionalInterface
+    private interface RangeDecoder<A> {
+        /**
+         * @return false when the range is exhausted
+         */
+        boolean decodeNext(StatementCsvDecoder decoder, A container);
+    }
+
+    /**
+     * Progress summed over all ranges.
+     */
+    private static final class Progress {
+        private final ProgressListener listener;
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong bytes;
+
+        private Progress(final ProgressListener listener, final long headerBytes) {
+            this.listener = listener;
+            this.bytes = new AtomicLong(headerBytes);
+        }
+
+        private void add(final long rowDelta, final long byteDelta) {
+            listener.onProgress(rows.addAndGet(rowDelta), bytes.addAndGet(byteDelta));
+        }
+    }
+
+    /**
+     * Sequential view over mapped buffers, without copying them to the heap.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final List<ByteBuffer> buffers;
+        private int current = 0;
+        private long consumed = 0;
+
+        private ByteBufferInputStream(final List<ByteBuffer> buffers) {
+            this.buffers = buffers;
+        }
+
+        @Override
+        public int read() {
+            final ByteBuffer buffer = currentBuffer();
+            if (Objects.isNull(buffer)) return -1;
+            consumed++;
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] target, final int offset, final int length) {
+            if (length == 0) return 0;
+            final ByteBuffer buffer = currentBuffer();
+            if (Objects.isNull(buffer)) return -1;
+            final int count = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, count);
+            consumed += count;
+            return count;
+        }
+
+        private ByteBuffer currentBuffer() {
+            while (current < buffers.size() && !buffers.get(current).hasRemaining()) {
+                current++;
+            }
+            return current < buffers.size() ? buffers.get(current) : null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package be.jensberckmoes.insightfx.service;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Receives the progress of a long-running operation, such as parsing a statement file.
+ *
+ * <p>Progress is reported every {@value #REPORT_INTERVAL_ROWS} rows and once more at the end, from the thread
+ * doing the work; operations that work in parallel report from several threads at once, so implementations
+ * must be thread-safe and cheap. A listener can stop the operation by throwing a
+ * {@link CancellationException}, which reaches the caller unchanged.</p>
+ */
+@FunctionalInterface
+public interface ProgressListener {
+    /**
+     * Number of rows between two reports.
+     */
+    int REPORT_INTERVAL_ROWS = 8192;
+
+    /**
+     * Listener that ignores all progress.
+     */
+    ProgressListener NONE = (_, _) -> {
+    };
+
+    /**
+     * @param rows  rows processed so far
+     * @param bytes bytes read or written so far
+     * @throws CancellationException to stop the operation
+     */
+    void onProgress(long rows, long bytes);
+}
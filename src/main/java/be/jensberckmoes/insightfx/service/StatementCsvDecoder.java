@@ -0,0 +1,394 @@
+package be.jensberckmoes.insightfx.service;
+
+import be.jensberckmoes.insightfx.converter.BigDecimalConverter;
+import be.jensberckmoes.insightfx.converter.LocalDateConverter;
+import be.jensberckmoes.insightfx.converter.RequiredTrimmedStringConverter;
+import be.jensberckmoes.insightfx.exception.CsvParsingException;
+import be.jensberckmoes.insightfx.model.DataRecord;
+import be.jensberckmoes.insightfx.model.TransactionTable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Decoder for the {@code ;}-separated bank statement export.
+ *
+ * <p>The header row is resolved once into column indices; every following record is split into
+ * field ranges of a reusable buffer and only the mapped columns are turned into values. No reflection
+ * and no per-cell header lookups are involved.</p>
+ *
+ * <p>Quoting follows the rules of the opencsv setup it replaces:</p>
+ * <ul>
+ *     <li>A field may be enclosed in double quotes, possibly preceded by whitespace which is then dropped</li>
+ *     <li>Inside quotes, {@code ""} is an escaped quote and separators and line breaks are kept</li>
+ *     <li>Line breaks inside quotes are normalised to {@code \n}</li>
+ *     <li>Every record must have as many fields as the header</li>
+ * </ul>
+ *
+ * <p>Instances are not thread-safe.</p>
+ */
+public final class StatementCsvDecoder implements Closeable {
+    public static final char SEPARATOR = ';';
+    public static final String DESCRIPTION_COLUMN = "Omschrijving";
+    public static final String CURRENCY_DATE_COLUMN = "Valuta";
+    public static final String AMOUNT_COLUMN = "Bedrag";
+    public static final String COMMENTS_COLUMN = "Vrije mededeling";
+    public static final String STATEMENT_NUMBER_COLUMN = "Afschriftnummer";
+    public static final String BOOKING_DATE_COLUMN = "Datum";
+    public static final String COUNTERPARTY_COLUMN = "Naam tegenpartij";
+
+    private static final char QUOTE = '"';
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+    private static final int EOF = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final Reader reader;
+    private final char[] input = new char[64 * 1024];
+    private int position = 0;
+    private int limit = 0;
+
+    private char[] fields = new char[1024];
+    private int[] fieldStart = new int[32];
+    private int[] fieldEnd = new int[32];
+    private int fieldCount = 0;
+    private long lineNumber = 1;
+    private long recordLine = 1;
+    private final int[] amountScale = new int[1];
+
+    private final Layout layout;
+
+    /**
+     * Creates a decoder that reads and resolves the header row first.
+     *
+     * @param reader the character source, positioned at the header row
+     * @throws CsvParsingException if the header is missing or lacks a mandatory column
+     */
+    public StatementCsvDecoder(final Reader reader) {
+        this.reader = Objects.requireNonNull(reader, "reader");
+        if (!readRecord()) {
+            throw new CsvParsingException("CSV header is missing");
+        }
+        final String[] header = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            header[i] = new String(fields, fieldStart[i], fieldEnd[i] - fieldStart[i]);
+        }
+        this.layout = Layout.of(header);
+    }
+
+    /**
+     * Creates a decoder for a slice of a file whose header has already been resolved.
+     *
+     * @param reader    the character source, positioned at the start of a record
+     * @param layout    the layout resolved from the file's header
+     * @param firstLine the line number of the first record, used in error messages
+     */
+    public StatementCsvDecoder(final Reader reader, final Layout layout, final long firstLine) {
+        this.reader = Objects.requireNonNull(reader, "reader");
+        this.layout = Objects.requireNonNull(layout, "layout");
+        this.lineNumber = firstLine;
+        this.recordLine = firstLine;
+    }
+
+    /**
+     * Returns the column layout resolved from the header.
+     *
+     * @return the layout
+     */
+    public Layout layout() {
+        return layout;
+    }
+
+    /**
+     * Decodes the next record.
+     *
+     * @return the next record, or {@code null} when the input is exhausted
+     * @throws CsvParsingException if the record is malformed or the input can't be read
+     */
+    public DataRecord next() {
+        if (!readRecord()) return null;
+        if (fieldCount != layout.columnCount()) {
+            throw failure("Number of data fields does not match number of headers.", null);
+        }
+        try {
+            return new DataRecord(
+                    description(),
+                    currencyDate(),
+                    amount(),
+                    comments(),
+                    trimmedOrNull(layout.statementNumber()),
+                    bookingDate(),
+                    trimmedOrNull(layout.counterparty()));
+        } catch (final CsvParsingException | IllegalArgumentException | DateTimeException e) {
+            throw failure(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decodes the next record straight into the columns of a table, without creating a {@link DataRecord}.
+     * <p>
+     * The amount is decoded into cents and the dates into epoch days; only the text fields become strings.
+     * Every field is validated as in {@link #next()}, also for records that are then left out.
+     * </p>
+     *
+     * @param table    the table to append the record to
+     * @param included records whose description fails this predicate are not appended
+     * @return false when the input is exhausted
+     * @throws CsvParsingException if the record is malformed, its amount has more than two decimals
+     *                             or the input can't be read
+     */
+    public boolean next(final TransactionTable.Builder table, final Predicate<? super String> included) {
+        if (!readRecord()) return false;
+        if (fieldCount != layout.columnCount()) {
+            throw failure("Number of data fields does not match number of headers.", null);
+        }
+        try {
+            final String description = description();
+            final int currencyEpochDay = currencyEpochDay();
+            final int amountColumn = layout.amount();
+            final long cents = BigDecimalConverter.parseAmountCents(fields, fieldStart[amountColumn], fieldEnd[amountColumn], amountScale);
+            final String comments = comments();
+            final String statementNumber = trimmedOrNull(layout.statementNumber());
+            final int bookingEpochDay = bookingEpochDay();
+            final String counterparty = trimmedOrNull(layout.counterparty());
+            if (included.test(description)) {
+                table.add(description, currencyEpochDay, cents, amountScale[0], comments, statementNumber, bookingEpochDay, counterparty);
+            }
+            return true;
+        } catch (final CsvParsingException | IllegalArgumentException | DateTimeException | ArithmeticException e) {
+            throw failure(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String description() {
+        final int column = layout.description();
+        int start = fieldStart[column];
+        int end = fieldEnd[column];
+        while (start < end && fields[start] <= ' ') start++;
+        while (end > start && fields[end - 1] <= ' ') end--;
+        return RequiredTrimmedStringConverter.requireTrimmed(new String(fields, start, end - start));
+    }
+
+    private LocalDate currencyDate() {
+        return LocalDate.ofEpochDay(currencyEpochDay());
+    }
+
+    private int currencyEpochDay() {
+        final int column = layout.currencyDate();
+        return Math.toIntExact(LocalDateConverter.parseEpochDay(fields, fieldStart[column], fieldEnd[column]));
+    }
+
+    private BigDecimal amount() {
+        final int column = layout.amount();
+        return BigDecimalConverter.parseAmount(fields, fieldStart[column], fieldEnd[column]);
+    }
+
+    private String comments() {
+        return layout.comments() < 0 ? null : field(layout.comments());
+    }
+
+    private String trimmedOrNull(final int column) {
+        if (column < 0) return null;
+        int start = fieldStart[column];
+        int end = fieldEnd[column];
+        while (start < end && fields[start] <= ' ') start++;
+        while (end > start && fields[end - 1] <= ' ') end--;
+        return start == end ? null : new String(fields, start, end - start);
+    }
+
+    private LocalDate bookingDate() {
+        final int epochDay = bookingEpochDay();
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private int bookingEpochDay() {
+        final int column = layout.bookingDate();
+        if (column < 0 || isBlank(column)) return NO_DATE;
+        return Math.toIntExact(LocalDateConverter.parseEpochDay(fields, fieldStart[column], fieldEnd[column]));
+    }
+
+    private boolean isBlank(final int column) {
+        for (int i = fieldStart[column]; i < fieldEnd[column]; i++) {
+            if (!Character.isWhitespace(fields[i])) return false;
+        }
+        return true;
+    }
+
+    private String field(final int column) {
+        return new String(fields, fieldStart[column], fieldEnd[column] - fieldStart[column]);
+    }
+
+    private CsvParsingException failure(final String message, final Throwable cause) {
+        return new CsvParsingException(message + " (line " + recordLine + ")", cause);
+    }
+
+    /**
+     * Reads one record into {@link #fields}, skipping empty lines.
+     *
+     * @return false when the end of the input was reached before any field
+     */
+    private boolean readRecord() {
+        int c;
+        do {
+            recordLine = lineNumber;
+            c = read();
+            if (c == '\r' && peek() == '\n') c = read();
+            if (c == '\r' || c == '\n') lineNumber++;
+        } while (c == '\r' || c == '\n');
+        if (c == EOF) return false;
+
+        int length = 0;
+        fieldCount = 0;
+        int start = 0;
+        boolean quoted = false;
+        boolean blankSoFar = true;
+
+        while (true) {
+            if (quoted) {
+                if (c == EOF) {
+                    throw failure("Unterminated quoted field", null);
+                }
+                if (c == QUOTE) {
+                    if (peek() == QUOTE) {
+                        read();
+                        length = append(length, QUOTE);
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '\r' || c == '\n') {
+                    if (c == '\r' && peek() == '\n') read();
+                    lineNumber++;
+                    length = append(length, '\n');
+                } else {
+                    length = append(length, (char) c);
+                }
+            } else if (c == SEPARATOR) {
+                endField(start, length);
+                start = length;
+                blankSoFar = true;
+            } else if (c == '\r' || c == '\n' || c == EOF) {
+                if (c == '\r' && peek() == '\n') read();
+                if (c != EOF) lineNumber++;
+                endField(start, length);
+                return true;
+            } else if (c == QUOTE && blankSoFar) {
+                length = start;
+                quoted = true;
+                blankSoFar = false;
+            } else {
+                if (!Character.isWhitespace(c)) blankSoFar = false;
+                length = append(length, (char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int append(final int length, final char c) {
+        if (length == fields.length) {
+            fields = Arrays.copyOf(fields, length * 2);
+        }
+        fields[length] = c;
+        return length + 1;
+    }
+
+    private void endField(final int start, final int end) {
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private int read() {
+        if (position == limit && !fill()) return EOF;
+        return input[position++];
+    }
+
+    private int peek() {
+        if (position == limit && !fill()) return EOF;
+        return input[position];
+    }
+
+    private boolean fill() {
+        try {
+            int count;
+            do {
+                count = reader.read(input, 0, input.length);
+            } while (count == 0);
+            if (count < 0) return false;
+            position = 0;
+            limit = count;
+            return true;
+        } catch (final IOException e) {
+            throw new CsvParsingException("Error reading CSV: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Column indices of the mapped fields, resolved once from the header row.
+     *
+     * @param columnCount     number of columns every record must have
+     * @param description     index of {@value #DESCRIPTION_COLUMN}
+     * @param currencyDate    index of {@value #CURRENCY_DATE_COLUMN}
+     * @param amount          index of {@value #AMOUNT_COLUMN}
+     * @param comments        index of {@value #COMMENTS_COLUMN}, or -1 when the column is absent
+     * @param statementNumber index of {@value #STATEMENT_NUMBER_COLUMN}, or -1 when the column is absent
+     * @param bookingDate     index of {@value #BOOKING_DATE_COLUMN}, or -1 when the column is absent
+     * @param counterparty    index of {@value #COUNTERPARTY_COLUMN}, or -1 when the column is absent
+     */
+    public record Layout(int columnCount, int description, int currencyDate, int amount, int comments,
+                         int statementNumber, int bookingDate, int counterparty) {
+
+        /**
+         * Resolves the layout from header names. Names are matched case-insensitively, ignoring surrounding whitespace.
+         *
+         * @param header the header row
+         * @return the resolved layout
+         * @throws CsvParsingException if a mandatory column is missing
+         */
+        public static Layout of(final String[] header) {
+            if (header.length > 0 && !header[0].isEmpty() && header[0].charAt(0) == BYTE_ORDER_MARK) {
+                header[0] = header[0].substring(1);
+            }
+            return new Layout(
+                    header.length,
+                    required(header, DESCRIPTION_COLUMN),
+                    required(header, CURRENCY_DATE_COLUMN),
+                    required(header, AMOUNT_COLUMN),
+                    indexOf(header, COMMENTS_COLUMN),
+                    indexOf(header, STATEMENT_NUMBER_COLUMN),
+                    indexOf(header, BOOKING_DATE_COLUMN),
+                    indexOf(header, COUNTERPARTY_COLUMN));
+        }
+
+        private static int required(final String[] header, final String name) {
+            final int index = indexOf(header, name);
+            if (index < 0) {
+                throw new CsvParsingException("Header is missing mandatory column '" + name + "'");
+            }
+            return index;
+        }
+
+        private static int indexOf(final String[] header, final String name) {
+            final String wanted = name.toUpperCase(Locale.ROOT);
+            for (int i = 0; i < header.length; i++) {
+                if (header[i].trim().toUpperCase(Locale.ROOT).equals(wanted)) return i;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package be.jensberckmoes.insightfx.service;
+
+import be.jensberckmoes.insightfx.model.TransactionTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Cache of parsed statements, keyed by the SHA-256 of the parser's format version and the statement file's content.
+ *
+ * <p>On the first load of a file its transactions are parsed as usual and written to a binary snapshot
+ * (see {@link TransactionTable#writeTo(java.nio.channels.WritableByteChannel)}). Later loads of a file with
+ * the same content memory-map that snapshot instead of parsing the CSV again; hashing the file is all that
+ * is left of the parse. A new format version, such as {@link CsvParserService#FORMAT_VERSION}, gives every file a
+ * new key, so snapshots of an older parser are never served; they age out like unused ones.</p>
+ *
+ * <p>Snapshots are written to a temporary file and moved into place, so a crash never leaves a partial
+ * snapshot behind. A snapshot that can't be read is deleted and the file is parsed again. Only the
+ * {@value #MAX_SNAPSHOTS} most recently used snapshots are kept.</p>
+ */
+public final class StatementSnapshotCache {
+    private static final Logger log = LoggerFactory.getLogger(StatementSnapshotCache.class);
+    private static final String SUFFIX = ".snapshot";
+    private static final int MAX_SNAPSHOTS = 32;
+    private static final int HASH_BUFFER_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final byte[] formatVersion;
+
+    /**
+     * @param directory     where snapshots are stored; created when needed
+     * @param formatVersion version of what the parser produces; snapshots of other versions are misses
+     */
+    public StatementSnapshotCache(final Path directory, final String formatVersion) {
+        this.directory = Objects.requireNonNull(directory, "directory");
+        this.formatVersion = (Objects.requireNonNull(formatVersion, "formatVersion") + '\n').getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the transactions of a statement file, from its snapshot when the content was seen before.
+     *
+     * @param file   the statement file
+     * @param parser parses the file on a cache miss
+     * @return the transactions
+     * @throws UncheckedIOException if the statement file can't be read
+     */
+    public TransactionTable load(final Path file, final Function<Path, TransactionTable> parser) {
+        final Path snapshot = directory.resolve(key(file) + SUFFIX);
+        if (Files.isRegularFile(snapshot)) {
+            try {
+                final TransactionTable table = read(snapshot);
+                Files.setLastModifiedTime(snapshot, FileTime.fromMillis(System.currentTimeMillis()));
+                log.info("Loaded {} transactions of {} from snapshot {}", table.size(), file, snapshot.getFileName());
+                return table;
+            } catch (final IOException | IllegalArgumentException e) {
+                log.warn("Discarding unreadable snapshot {}: {}", snapshot, e.getMessage());
+                deleteQuietly(snapshot);
+            }
+        }
+
+        final TransactionTable table = parser.apply(file);
+        try {
+            write(table, snapshot);
+            prune();
+        } catch (final IOException | UncheckedIOException e) {
+            log.warn("Failed to write snapshot of {}: {}", file, e.getMessage());
+        }
+        return table;
+    }
+
+    private static TransactionTable read(final Path snapshot) throws IOException {
+        try (final FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IllegalArgumentException("Snapshot too large to map");
+            final ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return TransactionTable.readFrom(mapped);
+        }
+    }
+
+    private void write(final TransactionTable table, final Path snapshot) throws IOException {
+        Files.createDirectories(directory);
+        final Path temporary = Files.createTempFile(directory, "snapshot", ".tmp");
+        try {
+            try (final FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                table.writeTo(channel);
+            }
+            Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Wrote snapshot {} with {} transactions", snapshot.getFileName(), table.size());
+        } finally {
+            deleteQuietly(temporary);
+        }
+    }
+
+    private void prune() throws IOException {
+        final List<Path> snapshots;
+        try (final Stream<Path> files = Files.list(directory)) {
+            snapshots = files.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(StatementSnapshotCache::lastModified).reversed())
+                    .toList();
+        }
+        snapshots.stream().skip(MAX_SNAPSHOTS).forEach(StatementSnapshotCache::deleteQuietly);
+    }
+
+    private String key(final Path file) {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(formatVersion);
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_BYTES);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static FileTime lastModified(final Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (final IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void deleteQuietly(final Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (final IOException e) {
+            log.debug("Failed to delete {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package be.jensberckmoes.insightfx.service;
+
+import be.jensberckmoes.insightfx.model.ExportSchema;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes an XLSX workbook from an {@link ExportSchema}, streaming the rows into the worksheet's zip entry.
+ *
+ * <p>The SpreadsheetML is written by hand, without a DOM or a workbook library: text as inline strings, so no
+ * shared string table grows with the rows, decimals as numeric cells and dates as date-formatted serial numbers.
+ * Memory use is the same for any number of rows. A sheet holds at most {@value #MAX_SHEET_ROWS} rows, the most a
+ * spreadsheet shows; further rows continue on a new sheet, below the headers again.</p>
+ *
+ * <p>The parts that list the sheets are written after the last row, when the number of sheets is known. Not
+ * thread-safe.</p>
+ */
+final class XlsxRowWriter extends BufferedRowWriter {
+    /**
+     * Rows per sheet, including the headers.
+     */
+    static final int MAX_SHEET_ROWS = 1 << 20;
+
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String SPREADSHEET_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String RELATIONSHIP_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String PACKAGE_RELATIONSHIP_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String SHEET_START = XML_DECLARATION + "<worksheet xmlns=\"" + SPREADSHEET_NS + "\">"
+            + "<sheetViews><sheetView workbookViewId=\"0\">"
+            + "<pane ySplit=\"1\" topLeftCell=\"A2\" activePane=\"bottomLeft\" state=\"frozen\"/>"
+            + "</sheetView></sheetViews><sheetData>";
+    private static final String SHEET_END = "</sheetData></worksheet>";
+    private static final String STYLES = XML_DECLARATION + "<styleSheet xmlns=\"" + SPREADSHEET_NS + "\">"
+            + "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font>"
+            + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+            + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>"
+            + "<fill><patternFill patternType=\"gray125\"/></fill></fills>"
+            + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+            + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+            + "<cellXfs count=\"3\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+            + "<xf numFmtId=\"14\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+            + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/></cellXfs>"
+            + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+            + "</styleSheet>";
+    private static final String DATE_STYLE = "1";
+    private static final String HEADER_STYLE = "2";
+    /**
+     * Serial number of 1970-01-01; spreadsheets count days from 1900, with a leap day in 1900 that never was.
+     */
+    private static final long EPOCH_SERIAL = 25_569;
+    private static final LocalDate FIRST_SERIAL_DATE = LocalDate.of(1900, 3, 1);
+
+    private final ZipOutputStream zip;
+    private final Writer xml;
+    private final int maxSheetRows;
+    private List<String> headers = List.of();
+    private int sheets;
+    private int sheetRows;
+
+    /**
+     * @param out          the file to write; closed with this writer
+     * @param bufferChars  size of the row buffer
+     * @param maxSheetRows rows per sheet, including the headers
+     */
+    XlsxRowWriter(final OutputStream out, final int bufferChars, final int maxSheetRows) throws IOException {
+        this(new ZipOutputStream(out), bufferChars, maxSheetRows);
+    }
+
+    private XlsxRowWriter(final ZipOutputStream zip, final int bufferChars, final int maxSheetRows) throws IOException {
+        this(zip, new OutputStreamWriter(zip, StandardCharsets.UTF_8), bufferChars, maxSheetRows);
+    }
+
+    private XlsxRowWriter(final ZipOutputStream zip, final Writer xml, final int bufferChars, final int maxSheetRows) throws IOException {
+        super(xml, bufferChars);
+        if (maxSheetRows < 2) throw new IllegalArgumentException("A sheet needs room for headers and rows: " + maxSheetRows);
+        this.zip = zip;
+        this.xml = xml;
+        this.maxSheetRows = maxSheetRows;
+        // XML compresses well at any level; the fastest one keeps large exports bound by I/O.
+        zip.setLevel(Deflater.BEST_SPEED);
+        startSheet();
+    }
+
+    @Override
+    void writeHeaders(final List<String> headers) throws IOException {
+        this.headers = List.copyOf(headers);
+        writeHeaderRow();
+    }
+
+    @Override
+    public void text(final CharSequence value) throws IOException {
+        if (Objects.isNull(value)) {
+            append("<c/>");
+            return;
+        }
+        inlineString(value, null);
+    }
+
+    @Override
+    public void decimal(final long unscaled, final int scale) throws IOException {
+        append("<c><v>");
+        if (scale < 0 || scale > MAX_NUMBER_CHARS) append(BigDecimal.valueOf(unscaled, scale).toString());
+        else appendDecimal(unscaled, scale);
+        append("</v></c>");
+    }
+
+    @Override
+    public void decimal(final BigDecimal value) throws IOException {
+        if (Objects.isNull(value)) {
+            append("<c/>");
+            return;
+        }
+        append("<c><v>");
+        append(value.toString());
+        append("</v></c>");
+    }
+
+    /**
+     * Writes a date as a date-formatted serial number; dates before March 1900 have none and are written as text.
+     */
+    @Override
+    public void date(final LocalDate value) throws IOException {
+        if (Objects.isNull(value) || value.isBefore(FIRST_SERIAL_DATE)) {
+            super.date(value);
+            return;
+        }
+        append("<c s=\"" + DATE_STYLE + "\"><v>");
+        appendDecimal(value.toEpochDay() + EPOCH_SERIAL, 0);
+        append("</v></c>");
+    }
+
+    @Override
+    protected void startRow() throws IOException {
+        if (sheetRows == maxSheetRows) {
+            endSheet();
+            startSheet();
+            writeHeaderRow();
+        }
+        append("<row>");
+        sheetRows++;
+    }
+
+    @Override
+    protected void endRow() throws IOException {
+        append("</row>");
+    }
+
+    @Override
+    protected void finish() throws IOException {
+        endSheet();
+
+        final StringBuilder types = new StringBuilder(XML_DECLARATION)
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>")
+                .append("<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+        final StringBuilder workbook = new StringBuilder(XML_DECLARATION)
+                .append("<workbook xmlns=\"").append(SPREADSHEET_NS).append("\" xmlns:r=\"").append(RELATIONSHIP_NS).append("\"><sheets>");
+        final StringBuilder workbookRelationships = new StringBuilder(XML_DECLARATION)
+                .append("<Relationships xmlns=\"").append(PACKAGE_RELATIONSHIP_NS).append("\">");
+        for (int sheet = 1; sheet <= sheets; sheet++) {
+            types.append("<Override PartName=\"/xl/worksheets/sheet").append(sheet)
+                    .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+            workbook.append("<sheet name=\"Sheet").append(sheet).append("\" sheetId=\"").append(sheet)
+                    .append("\" r:id=\"rId").append(sheet).append("\"/>");
+            workbookRelationships.append("<Relationship Id=\"rId").append(sheet).append("\" Type=\"").append(RELATIONSHIP_NS)
+                    .append("/worksheet\" Target=\"worksheets/sheet").append(sheet).append(".xml\"/>");
+        }
+        workbookRelationships.append("<Relationship Id=\"rId").append(sheets + 1).append("\" Type=\"").append(RELATIONSHIP_NS)
+                .append("/styles\" Target=\"styles.xml\"/></Relationships>");
+
+        writeEntry("[Content_Types].xml", types.append("</Types>"));
+        writeEntry("_rels/.rels", XML_DECLARATION + "<Relationships xmlns=\"" + PACKAGE_RELATIONSHIP_NS + "\">"
+                + "<Relationship Id=\"rId1\" Type=\"" + RELATIONSHIP_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                + "</Relationships>");
+        writeEntry("xl/workbook.xml", workbook.append("</sheets></workbook>"));
+        writeEntry("xl/_rels/workbook.xml.rels", workbookRelationships);
+        writeEntry("xl/styles.xml", STYLES);
+        flushBuffer();
+        xml.flush();
+        zip.finish();
+    }
+
+    private void startSheet() throws IOException {
+        sheets++;
+        sheetRows = 0;
+        putEntry("xl/worksheets/sheet" + sheets + ".xml");
+        append(SHEET_START);
+    }
+
+    private void endSheet() throws IOException {
+        append(SHEET_END);
+    }
+
+    private void writeHeaderRow() throws IOException {
+        append("<row>");
+        for (final String header : headers) {
+            inlineString(header, HEADER_STYLE);
+        }
+        append("</row>");
+        sheetRows++;
+    }
+
+    private void writeEntry(final String name, final CharSequence content) throws IOException {
+        putEntry(name);
+        append(content);
+    }
+
+    private void putEntry(final String name) throws IOException {
+        flushBuffer();
+        xml.flush();
+        zip.putNextEntry(new ZipEntry(name));
+    }
+
+    private void inlineString(final CharSequence value, final String style) throws IOException {
+        append(Objects.isNull(style) ? "<c t=\"inlineStr\">" : "<c t=\"inlineStr\" s=\"" + style + "\">");
+        append("<is><t xml:space=\"preserve\">");
+        final int length = value.length();
+        int from = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            final String escaped = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                // Control characters can't appear in XML at all, not even escaped.
+                default -> c < ' ' && c != '\t' && c != '\n' && c != '\r' || c == '\uFFFE' || c == '\uFFFF' ? "" : null;
+            };
+            if (Objects.isNull(escaped)) continue;
+            append(value, from, i);
+            append(escaped);
+            from = i + 1;
+        }
+        append(value, from, length);
+        append("</t></is></c>");
+    }
+}
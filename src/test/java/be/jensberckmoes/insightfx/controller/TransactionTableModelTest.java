@@ -0,0 +1,93 @@
+package be.jensberckmoes.insightfx.controller;
+
+import be.jensberckmoes.insightfx.model.TransactionIndex;
+import be.jensberckmoes.insightfx.model.TransactionIndex.SortKey;
+import be.jensberckmoes.insightfx.model.TransactionTable;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static be.jensberckmoes.insightfx.model.TransactionIndex.Column.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionTableModelTest {
+    private static final int OCTOBER_3 = (int) LocalDate.of(2025, 10, 3).toEpochDay();
+
+    private final TransactionIndex index = new TransactionIndex(TransactionTable.builder()
+            .add("BIJDRAGE", OCTOBER_3, -475, 2, null)
+            .add("BETALING VIA BANCONTACT", OCTOBER_3 - 2, -1160, 1, "Bakker")
+            .add("INSTANTOVERSCHRIJVING VAN", OCTOBER_3 + 1, 1000, 0, "Dokter?")
+            .build());
+    private final TransactionTableModel model = new TransactionTableModel(index);
+
+    @Test
+    void testReadsCellTextsFromTable() {
+        assertEquals(List.of(0, 1, 2), model);
+        assertEquals("2025-10-03", model.text(DATE, 0));
+        assertEquals("BETALING VIA BANCONTACT", model.text(DESCRIPTION, 1));
+        assertEquals("-11.6", model.text(AMOUNT, 1));
+        assertEquals("10", model.text(AMOUNT, 2));
+        assertNull(model.text(COMMENTS, 0));
+    }
+
+    @Test
+    void testCachesFormattedTexts() {
+        assertSame(model.text(DATE, 1), model.text(DATE, 1));
+        assertSame(model.text(AMOUNT, 0), model.text(AMOUNT, 0));
+    }
+
+    @Test
+    void testReordersRowsWithoutTouchingTable() {
+        model.reorder(index.rows(List.of(new SortKey(AMOUNT, false)), TransactionIndex.Filter.NONE));
+        assertEquals(List.of(1, 0, 2), model);
+        assertEquals("-4.75", model.text(AMOUNT, 1));
+
+        model.reorder(index.rows(List.of(new SortKey(DATE, true)), TransactionIndex.Filter.NONE));
+        assertEquals(List.of(2, 0, 1), model);
+        assertEquals("2025-10-04", model.text(DATE, 0));
+
+        model.reorder(null);
+        assertEquals(List.of(0, 1, 2), model);
+        assertThrows(IllegalArgumentException.class, () -> model.reorder(new int[]{0}));
+    }
+
+    @Test
+    void testShowsFilteredRowsAndNotifiesTable() {
+        final AtomicInteger changes = new AtomicInteger();
+        model.addListener((ListChangeListener<Integer>) change -> {
+            while (change.next()) {
+                assertEquals(3, change.getRemovedSize());
+                assertEquals(1, change.getAddedSize());
+                changes.incrementAndGet();
+            }
+        });
+
+        model.show(index.rows(List.of(), new TransactionIndex.Filter(null, null, BigDecimal.ZERO, null)));
+
+        assertEquals(List.of(2), model);
+        assertEquals("INSTANTOVERSCHRIJVING VAN", model.text(DESCRIPTION, 0));
+        assertEquals(1, changes.get());
+    }
+
+    @Test
+    void testSortsFilteredRowsOfAppendedTable() {
+        final TransactionIndex.Filter filter = new TransactionIndex.Filter(null, null, null, BigDecimal.ZERO);
+        final List<SortKey> sortOrder = List.of(new SortKey(AMOUNT, false));
+        final TransactionIndex appended = index.append(TransactionTable.builder()
+                .add("BETALING VIA BANCONTACT", OCTOBER_3 + 2, -2000, 0, null)
+                .add("INSTANTOVERSCHRIJVING VAN", OCTOBER_3 + 3, 500, 0, null)
+                .build());
+
+        final TransactionTableModel appendedModel = new TransactionTableModel(appended, filter);
+        assertEquals(List.of(0, 1, 3), appendedModel);
+
+        appendedModel.reorder(appended.rows(sortOrder, filter));
+        assertEquals(List.of(3, 1, 0), appendedModel);
+        appendedModel.reorder(appended.rows(List.of(), filter));
+        assertEquals(List.of(0, 1, 3), appendedModel);
+    }
+}
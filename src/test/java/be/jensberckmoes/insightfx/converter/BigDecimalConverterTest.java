@@ -0,0 +1,59 @@
+package be.jensberckmoes.insightfx.converter;
+
+import be.jensberckmoes.insightfx.exception.CsvParsingException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BigDecimalConverterTest {
+
+    private static BigDecimal parseRange(final String value) {
+        final char[] chars = ("x;" + value + ";y").toCharArray();
+        return BigDecimalConverter.parseAmount(chars, 2, chars.length - 2);
+    }
+
+    @Test
+    void testRangeParsingMatchesStringParsingIncludingScale() {
+        final List<String> values = List.of("-11,6", "10", " 1250.00 ", "+5", "5,", ",5", "-0,01", "0,00",
+                "1234567890123456", "12345678901234567", "1,234", "1E3", "-00042,10");
+        for (final String value : values) {
+            final BigDecimal expected = BigDecimalConverter.parseAmount(value);
+            final BigDecimal actual = parseRange(value);
+            assertEquals(expected, actual, value);
+            assertEquals(expected.scale(), actual.scale(), value);
+        }
+    }
+
+    @Test
+    void testCentsParsingMatchesDecimalParsing() {
+        final List<String> values = List.of("-11,6", "10", " 1250.00 ", "+5", "5,", ",5", "-0,01", "0,00",
+                "1234567890123456", "12345678901234567", "1E3", "-00042,10");
+        final int[] scale = new int[1];
+        for (final String value : values) {
+            final BigDecimal expected = BigDecimalConverter.parseAmount(value);
+            final char[] chars = ("x;" + value + ";y").toCharArray();
+            final long cents = BigDecimalConverter.parseAmountCents(chars, 2, chars.length - 2, scale);
+            assertEquals(expected.movePointRight(2).longValueExact(), cents, value);
+            assertEquals(Math.max(expected.scale(), 0), scale[0], value);
+        }
+    }
+
+    @Test
+    void testCentsParsingRejectsMoreThanTwoDecimals() {
+        final char[] chars = "1,234".toCharArray();
+        assertThrows(IllegalArgumentException.class, () -> BigDecimalConverter.parseAmountCents(chars, 0, chars.length, new int[1]));
+        final char[] huge = "123456789012345678901".toCharArray();
+        assertThrows(IllegalArgumentException.class, () -> BigDecimalConverter.parseAmountCents(huge, 0, huge.length, new int[1]));
+    }
+
+    @Test
+    void testRangeParsingKeepsValidationErrors() {
+        assertEquals("Amount can't be empty", assertThrows(CsvParsingException.class, () -> parseRange("  ")).getMessage());
+        assertEquals("Amount can't be zero", assertThrows(CsvParsingException.class, () -> parseRange("-0")).getMessage());
+        assertThrows(NumberFormatException.class, () -> parseRange("12,3,4"));
+        assertThrows(NumberFormatException.class, () -> parseRange("-"));
+    }
+}
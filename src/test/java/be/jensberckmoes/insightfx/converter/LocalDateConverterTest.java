@@ -0,0 +1,40 @@
+package be.jensberckmoes.insightfx.converter;
+
+import be.jensberckmoes.insightfx.exception.CsvParsingException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalDateConverterTest {
+
+    private static long parseRange(final String value) {
+        final char[] chars = ("x;" + value + ";y").toCharArray();
+        return LocalDateConverter.parseEpochDay(chars, 2, chars.length - 2);
+    }
+
+    @Test
+    void testRangeParsingMatchesStringParsing() {
+        final List<String> values = List.of("03/10/2025", " 29/02/2024 ", "31/12/1999", "01/01/0001", "01/03/2100", "31/02/2025");
+        for (final String value : values) {
+            assertEquals(LocalDateConverter.parseDate(value).toEpochDay(), parseRange(value), value);
+        }
+        LocalDate date = LocalDate.of(1900, 1, 1);
+        while (date.getYear() < 2101) {
+            final String value = String.format("%02d/%02d/%04d", date.getDayOfMonth(), date.getMonthValue(), date.getYear());
+            assertEquals(date.toEpochDay(), parseRange(value), value);
+            date = date.plusDays(17);
+        }
+    }
+
+    @Test
+    void testRangeParsingKeepsValidationErrors() {
+        assertEquals("Date can't be empty", assertThrows(CsvParsingException.class, () -> parseRange(" ")).getMessage());
+        assertThrows(DateTimeParseException.class, () -> parseRange("2025-10-03"));
+        assertThrows(DateTimeParseException.class, () -> parseRange("32/01/2025"));
+        assertThrows(DateTimeParseException.class, () -> parseRange("1/1/2025"));
+    }
+}
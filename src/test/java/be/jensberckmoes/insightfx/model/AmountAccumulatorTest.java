@@ -0,0 +1,78 @@
+package be.jensberckmoes.insightfx.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AmountAccumulatorTest {
+
+    private static BigDecimal sumWithBigDecimal(final List<String> amounts) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (final String amount : amounts) {
+            total = total.add(new BigDecimal(amount));
+        }
+        return total;
+    }
+
+    @Test
+    void testMatchesBigDecimalSumIncludingScale() {
+        final List<String> amounts = List.of("-11.6", "-5", "10", "-4.75", "2.25", "0.1");
+        final AmountAccumulator accumulator = new AmountAccumulator();
+        amounts.forEach(amount -> accumulator.add(new BigDecimal(amount)));
+
+        final BigDecimal expected = sumWithBigDecimal(amounts);
+        assertEquals(expected, accumulator.toBigDecimal());
+        assertEquals(expected.scale(), accumulator.toBigDecimal().scale());
+        assertFalse(accumulator.isExactFallback());
+    }
+
+    @Test
+    void testEmptyAccumulatorEqualsZero() {
+        assertEquals(BigDecimal.ZERO, new AmountAccumulator().toBigDecimal());
+    }
+
+    @Test
+    void testCentsAndBigDecimalAddsAgree() {
+        final AmountAccumulator fromCents = new AmountAccumulator();
+        fromCents.addCents(-1160, 1);
+        fromCents.addCents(500, 0);
+
+        final AmountAccumulator fromAmounts = new AmountAccumulator();
+        fromAmounts.add(new BigDecimal("-11.6"));
+        fromAmounts.add(new BigDecimal("5"));
+
+        assertEquals(fromAmounts.toBigDecimal(), fromCents.toBigDecimal());
+        assertThrows(IllegalArgumentException.class, () -> fromCents.addCents(1, 3));
+    }
+
+    @Test
+    void testFallsBackToBigDecimalOnOverflowAndFinePrecision() {
+        final List<String> amounts = List.of("90000000000000000", "90000000000000000", "-0.005", "1.5");
+        final AmountAccumulator accumulator = new AmountAccumulator();
+        amounts.forEach(amount -> accumulator.add(new BigDecimal(amount)));
+
+        assertTrue(accumulator.isExactFallback());
+        assertEquals(sumWithBigDecimal(amounts), accumulator.toBigDecimal());
+
+        final AmountAccumulator overflow = new AmountAccumulator();
+        overflow.addCents(Long.MAX_VALUE - 1, 2);
+        overflow.addCents(2, 2);
+        assertEquals(BigDecimal.valueOf(Long.MAX_VALUE - 1, 2).add(BigDecimal.valueOf(2, 2)), overflow.toBigDecimal());
+    }
+
+    @Test
+    void testMergesAccumulators() {
+        final AmountAccumulator left = new AmountAccumulator();
+        left.add(new BigDecimal("-4.75"));
+        final AmountAccumulator right = new AmountAccumulator();
+        right.add(new BigDecimal("10"));
+
+        left.add(right);
+
+        assertEquals(new BigDecimal("5.25"), left.toBigDecimal());
+        assertEquals(new BigDecimal("10"), right.toBigDecimal());
+    }
+}
@@ -0,0 +1,116 @@
+package be.jensberckmoes.insightfx.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PeriodCubeTest {
+
+    private static int day(final int year, final int month, final int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+
+    private static List<String> rows(final List<CategorySummary> summaries) {
+        return summaries.stream().map(summary -> summary.getCategory() + ";" + summary.getCount() + ";" + summary.getTotal()).toList();
+    }
+
+    @Test
+    void testPeriodsFollowTheGranularity() {
+        final LocalDate first = LocalDate.of(2024, 12, 30);
+        final LocalDate last = LocalDate.of(2025, 3, 2);
+
+        final PeriodCube months = PeriodCube.builder(PeriodCube.Granularity.MONTH, first, last).build();
+        assertEquals(4, months.periodCount());
+        assertEquals(LocalDate.of(2024, 12, 1), months.periodStart(0));
+        assertEquals(LocalDate.of(2025, 3, 1), months.periodStart(3));
+        assertEquals(2, months.period(LocalDate.of(2025, 2, 28)));
+        assertEquals(-1, months.period(LocalDate.of(2025, 4, 1)));
+
+        final PeriodCube weeks = PeriodCube.builder(PeriodCube.Granularity.WEEK, first, last).build();
+        assertEquals(LocalDate.of(2024, 12, 30), weeks.periodStart(0));
+        assertEquals(LocalDate.of(2025, 2, 24), weeks.periodStart(weeks.periodCount() - 1));
+        assertEquals(1, weeks.period(LocalDate.of(2025, 1, 12)));
+        assertEquals(2, weeks.period(LocalDate.of(2025, 1, 13)));
+
+        final PeriodCube days = PeriodCube.builder(PeriodCube.Granularity.DAY, first, last).build();
+        assertEquals(63, days.periodCount());
+        assertEquals(last, days.periodStart(62));
+    }
+
+    @Test
+    void testSlicesSumTheirCells() {
+        final PeriodCube.Builder builder = PeriodCube.builder(PeriodCube.Granularity.MONTH,
+                LocalDate.of(2025, 1, 5), LocalDate.of(2025, 3, 20));
+        final int groceries = builder.category("Groceries");
+        final int income = builder.category("Income");
+        builder.add(groceries, day(2025, 1, 5), -7550, 1)
+                .add(groceries, day(2025, 1, 31), -400, 0)
+                .add(income, day(2025, 1, 25), 200000, 0)
+                .add(groceries, day(2025, 3, 20), -1025, 2)
+                .add(income, day(2025, 3, 1), 0, 0);
+        final PeriodCube cube = builder.build();
+
+        assertEquals(List.of("Groceries", "Income"), cube.categories());
+        assertEquals(2, cube.count(groceries, 0, false));
+        assertEquals(new BigDecimal("-79.5"), cube.sum(groceries, 0, false));
+        assertEquals(1, cube.count(income, 2, false));
+
+        final List<CategorySummary> january = cube.summaries(0, 0);
+        assertEquals(List.of("Groceries", "Income", "Total Income", "Total Expenses", "Balance"),
+                january.stream().map(CategorySummary::getCategory).toList());
+        assertEquals(List.of(new BigDecimal("-79.5"), new BigDecimal("2000"), new BigDecimal("2000"),
+                        new BigDecimal("-79.5"), new BigDecimal("1920.5")),
+                january.stream().map(CategorySummary::getTotal).toList());
+
+        final List<CategorySummary> february = cube.summaries(1, 1);
+        assertEquals(List.of("Total Income", "Total Expenses", "Balance"),
+                february.stream().map(CategorySummary::getCategory).toList());
+
+        final List<CategorySummary> all = cube.summaries();
+        assertEquals(List.of(3, 2), all.subList(0, 2).stream().map(CategorySummary::getCount).toList());
+        assertEquals(new BigDecimal("-89.75"), all.get(0).getTotal());
+        assertEquals(new BigDecimal("-89.75"), all.get(3).getTotal());
+        assertThrows(IllegalArgumentException.class, () -> builder.add(income, day(2025, 3, 21), 100, 0));
+    }
+
+    @Test
+    void testMergeMatchesCubeOfAllTransactions() {
+        final PeriodCube.Builder january = PeriodCube.builder(PeriodCube.Granularity.MONTH,
+                LocalDate.of(2025, 1, 5), LocalDate.of(2025, 2, 10));
+        final int janGroceries = january.category("Groceries");
+        january.add(janGroceries, day(2025, 1, 5), -7550, 1).add(janGroceries, day(2025, 2, 10), -400, 0);
+        final PeriodCube.Builder april = PeriodCube.builder(PeriodCube.Granularity.MONTH,
+                LocalDate.of(2025, 2, 1), LocalDate.of(2025, 4, 30));
+        final int income = april.category("Income");
+        final int aprGroceries = april.category("Groceries");
+        april.add(income, day(2025, 4, 30), 200000, 0).add(aprGroceries, day(2025, 2, 1), -1025, 2);
+        final PeriodCube.Builder all = PeriodCube.builder(PeriodCube.Granularity.MONTH,
+                LocalDate.of(2025, 1, 5), LocalDate.of(2025, 4, 30));
+        final int groceries = all.category("Groceries");
+        all.add(groceries, day(2025, 1, 5), -7550, 1).add(groceries, day(2025, 2, 10), -400, 0)
+                .add(all.category("Income"), day(2025, 4, 30), 200000, 0).add(groceries, day(2025, 2, 1), -1025, 2);
+        final PeriodCube expected = all.build();
+
+        final PeriodCube merged = january.build().merge(april.build());
+
+        assertEquals(expected.categories(), merged.categories());
+        assertEquals(expected.periodCount(), merged.periodCount());
+        assertEquals(expected.periodStart(0), merged.periodStart(0));
+        for (int period = 0; period < expected.periodCount(); period++) {
+            assertEquals(rows(expected.summaries(period, period)), rows(merged.summaries(period, period)));
+        }
+        assertEquals(new BigDecimal("-14.25"), merged.sum(groceries, 1, false));
+        assertEquals(rows(expected.summaries()), rows(merged.summaries()));
+
+        final PeriodCube empty = PeriodCube.builder(PeriodCube.Granularity.MONTH, null, null).build();
+        assertEquals(rows(expected.summaries()), rows(empty.merge(expected).summaries()));
+        assertEquals(rows(expected.summaries()), rows(expected.merge(empty).summaries()));
+        assertThrows(IllegalArgumentException.class,
+                () -> expected.merge(PeriodCube.builder(PeriodCube.Granularity.WEEK, null, null).build()));
+    }
+}
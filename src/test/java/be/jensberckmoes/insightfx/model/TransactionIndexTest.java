@@ -0,0 +1,134 @@
+package be.jensberckmoes.insightfx.model;
+
+import be.jensberckmoes.insightfx.model.TransactionIndex.Filter;
+import be.jensberckmoes.insightfx.model.TransactionIndex.SortKey;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.text.Collator;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static be.jensberckmoes.insightfx.model.TransactionIndex.Column.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionIndexTest {
+    private static final LocalDate OCTOBER_1 = LocalDate.of(2025, 10, 1);
+
+    private final TransactionIndex index = new TransactionIndex(TransactionTable.builder()
+            .add("Bakker", (int) OCTOBER_1.plusDays(2).toEpochDay(), -475, 2, null)
+            .add("Apotheek", (int) OCTOBER_1.toEpochDay(), -1160, 1, "Hoest")
+            .add("Bakker", (int) OCTOBER_1.plusDays(1).toEpochDay(), 1000, 0, "Terug")
+            .add("Carrefour", (int) OCTOBER_1.toEpochDay(), -475, 2, null)
+            .build());
+
+    private static List<Integer> list(final int[] rows) {
+        return Objects.isNull(rows) ? null : IntStream.of(rows).boxed().toList();
+    }
+
+    @Test
+    void testSortsOnOneColumnKeepingTiesInTableOrder() {
+        assertEquals(List.of(1, 3, 2, 0), list(index.rows(List.of(new SortKey(DATE, false)), Filter.NONE)));
+        assertEquals(List.of(0, 2, 1, 3), list(index.rows(List.of(new SortKey(DATE, true)), Filter.NONE)));
+        assertEquals(List.of(1, 0, 3, 2), list(index.rows(List.of(new SortKey(AMOUNT, false)), Filter.NONE)));
+        assertEquals(List.of(2, 0, 3, 1), list(index.rows(List.of(new SortKey(AMOUNT, true)), Filter.NONE)));
+        assertEquals(List.of(1, 0, 2, 3), list(index.rows(List.of(new SortKey(DESCRIPTION, false)), Filter.NONE)));
+        assertEquals(List.of(0, 3, 1, 2), list(index.rows(List.of(new SortKey(COMMENTS, false)), Filter.NONE)));
+        assertNull(index.rows(List.of(), Filter.NONE));
+    }
+
+    @Test
+    void testAppendedIndexMatchesIndexOfCombinedTable() {
+        final TransactionTable later = TransactionTable.builder()
+                .add("Apotheek", (int) OCTOBER_1.plusDays(2).toEpochDay(), -475, 2, "Hoest")
+                .add("Slager", (int) OCTOBER_1.plusDays(4).toEpochDay(), -1160, 1, null)
+                .build();
+        final TransactionIndex appended = new TransactionIndex(index.table()).prepare(DATE, AMOUNT).append(later);
+        final TransactionTable combined = TransactionTable.builder().addAll(index.table()).addAll(later).build();
+        final TransactionIndex expected = new TransactionIndex(combined);
+
+        assertEquals(combined.asRecords(), appended.table().asRecords());
+        assertEquals(combined.poolSize(), appended.table().poolSize());
+        final Filter spending = new Filter(OCTOBER_1.plusDays(1), null, null, new BigDecimal("-1"));
+        for (final TransactionIndex.Column column : TransactionIndex.Column.values()) {
+            for (final boolean descending : new boolean[]{false, true}) {
+                final List<SortKey> sortOrder = List.of(new SortKey(column, descending));
+                assertEquals(list(expected.rows(sortOrder, Filter.NONE)), list(appended.rows(sortOrder, Filter.NONE)), column.name());
+                assertEquals(list(expected.rows(sortOrder, spending)), list(appended.rows(sortOrder, spending)), column.name());
+            }
+        }
+    }
+
+    @Test
+    void testSortsTextLikeTheTableColumnIgnoringCaseAndAccents() {
+        final int day = (int) OCTOBER_1.toEpochDay();
+        final TransactionIndex text = new TransactionIndex(TransactionTable.builder()
+                .add("zee", day, -100, 2, "Étude")
+                .add("Éclair", day, -100, 2, "eten")
+                .add("apotheek", day, -100, 2, "Zorg")
+                .add("Bakker", day, -100, 2, "apotheek")
+                .build());
+
+        assertEquals(List.of(2, 3, 1, 0), list(text.rows(List.of(new SortKey(DESCRIPTION, false)), Filter.NONE)));
+        assertEquals(List.of(3, 1, 0, 2), list(text.rows(List.of(new SortKey(COMMENTS, false)), Filter.NONE)));
+    }
+
+    @Test
+    void testSnapshotSharesBuiltIndexesWithoutChangingTheOriginal() {
+        final TransactionIndex prepared = new TransactionIndex(index.table()).prepare(DATE);
+        final TransactionIndex snapshot = prepared.snapshot();
+        final List<SortKey> byDate = List.of(new SortKey(DATE, false));
+
+        assertSame(prepared.rows(byDate, Filter.NONE), snapshot.rows(byDate, Filter.NONE));
+        assertEquals(list(prepared.rows(List.of(new SortKey(AMOUNT, false)), Filter.NONE)),
+                list(snapshot.rows(List.of(new SortKey(AMOUNT, false)), Filter.NONE)));
+    }
+
+    @Test
+    void testSortsOnSeveralColumns() {
+        assertEquals(List.of(1, 0, 2, 3), list(index.rows(
+                List.of(new SortKey(DESCRIPTION, false), new SortKey(DATE, true)), Filter.NONE)));
+        assertEquals(List.of(3, 1, 2, 0), list(index.rows(
+                List.of(new SortKey(DATE, false), new SortKey(AMOUNT, true)), Filter.NONE)));
+    }
+
+    @Test
+    void testFiltersOnDateAndAmountRanges() {
+        final Filter october2 = new Filter(OCTOBER_1.plusDays(1), OCTOBER_1.plusDays(5), null, null);
+        assertEquals(List.of(0, 2), list(index.rows(List.of(), october2)));
+        assertEquals(List.of(2, 0), list(index.rows(List.of(new SortKey(AMOUNT, true)), october2)));
+
+        final Filter spending = new Filter(null, null, new BigDecimal("-11.60"), new BigDecimal("-4.75"));
+        assertEquals(List.of(0, 1, 3), list(index.rows(List.of(), spending)));
+
+        final Filter both = new Filter(null, OCTOBER_1, new BigDecimal("-5"), new BigDecimal("-0.01"));
+        assertEquals(List.of(3), list(index.rows(List.of(new SortKey(DATE, false)), both)));
+
+        final Filter none = new Filter(OCTOBER_1.plusDays(3), OCTOBER_1, null, null);
+        assertEquals(List.of(), list(index.rows(List.of(), none)));
+    }
+
+    @Test
+    void testMatchesComparatorSortOnRandomRows() {
+        final Random random = new Random(7);
+        final TransactionTable.Builder builder = TransactionTable.builder();
+        for (int i = 0; i < 5_000; i++) {
+            builder.add("Omschrijving " + random.nextInt(50), 20_000 + random.nextInt(60),
+                    random.nextLong(-1_000_000, 1_000_000), 2, random.nextBoolean() ? null : "Vrije tekst " + random.nextInt(20));
+        }
+        final TransactionTable table = builder.build();
+        final TransactionIndex randomIndex = new TransactionIndex(table);
+
+        final Comparator<Integer> expected = Comparator.<Integer>comparingLong(table::amountCents).reversed()
+                .thenComparing(table::description, Collator.getInstance())
+                .thenComparingInt(table::epochDay);
+        final List<Integer> rows = list(randomIndex.rows(List.of(new SortKey(AMOUNT, true),
+                new SortKey(DESCRIPTION, false), new SortKey(DATE, false)), Filter.NONE));
+
+        assertEquals(IntStream.range(0, table.size()).boxed().sorted(expected).toList(), rows);
+    }
+}
@@ -0,0 +1,125 @@
+package be.jensberckmoes.insightfx.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionTableTest {
+
+    private static DataRecord rec(final String desc, final String amount, final String comments) {
+        return new DataRecord(desc, LocalDate.of(2025, 10, 3), new BigDecimal(amount), comments);
+    }
+
+    @Test
+    void testRoundTripsRecordsExactly() {
+        final List<DataRecord> records = List.of(
+                rec("INSTANTOVERSCHRIJVING NAAR", "-11.6", "Terugstorten"),
+                rec("BETALING VIA BANCONTACT", "-5", ""),
+                rec("BIJDRAGE", "-4.75", null),
+                rec("INSTANTOVERSCHRIJVING VAN", "10", "Dokter?")
+        );
+
+        final TransactionTable table = TransactionTable.of(records);
+
+        assertEquals(4, table.size());
+        assertEquals(records, table.asRecords());
+        assertEquals(-1160, table.amountCents(0));
+        assertEquals(1, table.amountScale(0));
+        assertEquals(LocalDate.of(2025, 10, 3).toEpochDay(), table.epochDay(2));
+        assertNull(table.comments(2));
+    }
+
+    @Test
+    void testRoundTripsStatementColumns() {
+        final List<DataRecord> records = List.of(
+                new DataRecord("BIJDRAGE", LocalDate.of(2025, 10, 3), new BigDecimal("-4.75"), null, "2025210", LocalDate.of(2025, 10, 2), "Delhaize"),
+                rec("BETALING VIA BANCONTACT", "-5", ""));
+
+        final TransactionTable table = TransactionTable.of(records);
+
+        assertEquals(records, table.asRecords());
+        assertEquals("2025210", table.statementNumber(0));
+        assertEquals(-1, table.statementId(1));
+        assertNull(table.bookingDate(1));
+    }
+
+    @Test
+    void testSnapshotRoundTrip() throws IOException {
+        final TransactionTable.Builder builder = TransactionTable.builder();
+        final long[] centsPerUnit = {100, 10, 1};
+        for (int i = 0; i < 100_000; i++) {
+            builder.add("Omschrijving " + (i % 997) + " café", 20_000 + i % 365, (i * 7L - 350_000) * centsPerUnit[i % 3], i % 3,
+                    i % 4 == 0 ? null : "c" + (i % 11), "2025" + (i % 50), i % 5 == 0 ? Integer.MIN_VALUE : 20_000 + i % 30, "Tegenpartij " + (i % 13));
+        }
+        final TransactionTable table = builder.build();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.writeTo(Channels.newChannel(out));
+        final byte[] bytes = out.toByteArray();
+
+        final TransactionTable read = TransactionTable.readFrom(ByteBuffer.wrap(bytes));
+
+        assertEquals(table.asRecords(), read.asRecords());
+        assertEquals(table.poolSize(), read.poolSize());
+        assertThrows(IllegalArgumentException.class, () -> TransactionTable.readFrom(ByteBuffer.wrap(bytes, 0, bytes.length - 5)));
+        bytes[0] = 'X';
+        assertThrows(IllegalArgumentException.class, () -> TransactionTable.readFrom(ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    void testPoolsRepeatedStrings() {
+        final TransactionTable table = TransactionTable.of(List.of(
+                rec("BETALING VIA BANCONTACT", "-5", "x"),
+                rec("BETALING VIA BANCONTACT", "-6", "x"),
+                rec("BETALING VIA MAESTRO", "-7", "x")
+        ));
+
+        assertEquals(table.descriptionId(0), table.descriptionId(1));
+        assertNotEquals(table.descriptionId(0), table.descriptionId(2));
+        assertEquals(3, table.poolSize());
+    }
+
+    @Test
+    void testParallelCollectorKeepsEncounterOrder() {
+        final List<DataRecord> records = IntStream.range(0, 10_000)
+                .mapToObj(i -> rec("Omschrijving " + (i % 37), (i + 1) + ".5", "c" + (i % 5)))
+                .toList();
+
+        final TransactionTable table = records.parallelStream().collect(TransactionTable.collector());
+
+        assertEquals(records, table.asRecords());
+    }
+
+    @Test
+    void testRejectsAmountsWithMoreThanTwoDecimals() {
+        final TransactionTable.Builder builder = TransactionTable.builder();
+
+        assertThrows(IllegalArgumentException.class, () -> builder.add(rec("x", "1.005", null)));
+    }
+
+    @Test
+    void testRejectsCentsThatDoNotMatchTheScale() {
+        final TransactionTable.Builder builder = TransactionTable.builder();
+
+        assertThrows(IllegalArgumentException.class, () -> builder.add("x", 20_000, 1005, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("x", 20_000, -1010, 0, null));
+        final TransactionTable table = builder.add("x", 20_000, -1010, 1, null).add("x", 20_000, 1000, 0, null).build();
+        assertEquals(new BigDecimal("-10.1"), table.amount(0));
+        assertEquals(new BigDecimal("10"), table.amount(1));
+    }
+
+    @Test
+    void testRowIndexIsBoundsChecked() {
+        final TransactionTable table = TransactionTable.of(List.of(rec("x", "1", null)));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> table.amount(1));
+    }
+}
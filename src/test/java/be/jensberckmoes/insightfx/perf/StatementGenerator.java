@@ -0,0 +1,201 @@
+package be.jensberckmoes.insightfx.perf;
+
+import be.jensberckmoes.insightfx.service.CategoryRules;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of bank statement exports, in the same layout as the bank's CSV files.
+ *
+ * <p>The same seed always produces the same file, so performance numbers can be compared across runs and
+ * machines. A configurable fraction of the descriptions contains one of the keywords of the
+ * {@linkplain CategoryRules#defaults() default category rules}; the others are built from words that match no
+ * rule. Descriptions end in a reference drawn from a limited set, so, as in real statements, descriptions
+ * repeat without being identical.</p>
+ *
+ * <p>With messy fields enabled, the output also has the quirks of real exports that stress the parser: fields
+ * padded with spaces to a fixed width, and comments that are quoted because they contain the separator,
+ * quotes or line breaks.</p>
+ */
+public final class StatementGenerator {
+    public static final String HEADER = "Rekeningnummer;Rubrieknaam;Naam;Munt;Afschriftnummer;Datum;Omschrijving;Valuta;"
+            + "Bedrag;Saldo;credit;debet;rekeningnummer tegenpartij;BIC tegenpartij;Naam tegenpartij;Adres tegenpartij;"
+            + "gestructureerde mededeling;Vrije mededeling";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+    private static final int DAYS = 5 * 365;
+    private static final int DISTINCT_REFERENCES = 500;
+    private static final int INCOME_PERCENTAGE = 5;
+
+    private static final String[] OPERATIONS = {
+            "BETALING VIA KAART", "INSTANTOVERSCHRIJVING NAAR", "DOMICILIERING", "OVERSCHRIJVING NAAR", "BETALING MET GSM"
+    };
+    private static final String[] NEUTRAL_MERCHANTS = {
+            "BAKKERIJ PEETERS", "SLAGERIJ VERMEULEN", "KAPSALON NINO", "FIETSPUNT GENK", "GEMEENTE HASSELT",
+            "BOEKHANDEL CORNELIS", "APOTHEEK DE LINDE", "TUINCENTRUM WOUTERS", "RESTO DE BRUG", "SPORTHAL BREE"
+    };
+    private static final String[] CITIES = {"HASSELT", "GENK", "LEUVEN", "GENT", "ANTWERPEN", "BRUSSEL"};
+    private static final String[] COMMENTS = {"", "", "", "Terugstorten", "Huur", "Factuur 2024-113", "Cadeau verjaardag"};
+    private static final String[] QUOTED_COMMENTS = {
+            "\"Huur; garage inbegrepen\"", "\"Cadeau \"\"verjaardag\"\" oma\"", "\"Factuur 2024-113\nZie bijlage\"",
+            "\"Terugbetaling\r\nvoorschot; deel 2\""
+    };
+    private static final int DESCRIPTION_WIDTH = 37;
+    private static final int NAME_WIDTH = 50;
+    private static final int QUOTED_COMMENT_ONE_IN = 20;
+
+    private final long seed;
+    private final double keywordHitRatio;
+    private final boolean messyFields;
+    private final List<String> keywords;
+
+    /**
+     * Creates a generator of tidy statements: no padding and no quoted fields.
+     *
+     * @param seed            seed of the pseudo-random sequence
+     * @param keywordHitRatio fraction, between 0 and 1, of descriptions that contain a category keyword
+     */
+    public StatementGenerator(final long seed, final double keywordHitRatio) {
+        this(seed, keywordHitRatio, false);
+    }
+
+    /**
+     * @param seed            seed of the pseudo-random sequence
+     * @param keywordHitRatio fraction, between 0 and 1, of descriptions that contain a category keyword
+     * @param messyFields     whether to pad fields and quote comments with separators, quotes and line breaks
+     */
+    public StatementGenerator(final long seed, final double keywordHitRatio, final boolean messyFields) {
+        if (keywordHitRatio < 0 || keywordHitRatio > 1) throw new IllegalArgumentException("Hit ratio must be between 0 and 1");
+        this.seed = seed;
+        this.keywordHitRatio = keywordHitRatio;
+        this.messyFields = messyFields;
+        this.keywords = CategoryRules.defaults().rules().stream()
+                .filter(rule -> rule.type() == CategoryRules.RuleType.KEYWORD)
+                .map(CategoryRules.Rule::pattern)
+                .toList();
+    }
+
+    /**
+     * Writes a statement export with the given number of transactions.
+     *
+     * @param out  the target; not closed
+     * @param rows the number of transactions
+     * @throws IOException if writing fails
+     */
+    public void write(final Appendable out, final int rows) throws IOException {
+        final SplittableRandom random = new SplittableRandom(seed);
+        final StringBuilder line = new StringBuilder(256);
+        out.append(HEADER).append('\n');
+        long balanceCents = 250_000;
+        for (int i = 0; i < rows; i++) {
+            line.setLength(0);
+            balanceCents += appendRow(line, random, i, rows, balanceCents);
+            out.append(line).append('\n');
+        }
+    }
+
+    /**
+     * Writes a statement export to a file, replacing it if it exists.
+     *
+     * @param file the target file
+     * @param rows the number of transactions
+     * @return the file
+     */
+    public Path writeTo(final Path file, final int rows) {
+        try (final BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            write(writer, rows);
+            return file;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a statement export to a string; meant for small inputs.
+     *
+     * @param rows the number of transactions
+     * @return the CSV text
+     */
+    public String generate(final int rows) {
+        final StringBuilder out = new StringBuilder(rows * 200 + HEADER.length());
+        try {
+            write(out, rows);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private long appendRow(final StringBuilder line, final SplittableRandom random, final int index, final int rows,
+                           final long balanceCents) {
+        // Transactions are spread evenly over the period, so rows come out in date order.
+        final LocalDate currencyDate = FIRST_DAY.plusDays((long) index * DAYS / Math.max(rows, 1));
+        final LocalDate bookingDate = currencyDate.plusDays(random.nextInt(3));
+        final boolean income = random.nextInt(100) < INCOME_PERCENTAGE;
+        final long cents = income ? 150_000 + random.nextInt(250_000) : -(100 + random.nextLong(40_000));
+        final String amount = format(cents);
+        final String counterparty = pick(random, NEUTRAL_MERCHANTS);
+
+        line.append("BE68 5390 0754 7034;Zichtrekening;J BERCKMOES;EUR;")
+                .append(currencyDate.getYear() * 1000 + currencyDate.getDayOfYear() / 7 + 1).append(';')
+                .append(bookingDate.format(DATE_FORMAT)).append(';');
+        final int descriptionStart = line.length();
+        appendDescription(line, random);
+        pad(line, descriptionStart, DESCRIPTION_WIDTH);
+        line.append(';')
+                .append(currencyDate.format(DATE_FORMAT)).append(';')
+                .append(amount).append(';')
+                .append(format(balanceCents + cents)).append(';')
+                .append(income ? amount : "").append(';')
+                .append(income ? "" : amount).append(';')
+                .append("BE").append(10 + random.nextInt(90)).append(" 0000 ").append(1000 + random.nextInt(9000)).append(" 0000;")
+                .append("GEBABEBB;");
+        final int counterpartyStart = line.length();
+        line.append(counterparty);
+        pad(line, counterpartyStart, NAME_WIDTH);
+        line.append(';')
+                .append(pick(random, CITIES)).append(';')
+                .append(random.nextInt(4) == 0 ? "+++090/9337/55493+++" : "").append(';')
+                .append(messyFields && random.nextInt(QUOTED_COMMENT_ONE_IN) == 0
+                        ? pick(random, QUOTED_COMMENTS)
+                        : pick(random, COMMENTS));
+        return cents;
+    }
+
+    private void appendDescription(final StringBuilder line, final SplittableRandom random) {
+        line.append(pick(random, OPERATIONS)).append(' ');
+        if (random.nextDouble() < keywordHitRatio) {
+            line.append(keywords.get(random.nextInt(keywords.size())).toUpperCase(Locale.ROOT));
+        } else {
+            line.append(pick(random, NEUTRAL_MERCHANTS));
+        }
+        line.append(' ').append(pick(random, CITIES)).append(" REF ").append(100_000 + random.nextInt(DISTINCT_REFERENCES));
+    }
+
+    private void pad(final StringBuilder line, final int fieldStart, final int width) {
+        if (!messyFields) return;
+        while (line.length() - fieldStart < width) {
+            line.append(' ');
+        }
+    }
+
+    private static String format(final long cents) {
+        return BigDecimal.valueOf(cents, 2).stripTrailingZeros().toPlainString().replace('.', ',');
+    }
+
+    private static String pick(final SplittableRandom random, final String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
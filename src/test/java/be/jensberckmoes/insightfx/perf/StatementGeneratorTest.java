@@ -0,0 +1,65 @@
+package be.jensberckmoes.insightfx.perf;
+
+import be.jensberckmoes.insightfx.model.CategorySummary;
+import be.jensberckmoes.insightfx.model.DataRecord;
+import be.jensberckmoes.insightfx.service.AnalysisService;
+import be.jensberckmoes.insightfx.service.CsvParserService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementGeneratorTest {
+    private final CsvParserService parser = new CsvParserService();
+    private final AnalysisService analysisService = new AnalysisService();
+
+    private List<DataRecord> parse(final String csv) {
+        return parser.parse(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Map<String, CategorySummary> analyse(final double keywordHitRatio) {
+        return analysisService.analyse(parse(new StatementGenerator(7, keywordHitRatio).generate(1_000))).stream()
+                .collect(Collectors.toMap(CategorySummary::getCategory, summary -> summary));
+    }
+
+    @Test
+    void testSameSeedGeneratesSameStatement() {
+        assertEquals(new StatementGenerator(42, 0.5).generate(500), new StatementGenerator(42, 0.5).generate(500));
+        assertNotEquals(new StatementGenerator(42, 0.5).generate(500), new StatementGenerator(43, 0.5).generate(500));
+    }
+
+    @Test
+    void testGeneratedStatementParses() {
+        final List<DataRecord> records = parse(new StatementGenerator(42, 0).generate(2_000));
+
+        assertEquals(2_000, records.size());
+        assertTrue(records.stream().allMatch(record -> record.getStatementNumber().startsWith("20")));
+        assertFalse(records.getLast().getCurrencyDate().isBefore(records.getFirst().getCurrencyDate()));
+    }
+
+    @Test
+    void testMessyStatementParses() {
+        final String csv = new StatementGenerator(42, 0, true).generate(2_000);
+        final List<DataRecord> records = parse(csv);
+
+        assertTrue(csv.contains("                    ;"));
+        assertEquals(2_000, records.size());
+        assertTrue(records.stream().anyMatch(record -> record.getComments().contains("\n")));
+        assertTrue(records.stream().anyMatch(record -> record.getComments().equals("Cadeau \"verjaardag\" oma")));
+        assertTrue(records.stream().noneMatch(record -> record.getDescription().endsWith(" ")));
+    }
+
+    @Test
+    void testKeywordHitRatio() {
+        final Map<String, CategorySummary> noHits = analyse(0);
+        assertEquals(1_000, noHits.get("Other").getCount());
+
+        final Map<String, CategorySummary> allHits = analyse(1);
+        assertNull(allHits.get("Other"));
+    }
+}
@@ -2,11 +2,16 @@ package be.jensberckmoes.insightfx.service;
 
 import be.jensberckmoes.insightfx.model.CategorySummary;
 import be.jensberckmoes.insightfx.model.DataRecord;
+import be.jensberckmoes.insightfx.model.PeriodCube;
+import be.jensberckmoes.insightfx.model.TransactionTable;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -15,6 +20,8 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class AnalysisServiceTest {
@@ -112,4 +119,235 @@ public class AnalysisServiceTest {
         assertEquals(new BigDecimal("-10"), map.get("Total Expenses").getTotal());
         assertEquals(new BigDecimal("-10"), map.get("Balance").getTotal());
     }
+
+    @Test
+    void testAnalyseUsesFirstDeclaredCategoryWhenSeveralKeywordsMatch() {
+        final List<DataRecord> records = List.of(
+                rec("Shell shop Delhaize", new BigDecimal("-20"))
+        );
+
+        final Map<String, CategorySummary> map = toMap(service.analyse(records));
+
+        assertEquals(new BigDecimal("-20"), map.get("Groceries").getTotal());
+        assertFalse(map.containsKey("Transport"));
+    }
+
+    @Test
+    void testAnalyseStreamMatchesAnalyseList() {
+        final List<DataRecord> records = List.of(
+                rec("Torfs schoenen", new BigDecimal("-50")),
+                rec("Therapie sessie", new BigDecimal("-100")),
+                rec("Salary October", new BigDecimal("2000")),
+                rec("Random description", new BigDecimal("-10"))
+        );
+
+        final List<CategorySummary> fromList = service.analyse(records);
+        final List<CategorySummary> fromStream = service.analyse(records.stream());
+
+        assertEquals(fromList.stream().map(CategorySummary::getCategory).toList(),
+                fromStream.stream().map(CategorySummary::getCategory).toList());
+        assertEquals(fromList.stream().map(CategorySummary::getTotal).toList(),
+                fromStream.stream().map(CategorySummary::getTotal).toList());
+    }
+
+    @Test
+    void testAnalyseTransactionTableMatchesAnalyseList() {
+        final List<DataRecord> records = List.of(
+                rec("AH boodschappen", new BigDecimal("-75.5")),
+                rec("AH boodschappen", new BigDecimal("-4")),
+                rec("Salary October", new BigDecimal("2000")),
+                rec("Random description", new BigDecimal("-10.25"))
+        );
+
+        final List<CategorySummary> fromList = service.analyse(records);
+        final List<CategorySummary> fromTable = service.analyse(TransactionTable.of(records));
+
+        assertEquals(fromList.stream().map(CategorySummary::getCategory).toList(),
+                fromTable.stream().map(CategorySummary::getCategory).toList());
+        assertEquals(fromList.stream().map(CategorySummary::getTotal).toList(),
+                fromTable.stream().map(CategorySummary::getTotal).toList());
+        assertEquals(fromList.stream().map(CategorySummary::getCount).toList(),
+                fromTable.stream().map(CategorySummary::getCount).toList());
+    }
+
+    @Test
+    void testCubeMatchesAnalysisAndSlicesByMonth() {
+        final LocalDate january = LocalDate.of(2025, 1, 15);
+        final LocalDate march = LocalDate.of(2025, 3, 2);
+        final List<DataRecord> records = List.of(
+                new DataRecord("AH boodschappen", january, new BigDecimal("-75.5"), ""),
+                new DataRecord("Salary January", january, new BigDecimal("2000"), ""),
+                new DataRecord("AH boodschappen", march, new BigDecimal("-4"), ""),
+                new DataRecord("Random description", march, new BigDecimal("-10.25"), ""));
+        final TransactionTable table = TransactionTable.of(records);
+
+        final PeriodCube cube = service.cube(table, PeriodCube.Granularity.MONTH);
+        final List<CategorySummary> full = service.analyse(table);
+        final List<CategorySummary> all = cube.summaries();
+
+        assertEquals(3, cube.periodCount());
+        assertEquals(full.stream().map(CategorySummary::getCategory).toList(),
+                all.stream().map(CategorySummary::getCategory).toList());
+        assertEquals(full.stream().map(CategorySummary::getTotal).toList(),
+                all.stream().map(CategorySummary::getTotal).toList());
+        assertEquals(full.stream().map(CategorySummary::getCount).toList(),
+                all.stream().map(CategorySummary::getCount).toList());
+
+        final Map<String, CategorySummary> inMarch = toMap(cube.summaries(2, 2));
+        assertEquals(new BigDecimal("-4"), inMarch.get("Groceries").getTotal());
+        assertEquals(1, inMarch.get("Groceries").getCount());
+        assertFalse(inMarch.containsKey("Income"));
+        assertEquals(new BigDecimal("-14.25"), inMarch.get("Balance").getTotal());
+        assertEquals(0, service.cube(TransactionTable.empty(), PeriodCube.Granularity.WEEK).periodCount());
+    }
+
+    @Test
+    void testAnalyseParallelMatchesSequentialAnalysis() {
+        final String[] descriptions = {"AH boodschappen", "Netflix abonnement", "Salary", "Random description", "Shell tankstation", "Uitkering"};
+        final TransactionTable.Builder builder = TransactionTable.builder();
+        final int epochDay = (int) LocalDate.of(2025, 1, 1).toEpochDay();
+        final long[] centsPerUnit = {100, 10, 1};
+        for (int row = 0; row < 300_000; row++) {
+            final int scale = row % 3;
+            builder.add(descriptions[row % descriptions.length] + " " + (row % 97), epochDay,
+                    ((row % 13 - 6) * 125L + 1) * centsPerUnit[scale], scale, null);
+        }
+        builder.add("Rode kruis gift", epochDay, -2500, 0, null);
+        final TransactionTable table = builder.build();
+
+        final List<CategorySummary> sequential = service.analyse(table);
+        final List<CategorySummary> parallel = service.analyseParallel(table);
+
+        assertEquals(sequential.stream().map(CategorySummary::getCategory).toList(),
+                parallel.stream().map(CategorySummary::getCategory).toList());
+        assertEquals(sequential.stream().map(CategorySummary::getTotal).toList(),
+                parallel.stream().map(CategorySummary::getTotal).toList());
+        assertEquals(sequential.stream().map(CategorySummary::getCount).toList(),
+                parallel.stream().map(CategorySummary::getCount).toList());
+        assertEquals("Charitable contribution", parallel.get(parallel.size() - 4).getCategory());
+    }
+
+    @Test
+    void testAnalyseParallelListMatchesSequentialAnalysis() {
+        final String[] descriptions = {"AH boodschappen", "Netflix abonnement", "Salary", "Random description", "Shell tankstation"};
+        final List<DataRecord> records = new ArrayList<>();
+        for (int row = 0; row < 150_000; row++) {
+            records.add(rec(descriptions[row % descriptions.length] + " " + (row % 89),
+                    BigDecimal.valueOf((row % 17 - 8) * 37L + 3, row % 3)));
+        }
+
+        final List<CategorySummary> sequential = service.analyse(records);
+        final List<CategorySummary> parallel = service.analyseParallel(records);
+
+        assertEquals(sequential.stream().map(CategorySummary::getCategory).toList(),
+                parallel.stream().map(CategorySummary::getCategory).toList());
+        assertEquals(sequential.stream().map(CategorySummary::getTotal).toList(),
+                parallel.stream().map(CategorySummary::getTotal).toList());
+        assertEquals(sequential.stream().map(CategorySummary::getCount).toList(),
+                parallel.stream().map(CategorySummary::getCount).toList());
+    }
+
+    @Test
+    void testIncrementalAnalysisMatchesFullAnalysisAndSkipsKnownStatements() {
+        final LocalDate day = LocalDate.of(2025, 10, 3);
+        final List<DataRecord> monday = List.of(
+                new DataRecord("AH boodschappen", day, new BigDecimal("-75.5"), "", "2025210", day, null),
+                new DataRecord("Salary October", day, new BigDecimal("2000"), "", "2025210", day, null));
+        final List<DataRecord> tuesday = List.of(
+                new DataRecord("Netflix", day.plusDays(1), new BigDecimal("-12.99"), "", "2025211", day.plusDays(1), null),
+                new DataRecord("Random description", day.plusDays(1), new BigDecimal("-10.25"), "", "2025211", day.plusDays(1), null));
+
+        final AnalysisService.IncrementalAnalysis incremental = service.incremental();
+        assertEquals(2, incremental.append(monday).size());
+        assertEquals(2, incremental.append(tuesday).size());
+        assertEquals(0, incremental.append(monday).size());
+
+        final List<DataRecord> all = new ArrayList<>(monday);
+        all.addAll(tuesday);
+        final List<CategorySummary> full = service.analyse(all);
+        final List<CategorySummary> summaries = incremental.summaries();
+
+        assertEquals(4, incremental.recordCount());
+        assertEquals(full.stream().map(CategorySummary::getCategory).toList(),
+                summaries.stream().map(CategorySummary::getCategory).toList());
+        assertEquals(full.stream().map(CategorySummary::getTotal).toList(),
+                summaries.stream().map(CategorySummary::getTotal).toList());
+        assertEquals(full.stream().map(CategorySummary::getCount).toList(),
+                summaries.stream().map(CategorySummary::getCount).toList());
+    }
+
+    @Test
+    void testIncrementalCubeKeepsTheCategoriesOfEachBatch() throws IOException {
+        final LocalDate january = LocalDate.of(2025, 1, 15);
+        final LocalDate march = LocalDate.of(2025, 3, 2);
+        final AnalysisService.IncrementalAnalysis incremental = service.incremental(PeriodCube.Granularity.MONTH);
+        incremental.append(TransactionTable.of(List.of(
+                new DataRecord("AH boodschappen", january, new BigDecimal("-75.5"), ""),
+                new DataRecord("Salary January", january, new BigDecimal("2000"), ""))));
+        service.useRules(CategoryRules.parse(new StringReader("10;Supermarket;keyword;AH\n")));
+        incremental.append(TransactionTable.of(List.of(
+                new DataRecord("AH boodschappen", march, new BigDecimal("-4"), ""))));
+
+        final PeriodCube cube = incremental.cube();
+        final List<CategorySummary> summaries = incremental.summaries();
+
+        assertEquals(3, cube.periodCount());
+        assertEquals(toMap(summaries).keySet(), toMap(cube.summaries()).keySet());
+        for (final CategorySummary summary : cube.summaries()) {
+            assertEquals(toMap(summaries).get(summary.getCategory()).getTotal(), summary.getTotal());
+            assertEquals(toMap(summaries).get(summary.getCategory()).getCount(), summary.getCount());
+        }
+        assertEquals(new BigDecimal("-75.5"), toMap(cube.summaries(0, 0)).get("Groceries").getTotal());
+        assertEquals(new BigDecimal("-4"), toMap(cube.summaries(2, 2)).get("Supermarket").getTotal());
+        assertFalse(toMap(cube.summaries(2, 2)).containsKey("Groceries"));
+    }
+
+    @Test
+    void testIncrementalCubeOfLargeBatchMatchesSequentialAnalysis() {
+        final String[] descriptions = {"AH boodschappen", "Netflix abonnement", "Salary", "Random description", "Shell tankstation"};
+        final int epochDay = (int) LocalDate.of(2025, 1, 1).toEpochDay();
+        final TransactionTable.Builder builder = TransactionTable.builder();
+        final TransactionTable.Builder february = TransactionTable.builder();
+        for (int row = 0; row < 250_000; row++) {
+            final int day = epochDay + row % 90;
+            final long cents = (row % 13 - 6) * 125L + 1;
+            builder.add(descriptions[row % descriptions.length] + " " + (row % 83), day, cents, 2, null);
+            if (LocalDate.ofEpochDay(day).getMonthValue() == 2) {
+                february.add(descriptions[row % descriptions.length] + " " + (row % 83), day, cents, 2, null);
+            }
+        }
+        final TransactionTable table = builder.build();
+
+        final AnalysisService.IncrementalAnalysis incremental = service.incremental();
+        incremental.append(table);
+        final PeriodCube cube = incremental.cube();
+
+        assertEquals(250_000, incremental.recordCount());
+        assertEquals(rows(service.analyse(table)), rows(incremental.summaries()));
+        // A slice lists the categories in the order of the whole cube.
+        assertEquals(rows(service.analyse(february.build())).stream().sorted().toList(),
+                rows(cube.summaries(1, 1)).stream().sorted().toList());
+    }
+
+    private static List<String> rows(final List<CategorySummary> summaries) {
+        return summaries.stream().map(summary -> summary.getCategory() + ";" + summary.getCount() + ";" + summary.getTotal()).toList();
+    }
+
+    @Test
+    void testFailedBatchDoesNotMarkItsStatementsAsKnown() {
+        final LocalDate day = LocalDate.of(2025, 10, 3);
+        final BigDecimal largest = new BigDecimal("92233720368547758.07");
+        final List<DataRecord> overflowing = List.of(
+                new DataRecord("AH boodschappen", day, largest, "", "2025210", day, null),
+                new DataRecord("AH boodschappen", day, largest, "", "2025210", day, null));
+        final List<DataRecord> corrected = List.of(
+                new DataRecord("AH boodschappen", day, new BigDecimal("-75.5"), "", "2025210", day, null));
+
+        final AnalysisService.IncrementalAnalysis incremental = service.incremental();
+        assertThrows(ArithmeticException.class, () -> incremental.append(overflowing));
+
+        assertEquals(0, incremental.recordCount());
+        assertEquals(1, incremental.append(corrected).size());
+        assertEquals(new BigDecimal("-75.5"), toMap(incremental.summaries()).get("Groceries").getTotal());
+    }
 }
@@ -0,0 +1,43 @@
+package be.jensberckmoes.insightfx.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CategoryCacheTest {
+
+    @Test
+    void testComputesOncePerTrimmedDescription() {
+        final CategoryCache<String> cache = new CategoryCache<>(64);
+        final AtomicInteger calls = new AtomicInteger();
+        final Function<String, String> categoriser = description -> {
+            calls.incrementAndGet();
+            return description.startsWith("AH") ? "Groceries" : "Other";
+        };
+
+        assertEquals("Groceries", cache.get("AH Hasselt", categoriser));
+        assertEquals("Groceries", cache.get("  AH Hasselt ", categoriser));
+        assertEquals("Other", cache.get("BETALING VIA BANCONTACT", categoriser));
+
+        final CategoryCache.Stats stats = cache.stats();
+        assertEquals(2, calls.get());
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(1.0 / 3, stats.hitRate(), 1e-9);
+    }
+
+    @Test
+    void testStaysWithinMaximumSize() {
+        final CategoryCache<String> cache = new CategoryCache<>(32);
+
+        IntStream.range(0, 1_000).parallel().forEach(i -> cache.get("Omschrijving " + i, _ -> "Other"));
+
+        final CategoryCache.Stats stats = cache.stats();
+        assertTrue(stats.size() <= 32, "size " + stats.size());
+        assertEquals(1_000 - stats.size(), stats.evictions());
+    }
+}
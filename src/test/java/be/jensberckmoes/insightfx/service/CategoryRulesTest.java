@@ -0,0 +1,109 @@
+package be.jensberckmoes.insightfx.service;
+
+import be.jensberckmoes.insightfx.model.CategorySummary;
+import be.jensberckmoes.insightfx.model.DataRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CategoryRulesTest {
+
+    private static CategoryRules parse(final String text) throws IOException {
+        return CategoryRules.parse(new StringReader(text));
+    }
+
+    @Test
+    void testDefaultsKeepDeclarationOrderPriority() {
+        final CategoryRules rules = CategoryRules.defaults();
+
+        assertEquals("Groceries", rules.categorise("AH Salary bonus", null));
+        assertEquals("Income", rules.categorise("Salary October", null));
+        assertEquals("Other", rules.categorise("BETALING VIA BANCONTACT", null));
+    }
+
+    @Test
+    void testHighestPriorityWinsAcrossRuleTypes() throws IOException {
+        final CategoryRules rules = parse("""
+                # priority;category;type;pattern
+                10;Groceries;keyword;delhaize
+                20;Transport;prefix;BETALING VIA
+                30;Income;counterparty;ACME NV
+                25;Takeout;regex;(?i)burger\\s+king;drive
+                20;Household;prefix;betaling
+                """);
+
+        assertEquals("Groceries", rules.categorise("Aankoop DELHAIZE Hasselt", null));
+        assertEquals("Transport", rules.categorise("betaling via bancontact DELHAIZE", null));
+        assertEquals("Takeout", rules.categorise("BETALING VIA Burger  King;drive", null));
+        assertEquals("Income", rules.categorise("BETALING VIA overschrijving", " acme nv "));
+        assertEquals("Other", rules.categorise("Overschrijving", "Someone else"));
+    }
+
+    @Test
+    void testRejectsInvalidRulesWithLineNumber() {
+        final IllegalArgumentException unknownType = assertThrows(IllegalArgumentException.class,
+                () -> parse("10;Groceries;keyword;AH\n10;Groceries;contains;AH"));
+        assertTrue(unknownType.getMessage().contains("line 2"), unknownType.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> parse("x;Groceries;keyword;AH"));
+        assertThrows(IllegalArgumentException.class, () -> parse("10;Groceries;regex;(unclosed"));
+        assertThrows(IllegalArgumentException.class, () -> parse("10;Groceries;keyword; "));
+    }
+
+    @Test
+    void testAnalysisUsesSwappedRules() throws IOException {
+        final AnalysisService service = new AnalysisService();
+        final List<DataRecord> records = List.of(
+                new DataRecord("Overschrijving", LocalDate.of(2025, 10, 3), new BigDecimal("-20"), "", null, null, "Huisbaas"));
+
+        assertEquals("Other", service.analyse(records).getFirst().getCategory());
+
+        service.useRules(parse("50;Rent;counterparty;huisbaas"));
+        final List<CategorySummary> summaries = service.analyse(records);
+        assertEquals("Rent", summaries.getFirst().getCategory());
+        assertEquals(0, service.categoryCacheStats().hits());
+    }
+
+    @Test
+    void testReloadKeepsPreviousRulesWhenFileIsInvalid(@TempDir final Path tempDir) throws IOException {
+        final Path file = Files.writeString(tempDir.resolve("category-rules.csv"), "10;Shopping;keyword;Delhaize\n");
+        final AnalysisService service = new AnalysisService();
+
+        CategoryRulesWatcher.reload(file, service::useRules);
+        assertEquals("Shopping", service.rules().categorise("Delhaize", null));
+
+        Files.writeString(file, "not a rule\n");
+        CategoryRulesWatcher.reload(file, service::useRules);
+        assertEquals("Shopping", service.rules().categorise("Delhaize", null));
+
+        Files.delete(file);
+        CategoryRulesWatcher.reload(file, service::useRules);
+        assertEquals("Shopping", service.rules().categorise("Delhaize", null));
+    }
+
+    @Test
+    void testWatcherReloadsChangedFile(@TempDir final Path tempDir) throws Exception {
+        final Path file = tempDir.resolve("category-rules.csv");
+        Files.writeString(file, "10;Groceries;keyword;Delhaize\n");
+        final AnalysisService service = new AnalysisService();
+
+        try (final CategoryRulesWatcher _ = service.watchRules(file)) {
+            assertEquals("Groceries", service.rules().categorise("Delhaize", null));
+
+            Files.writeString(file, "10;Shopping;keyword;Delhaize\n");
+            final long deadline = System.currentTimeMillis() + 10_000;
+            while (!"Shopping".equals(service.rules().categorise("Delhaize", null)) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals("Shopping", service.rules().categorise("Delhaize", null));
+        }
+    }
+}
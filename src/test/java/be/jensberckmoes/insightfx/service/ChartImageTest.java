@@ -0,0 +1,62 @@
+package be.jensberckmoes.insightfx.service;
+
+import be.jensberckmoes.insightfx.model.CategorySummary;
+import be.jensberckmoes.insightfx.model.ExportType;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChartImageTest {
+    private final ExportService exportService = new ExportServiceImpl();
+
+    private static PDImageXObject onlyImage(final PDDocument document) throws IOException {
+        final PDResources resources = document.getPage(0).getResources();
+        final COSName name = resources.getXObjectNames().iterator().next();
+        return (PDImageXObject) resources.getXObject(name);
+    }
+
+    @Test
+    void testEncodesOnceAndEmbedsInEveryExport(@TempDir final Path tempDir) throws IOException {
+        final BufferedImage rendered = new BufferedImage(40, 20, BufferedImage.TYPE_INT_ARGB);
+        rendered.setRGB(0, 0, 0xFFFF0000);
+        rendered.setRGB(1, 0, 0x800000FF);
+        final ChartImage chart = ChartImage.encode(rendered);
+        final List<CategorySummary> rows = List.of(new CategorySummary("Food", 2, new BigDecimal("-12.50")));
+
+        for (final String name : List.of("first.pdf", "second.pdf")) {
+            final Path target = tempDir.resolve(name);
+            exportService.exportWithChart(rows, target, ExportType.PDF, chart);
+
+            try (final PDDocument document = Loader.loadPDF(target.toFile())) {
+                final BufferedImage embedded = onlyImage(document).getImage();
+                assertEquals(40, embedded.getWidth());
+                assertEquals(20, embedded.getHeight());
+                assertEquals(0xFFFF0000, embedded.getRGB(0, 0));
+                assertEquals(0xFF7F7FFF, embedded.getRGB(1, 0));
+                assertEquals(0xFFFFFFFF, embedded.getRGB(2, 0));
+            }
+        }
+        assertEquals(ChartImage.WIDTH_POINTS, chart.width());
+        assertEquals(ChartImage.WIDTH_POINTS / 2, chart.height());
+    }
+
+    @Test
+    void testRenderScaleGivesTargetResolution() {
+        final double scale = ChartImage.renderScale(400);
+
+        assertEquals(ChartImage.WIDTH_POINTS / 72 * ChartImage.DPI, 400 * scale, 1e-6);
+        assertThrows(IllegalArgumentException.class, () -> ChartImage.renderScale(0));
+    }
+}
@@ -1,12 +1,22 @@
 package be.jensberckmoes.insightfx.service;
 
+import be.jensberckmoes.insightfx.exception.CsvParsingException;
 import be.jensberckmoes.insightfx.model.DataRecord;
+import be.jensberckmoes.insightfx.model.TransactionTable;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -153,4 +163,72 @@ public class CsvParserServiceTest {
         assertEquals(new BigDecimal("-11.6"), first.getAmount());
         assertEquals("Terugstorten", first.getComments());
     }
+
+    @Test
+    public void testStreamsRecordsInFileOrder() {
+        final InputStream csvStream = getClass().getResourceAsStream("/test-data.csv");
+        assertNotNull(csvStream, "Test CSV moet bestaan");
+
+        try (final Stream<DataRecord> records = parser.stream(csvStream)) {
+            final List<String> dates = records.map(r -> r.getCurrencyDate().toString()).toList();
+            assertEquals(7, dates.size());
+            assertEquals("2025-10-03", dates.getFirst());
+            assertEquals("2025-08-04", dates.getLast());
+        }
+    }
+
+    @Test
+    public void testStreamThrowsParsingExceptionForMalformedCsv() {
+        final InputStream csvStream = getClass().getResourceAsStream("/malformed-amount.csv");
+        assertNotNull(csvStream, "Test CSV moet bestaan");
+
+        assertThrows(CsvParsingException.class, () -> {
+            try (final Stream<DataRecord> records = parser.stream(csvStream)) {
+                records.toList();
+            }
+        });
+    }
+
+    @Test
+    public void testParsesFileFromDisk(@TempDir final Path tempDir) throws IOException {
+        final InputStream csvStream = getClass().getResourceAsStream("/test-data.csv");
+        assertNotNull(csvStream, "Test CSV moet bestaan");
+        final Path file = tempDir.resolve("test-data.csv");
+        Files.copy(csvStream, file);
+
+        final List<DataRecord> records = parser.parse(file);
+
+        assertEquals(7, records.size());
+        assertEquals("INSTANTOVERSCHRIJVING NAAR", records.getFirst().getDescription());
+        assertEquals("2025210", records.getFirst().getStatementNumber());
+        assertEquals(LocalDate.of(2025, 10, 3), records.getFirst().getBookingDate());
+    }
+
+    @Test
+    public void testParsesFileIntoTransactionTable(@TempDir final Path tempDir) throws IOException {
+        final InputStream csvStream = getClass().getResourceAsStream("/test-data.csv");
+        assertNotNull(csvStream, "Test CSV moet bestaan");
+        final Path file = tempDir.resolve("test-data.csv");
+        Files.copy(csvStream, file);
+
+        final TransactionTable table = parser.parseTable(file);
+
+        assertEquals(parser.parse(file), table.asRecords());
+    }
+
+    @Test
+    public void testReportsProgressAndCancels(@TempDir final Path tempDir) throws IOException {
+        final InputStream csvStream = getClass().getResourceAsStream("/test-data.csv");
+        assertNotNull(csvStream, "Test CSV moet bestaan");
+        final Path file = tempDir.resolve("test-data.csv");
+        Files.copy(csvStream, file);
+        final List<long[]> reports = new ArrayList<>();
+
+        final TransactionTable table = parser.parseTable(file, (rows, bytes) -> reports.add(new long[]{rows, bytes}));
+
+        assertArrayEquals(new long[]{table.size(), Files.size(file)}, reports.getLast());
+        assertThrows(CancellationException.class, () -> parser.parseTable(file, (_, _) -> {
+            throw new CancellationException();
+        }));
+    }
 }
@@ -0,0 +1,62 @@
+package be.jensberckmoes.insightfx.service;
+
+import be.jensberckmoes.insightfx.model.CsvDelimiter;
+import be.jensberckmoes.insightfx.model.ExportSchema;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvRowWriterTest {
+    private record Row(String text, long cents, LocalDate date) {
+    }
+
+    private static final ExportSchema<Row> SCHEMA = ExportSchema.<Row>builder()
+            .text("Text", Row::text)
+            .decimal("Amount", Row::cents, 2)
+            .date("Date", Row::date)
+            .build();
+
+    private static String write(final CsvDelimiter delimiter, final boolean quote, final List<Row> rows) throws IOException {
+        final StringWriter out = new StringWriter();
+        // The smallest buffer, so that rows are split across flushes.
+        try (final CsvRowWriter writer = new CsvRowWriter(out, delimiter, quote, 60)) {
+            writer.writeHeaders(SCHEMA.headers());
+            for (final Row row : rows) writer.writeRow(SCHEMA, row);
+        }
+        return out.toString();
+    }
+
+    @Test
+    void testDecimalsMatchPlainBigDecimal() throws IOException {
+        final long[] values = {0, 5, -5, 475, -475, 100, -100_000, 123_456_789_012L, Long.MAX_VALUE, Long.MIN_VALUE};
+        final List<Row> rows = Arrays.stream(values).mapToObj(cents -> new Row("x", cents, null)).toList();
+
+        final List<String> lines = write(CsvDelimiter.COMMA, false, rows).lines().toList();
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals("x," + BigDecimal.valueOf(values[i], 2).toPlainString() + ",", lines.get(i + 1));
+        }
+    }
+
+    @Test
+    void testQuotesOnlyWhenAskedAndNeeded() throws IOException {
+        final List<Row> rows = List.of(
+                new Row("Bakker; \"De Korst\"", -475, LocalDate.of(2025, 10, 2)),
+                new Row(null, 0, LocalDate.of(999, 1, 31)));
+
+        assertEquals(List.of("Text;Amount;Date", "\"Bakker; \"\"De Korst\"\"\";-4.75;2025-10-02", ";0.00;0999-01-31"),
+                write(CsvDelimiter.SEMICOLON, true, rows).lines().toList());
+        assertEquals("Bakker; De Korst,-4.75,2025-10-02",
+                write(CsvDelimiter.COMMA, true, List.of(new Row("Bakker; De Korst", -475, LocalDate.of(2025, 10, 2))))
+                        .lines().toList().get(1));
+        assertEquals("Bakker; \"De Korst\";-4.75;2025-10-02",
+                write(CsvDelimiter.SEMICOLON, false, rows).lines().toList().get(1));
+    }
+}
@@ -1,5 +1,8 @@
 package be.jensberckmoes.insightfx.service;
 
+import be.jensberckmoes.insightfx.model.CategorySummary;
+import be.jensberckmoes.insightfx.model.DataRecord;
+import be.jensberckmoes.insightfx.model.ExportSchema;
 import be.jensberckmoes.insightfx.model.ExportType;
 import be.jensberckmoes.insightfx.model.ExportableRow;
 import org.apache.pdfbox.Loader;
@@ -11,12 +14,27 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipFile;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -261,5 +279,248 @@ public class ExportServiceTest {
         }
     }
 
-}
+    @Test
+    void testPdfContinuesOnNewPagesWithHeaders(@TempDir final Path tempDir) throws IOException {
+        final Path target = tempDir.resolve("paged.pdf");
+        final List<ExportableRow> rows = IntStream.range(0, 100)
+                .<ExportableRow>mapToObj(i -> new DummyRow("Category " + i, String.valueOf(i)))
+                .toList();
+
+        exportService.export(rows, target, ExportType.PDF);
+
+        try (final PDDocument doc = Loader.loadPDF(target.toFile())) {
+            assertThat(doc.getNumberOfPages()).isEqualTo(3);
+            final PDFTextStripper stripper = new PDFTextStripper();
+            for (int page = 1; page <= doc.getNumberOfPages(); page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                assertThat(stripper.getText(doc)).startsWith(page == 1 ? "InsightFX Export Summary" : "Category Amount");
+            }
+            stripper.setStartPage(1);
+            stripper.setEndPage(doc.getNumberOfPages());
+            final String text = stripper.getText(doc);
+            assertThat(text).contains("Category 0 0", "Category 99 99");
+            assertThat(text.lines().filter(line -> line.startsWith("Category ")).count()).isEqualTo(100 + 3);
+        }
+    }
+
+    @Test
+    void testLargePdfIsWrittenThroughTempFile(@TempDir final Path tempDir) throws IOException {
+        final Path target = tempDir.resolve("large.pdf");
+        final List<ExportableRow> rows = IntStream.range(0, 5_000)
+                .<ExportableRow>mapToObj(i -> new DummyRow("Transaction " + i, "-" + i + ".50"))
+                .toList();
+
+        exportService.export(rows, target, ExportType.PDF);
+
+        try (final PDDocument doc = Loader.loadPDF(target.toFile())) {
+            assertThat(doc.getNumberOfPages()).isGreaterThan(100);
+            final PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(doc.getNumberOfPages());
+            assertThat(stripper.getText(doc)).contains("Transaction 4999 -4999.50");
+        }
+    }
+
+    @Test
+    void testExportTransactionsStreamsGzippedCsv(@TempDir final Path tempDir) throws IOException {
+        final Path target = tempDir.resolve("transactions.csv.gz");
+        final Stream<DataRecord> records = Stream.of(
+                new DataRecord("Bakker, Gent", LocalDate.of(2025, 10, 2), new BigDecimal("-4.75"), null,
+                        "2025-10", LocalDate.of(2025, 10, 3), "Bakkerij \"De Korst\""),
+                new DataRecord("Apotheek", LocalDate.of(2025, 10, 1), new BigDecimal("-11.60"), "Hoest"));
+
+        final long count = exportService.exportTransactions(records, record -> record.getDescription().startsWith("Bakker") ? "Food" : "Other",
+                target, ExportType.CSV, true);
+
+        assertThat(count).isEqualTo(2);
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(target)), StandardCharsets.UTF_8))) {
+            assertThat(reader.lines().toList()).containsExactly(
+                    "Date,Description,Amount,Category,Comments,Statement,Booking date,Counterparty",
+                    "2025-10-02,\"Bakker, Gent\",-4.75,Food,,2025-10,2025-10-03,\"Bakkerij \"\"De Korst\"\"\"",
+                    "2025-10-01,Apotheek,-11.60,Other,Hoest,,,");
+        }
+    }
+
+    @Test
+    void testExportTransactionsToPdfShowsEveryColumn(@TempDir final Path tempDir) throws IOException {
+        final Path target = tempDir.resolve("transactions.pdf");
+        final Stream<DataRecord> records = IntStream.range(0, 120).mapToObj(i -> new DataRecord("Bakker " + i,
+                LocalDate.of(2025, 10, 1).plusDays(i % 30), new BigDecimal("-4.75"), "Brood", "2025-" + i,
+                LocalDate.of(2025, 11, 3), "Bakkerij De Korst met een veel te lange naam voor deze kolom"));
+
+        final long count = exportService.exportTransactions(records, _ -> "Food", target, ExportType.PDF, true);
+
+        assertThat(count).isEqualTo(120);
+        try (final PDDocument doc = Loader.loadPDF(target.toFile())) {
+            assertThat(doc.getNumberOfPages()).isGreaterThan(1);
+            final String text = new PDFTextStripper().getText(doc);
+            assertThat(text).startsWith("InsightFX Transactions")
+                    .contains("Date", "Description", "Amount", "Category", "Comments", "Statement", "Booking date", "Counterparty")
+                    .contains("2025-10-01", "Bakker 0", "-4.75", "Food", "Brood", "2025-119", "2025-11-03", "Bakkerij De...")
+                    .doesNotContain("lange naam");
+        }
+        assertThatThrownBy(() -> exportService.exportTransactions(Stream.empty(), _ -> "", tempDir.resolve("t.csv"), null, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testPdfShowsOneColumnPerHeader(@TempDir final Path tempDir) throws IOException {
+        final ExportSchema<CategorySummary> threeColumns = ExportSchema.<CategorySummary>builder()
+                .text("Category", CategorySummary::getCategory)
+                .column("Count", (row, out) -> out.text(String.valueOf(row.getCount())))
+                .decimal("Total", CategorySummary::getTotal)
+                .build();
+        final ExportSchema<CategorySummary> oneColumn = ExportSchema.<CategorySummary>builder()
+                .text("Category", CategorySummary::getCategory)
+                .build();
+        final List<CategorySummary> rows = List.of(
+                new CategorySummary("Food", 3, new BigDecimal("-12.50")),
+                new CategorySummary("Travel", 1, new BigDecimal("-42.00")));
+
+        exportService.export(rows, threeColumns, tempDir.resolve("three.pdf"), ExportType.PDF, null);
+        exportService.export(rows, oneColumn, tempDir.resolve("one.pdf"), ExportType.PDF, null);
+
+        try (final PDDocument doc = Loader.loadPDF(tempDir.resolve("three.pdf").toFile())) {
+            assertThat(new PDFTextStripper().getText(doc).lines())
+                    .contains("Category Count Total", "Food 3 -12.50", "Travel 1 -42.00");
+        }
+        try (final PDDocument doc = Loader.loadPDF(tempDir.resolve("one.pdf").toFile())) {
+            assertThat(new PDFTextStripper().getText(doc).lines()).contains("Category", "Food", "Travel");
+        }
+    }
 
+    @Test
+    void testSchemaExportMatchesRowMaps(@TempDir final Path tempDir) throws IOException {
+        final CategorySummary food = new CategorySummary("Food");
+        food.addTransaction(new BigDecimal("-12.5"));
+        food.addTransaction(new BigDecimal("-0.25"));
+        final List<CategorySummary> rows = List.of(food, new CategorySummary("Salary", new BigDecimal("2500")),
+                new CategorySummary("Other", 1, new BigDecimal("0.125")));
+
+        for (final ExportType type : List.of(ExportType.CSV, ExportType.EUROPEAN_CSV)) {
+            final Path mapped = tempDir.resolve("mapped-" + type + ".csv");
+            final Path typed = tempDir.resolve("typed-" + type + ".csv");
+            exportService.export(rows, mapped, type);
+            exportService.export(rows, CategorySummary.EXPORT_SCHEMA, typed, type, null);
+
+            assertThat(Files.readAllLines(typed)).isEqualTo(Files.readAllLines(mapped));
+        }
+        assertThat(Files.readAllLines(tempDir.resolve("typed-EUROPEAN_CSV.csv")))
+                .containsExactly("Category;Amount", "Food;-12.75", "Salary;2500", "Other;0.125");
+    }
+
+    private static final ExportSchema<DummyRow> DUMMY_SCHEMA = ExportSchema.<DummyRow>builder()
+            .text("Category", DummyRow::category)
+            .text("Amount", DummyRow::amount)
+            .build();
+
+    private static List<DummyRow> numberedRows(final int count) {
+        return IntStream.range(0, count).mapToObj(i -> new DummyRow("Category " + i, String.valueOf(i))).toList();
+    }
+
+    @Test
+    void testExportAsyncWritesEveryFormatConcurrently(@TempDir final Path tempDir) throws IOException {
+        final Map<ExportType, Path> targets = Map.of(
+                ExportType.CSV, tempDir.resolve("all.csv"),
+                ExportType.EUROPEAN_CSV, tempDir.resolve("all-eu.csv"),
+                ExportType.PDF, tempDir.resolve("all.pdf"));
+        final AtomicLong reported = new AtomicLong();
+
+        final Map<ExportType, Path> written = exportService.exportAsync(numberedRows(3_000), DUMMY_SCHEMA, targets, null,
+                (rows, _) -> reported.accumulateAndGet(rows, Math::max)).join();
+
+        assertThat(written).isEqualTo(targets);
+        assertThat(reported.get()).isEqualTo(3 * 3_000);
+        assertThat(Files.readAllLines(targets.get(ExportType.CSV))).hasSize(3_001).contains("Category 2999,2999");
+        assertThat(Files.readAllLines(targets.get(ExportType.EUROPEAN_CSV))).hasSize(3_001).contains("Category 2999;2999");
+        try (final PDDocument doc = Loader.loadPDF(targets.get(ExportType.PDF).toFile())) {
+            assertThat(doc.getNumberOfPages()).isGreaterThan(1);
+        }
+    }
+
+    @Test
+    void testCancelledExportDeletesPartialFiles(@TempDir final Path tempDir) {
+        final Map<ExportType, Path> targets = Map.of(
+                ExportType.CSV, tempDir.resolve("cancelled.csv"),
+                ExportType.EUROPEAN_CSV, tempDir.resolve("cancelled-eu.csv"));
+
+        final CompletableFuture<Map<ExportType, Path>> export = exportService.exportAsync(numberedRows(100_000), DUMMY_SCHEMA,
+                targets, null, (_, _) -> {
+                    throw new CancellationException("Stop");
+                });
+
+        assertThatThrownBy(export::join).isInstanceOf(CancellationException.class);
+        assertThat(targets.values()).noneMatch(Files::exists);
+    }
+
+    @Test
+    void testFailedFormatDeletesTheOthers(@TempDir final Path tempDir) {
+        final Path csv = tempDir.resolve("ok.csv");
+        final Map<ExportType, Path> targets = Map.of(
+                ExportType.CSV, csv,
+                ExportType.PDF, tempDir.resolve("missing").resolve("report.pdf"));
+
+        final CompletableFuture<Map<ExportType, Path>> export = exportService.exportAsync(numberedRows(10), DUMMY_SCHEMA,
+                targets, null, ProgressListener.NONE);
+
+        assertThatThrownBy(export::join).isInstanceOf(CompletionException.class).hasCauseInstanceOf(RuntimeException.class);
+        assertThat(csv).doesNotExist();
+    }
+
+    @Test
+    void testExportAsyncWithoutTargetsThrows() {
+        assertThatThrownBy(() -> exportService.exportAsync(numberedRows(1), DUMMY_SCHEMA, Map.of(), null, ProgressListener.NONE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("No export targets");
+    }
+
+    @Test
+    void testCancellingTheFutureDeletesPartialFiles(@TempDir final Path tempDir) throws InterruptedException {
+        final Map<ExportType, Path> targets = Map.of(
+                ExportType.CSV, tempDir.resolve("cancelled.csv"),
+                ExportType.EUROPEAN_CSV, tempDir.resolve("cancelled-eu.csv"));
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+
+        final CompletableFuture<Map<ExportType, Path>> export = exportService.exportAsync(numberedRows(100_000), DUMMY_SCHEMA,
+                targets, null, (_, _) -> {
+                    writing.countDown();
+                    try {
+                        cancelled.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+        writing.await();
+        assertThat(targets.values()).anyMatch(Files::exists);
+
+        assertThat(export.cancel(true)).isTrue();
+        cancelled.countDown();
+
+        // The writers stop at their next row and delete the files after the future was cancelled.
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (targets.values().stream().anyMatch(Files::exists) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(export).isCancelled();
+        assertThat(targets.values()).noneMatch(Files::exists);
+    }
+
+    @Test
+    void testExportXlsxWritesNumericAmounts(@TempDir final Path tempDir) throws IOException {
+        final Path target = tempDir.resolve("summary.xlsx");
+        final CategorySummary food = new CategorySummary("Food");
+        food.addTransaction(new BigDecimal("-12.5"));
+        food.addTransaction(new BigDecimal("-0.25"));
+
+        exportService.export(List.of(food), CategorySummary.EXPORT_SCHEMA, target, ExportType.XLSX, null);
+
+        try (final ZipFile zip = new ZipFile(target.toFile())) {
+            assertThat(zip.getEntry("xl/workbook.xml")).isNotNull();
+            final String sheet = new String(zip.getInputStream(zip.getEntry("xl/worksheets/sheet1.xml")).readAllBytes(),
+                    StandardCharsets.UTF_8);
+            assertThat(sheet).contains(">Food</t></is></c><c><v>-12.75</v></c></row>");
+        }
+    }
+}
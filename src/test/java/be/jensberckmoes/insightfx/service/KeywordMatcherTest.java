@@ -0,0 +1,65 @@
+package be.jensberckmoes.insightfx.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeywordMatcherTest {
+
+    private static KeywordMatcher matcher() {
+        final Map<String, List<String>> keywords = new LinkedHashMap<>();
+        keywords.put("Groceries", List.of("AH", "Delhaize"));
+        keywords.put("Transport", List.of("Shell", "Q8"));
+        keywords.put("Cafe", List.of("Café"));
+        return KeywordMatcher.compile(keywords);
+    }
+
+    @Test
+    void testMatchesCaseInsensitive() {
+        final KeywordMatcher matcher = matcher();
+
+        assertEquals("Groceries", matcher.match("betaling DELHAIZE hasselt"));
+        assertEquals("Transport", matcher.match("SHELL express"));
+        assertEquals("Cafe", matcher.match("CAFÉ DE KROON"));
+    }
+
+    @Test
+    void testReturnsNullWhenNothingMatches() {
+        final KeywordMatcher matcher = matcher();
+
+        assertNull(matcher.match("Random description"));
+        assertNull(matcher.match(""));
+        assertNull(matcher.match(null));
+    }
+
+    @Test
+    void testFirstDeclaredKeywordWinsRegardlessOfPosition() {
+        final KeywordMatcher matcher = matcher();
+
+        assertEquals("Groceries", matcher.match("Shell tankstation naast Delhaize"));
+        assertEquals("Groceries", matcher.match("Q8 shop AH to go"));
+    }
+
+    @Test
+    void testFindsOverlappingKeywords() {
+        final Map<String, List<String>> keywords = new LinkedHashMap<>();
+        keywords.put("Long", List.of("abcd"));
+        keywords.put("Short", List.of("bc"));
+        final KeywordMatcher matcher = KeywordMatcher.compile(keywords);
+
+        assertEquals("Short", matcher.match("xabcx"));
+        assertEquals("Long", matcher.match("xabcdx"));
+        assertEquals("Short", matcher.match("aabcc"));
+    }
+
+    @Test
+    void testRejectsBlankKeyword() {
+        final Map<String, List<String>> keywords = Map.of("Broken", List.of(" "));
+
+        assertThrows(IllegalArgumentException.class, () -> KeywordMatcher.compile(keywords));
+    }
+}
@@ -0,0 +1,133 @@
+package be.jensberckmoes.insightfx.service;
+
+import be.jensberckmoes.insightfx.exception.CsvParsingException;
+import be.jensberckmoes.insightfx.model.TransactionIndex;
+import be.jensberckmoes.insightfx.model.TransactionTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiStatementLoaderTest {
+    private static final String HEADER = "Afschriftnummer;Omschrijving;Valuta;Bedrag;Vrije mededeling\n";
+
+    private final CsvParserService parser = new CsvParserService();
+
+    private static Path statement(final Path directory, final String name, final String description, final int... days) throws IOException {
+        final StringBuilder csv = new StringBuilder(HEADER);
+        for (final int day : days) {
+            csv.append(name).append(';').append(description).append(' ').append(day).append(';')
+                    .append(String.format("%02d/10/2025", day)).append(";-1,5;\n");
+        }
+        return Files.writeString(directory.resolve(name + ".csv"), csv);
+    }
+
+    private static List<String> descriptions(final TransactionTable table) {
+        return IntStream.range(0, table.size()).mapToObj(table::description).toList();
+    }
+
+    @Test
+    void testMergesFilesByDateAndReportsFailuresPerFile(@TempDir final Path tempDir) throws IOException {
+        final Path september = statement(tempDir, "a", "A", 1, 3, 5);
+        final Path descending = statement(tempDir, "b", "B", 6, 3, 2);
+        final Path broken = Files.writeString(tempDir.resolve("c.csv"), HEADER + "c;C;not a date;-1;\n");
+        final AtomicInteger reading = new AtomicInteger();
+        final AtomicInteger maxReading = new AtomicInteger();
+        final MultiStatementLoader loader = new MultiStatementLoader((file, progress) -> {
+            maxReading.accumulateAndGet(reading.incrementAndGet(), Math::max);
+            try {
+                return parser.parseTable(file, progress);
+            } finally {
+                reading.decrementAndGet();
+            }
+        }, 1);
+
+        final MultiStatementLoader.Result result = loader.load(List.of(september, descending, broken), ProgressListener.NONE);
+
+        assertEquals(List.of("A 1", "B 2", "A 3", "B 3", "A 5", "B 6"), descriptions(result.transactions()));
+        assertEquals(LocalDate.of(2025, 10, 6), result.transactions().currencyDate(5));
+        assertEquals(1, result.failures().size());
+        assertEquals(broken, result.failures().getFirst().file());
+        assertInstanceOf(CsvParsingException.class, result.failures().getFirst().error());
+        assertEquals(1, maxReading.get());
+    }
+
+    @Test
+    void testAppendMatchesMergeForLaterAndEarlierRows(@TempDir final Path tempDir) throws IOException {
+        final TransactionTable loaded = parser.parseTable(statement(tempDir, "a", "A", 2, 4));
+        final TransactionTable later = parser.parseTable(statement(tempDir, "b", "B", 6, 4));
+        final TransactionTable earlier = parser.parseTable(statement(tempDir, "c", "C", 5, 1));
+        final TransactionIndex index = new TransactionIndex(loaded).prepare(TransactionIndex.Column.DATE);
+
+        assertEquals(List.of("A 2", "A 4", "B 4", "B 6"), descriptions(MultiStatementLoader.append(index, later).table()));
+        assertEquals(descriptions(MultiStatementLoader.merge(List.of(loaded, earlier))),
+                descriptions(MultiStatementLoader.append(index, earlier).table()));
+    }
+
+    @Test
+    void testListsCsvFilesOfFolder(@TempDir final Path tempDir) throws IOException {
+        statement(tempDir, "2025-02", "Feb", 1);
+        statement(tempDir, "2025-01", "Jan", 1);
+        Files.writeString(tempDir.resolve("notes.txt"), "not a statement");
+        Files.createDirectory(tempDir.resolve("archive.csv"));
+
+        final List<Path> files = MultiStatementLoader.statementFiles(tempDir);
+
+        assertEquals(List.of(tempDir.resolve("2025-01.csv"), tempDir.resolve("2025-02.csv")), files);
+    }
+
+    @Test
+    void testCancellationStopsLoading(@TempDir final Path tempDir) throws IOException {
+        final List<Path> files = List.of(statement(tempDir, "a", "A", 1, 2), statement(tempDir, "b", "B", 3));
+        final MultiStatementLoader loader = new MultiStatementLoader(parser::parseTable, 2);
+
+        assertThrows(CancellationException.class, () -> loader.load(files, (_, _) -> {
+            throw new CancellationException();
+        }));
+    }
+
+    @Test
+    void testInterruptionStopsFilesStillLoading(@TempDir final Path tempDir) throws Exception {
+        final List<Path> files = List.of(statement(tempDir, "a", "A", 1), statement(tempDir, "b", "B", 2));
+        final CountDownLatch started = new CountDownLatch(files.size());
+        final AtomicBoolean fileInterrupted = new AtomicBoolean();
+        final MultiStatementLoader loader = new MultiStatementLoader((_, _) -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (final InterruptedException e) {
+                fileInterrupted.set(true);
+            }
+            throw new CancellationException();
+        }, 2);
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+        final Thread thread = Thread.ofPlatform().start(() -> {
+            try {
+                loader.load(files, (_, _) -> {
+                });
+            } catch (final Throwable e) {
+                thrown.set(e);
+            }
+        });
+
+        started.await();
+        thread.interrupt();
+        thread.join(5_000);
+
+        assertFalse(thread.isAlive());
+        assertInstanceOf(CancellationException.class, thrown.get());
+        assertTrue(fileInterrupted.get());
+    }
+}
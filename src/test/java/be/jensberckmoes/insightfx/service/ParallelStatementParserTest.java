@@ -0,0 +1,113 @@
+package be.jensberckmoes.insightfx.service;
+
+import be.jensberckmoes.insightfx.exception.CsvParsingException;
+import be.jensberckmoes.insightfx.model.DataRecord;
+import be.jensberckmoes.insightfx.model.TransactionTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelStatementParserTest {
+    private static final String HEADER = "Rekeningnummer;Afschriftnummer;Omschrijving;Valuta;Bedrag;Vrije mededeling\n";
+
+    private static String statement(final int rows) {
+        final StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < rows; i++) {
+            final String description = switch (i % 3) {
+                case 0 -> "BETALING VIA BANCONTACT " + i + "          ";
+                case 1 -> "\"Omschrijving met ;\nen \"\"quotes\"\" " + i + "\"";
+                default -> "   \"Café " + i + "\"";
+            };
+            csv.append("BE-;").append(i).append(';').append(description).append(';')
+                    .append(String.format("%02d/10/2025", 1 + i % 28)).append(';')
+                    .append('-').append(i + 1).append(',').append(i % 100).append(';')
+                    .append(i % 2 == 0 ? "Terugstorten" : "\"lijn\r\nbreuk\"").append("\r\n");
+        }
+        return csv.toString();
+    }
+
+    private static List<DataRecord> sequential(final String csv) {
+        return new CsvParserService().parse(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testMatchesSequentialParseAcrossManyChunks(@TempDir final Path tempDir) throws IOException {
+        final String csv = statement(2_000);
+        final Path file = Files.writeString(tempDir.resolve("large.csv"), csv);
+
+        final List<DataRecord> records = new ParallelStatementParser(8, 512, _ -> true).parse(file);
+
+        assertEquals(2_000, records.size());
+        assertEquals(sequential(csv), records);
+    }
+
+    @Test
+    void testTableMatchesRecordsAcrossManyChunks(@TempDir final Path tempDir) throws IOException {
+        final Path file = Files.writeString(tempDir.resolve("large.csv"), statement(2_000));
+        final ParallelStatementParser parser = new ParallelStatementParser(8, 512, description -> !description.startsWith("Café"));
+
+        final TransactionTable table = parser.parseTable(file, ProgressListener.NONE);
+
+        assertEquals(parser.parse(file), table.asRecords());
+    }
+
+    @Test
+    void testReportsProgressAndCancels(@TempDir final Path tempDir) throws IOException {
+        final Path file = Files.writeString(tempDir.resolve("large.csv"), statement(40_000));
+        final ParallelStatementParser parser = new ParallelStatementParser(8, 64 * 1024, _ -> true);
+        final AtomicLong lastRows = new AtomicLong();
+        final AtomicLong maxBytes = new AtomicLong();
+
+        final List<DataRecord> records = parser.parse(file, Collectors.toList(), (rows, bytes) -> {
+            lastRows.set(rows);
+            maxBytes.accumulateAndGet(bytes, Math::max);
+        });
+
+        assertEquals(records.size(), lastRows.get());
+        assertEquals(Files.size(file), maxBytes.get());
+        assertThrows(CancellationException.class, () -> parser.parse(file, Collectors.toList(), (rows, _) -> {
+            if (rows > 10_000) throw new CancellationException();
+        }));
+    }
+
+    @Test
+    void testAppliesFilter(@TempDir final Path tempDir) throws IOException {
+        final Path file = Files.writeString(tempDir.resolve("filtered.csv"), statement(300));
+
+        final List<DataRecord> records = new ParallelStatementParser(4, 256, description -> description.startsWith("Café")).parse(file);
+
+        assertEquals(100, records.size());
+        assertTrue(records.stream().allMatch(r -> r.getDescription().startsWith("Café")));
+    }
+
+    @Test
+    void testHeaderOnlyAndEmptyFiles(@TempDir final Path tempDir) throws IOException {
+        final ParallelStatementParser parser = new ParallelStatementParser(4, 16, _ -> true);
+
+        assertEquals(0, parser.parse(Files.writeString(tempDir.resolve("header.csv"), HEADER)).size());
+        assertThrows(CsvParsingException.class, () -> parser.parse(Files.writeString(tempDir.resolve("empty.csv"), "")));
+    }
+
+    @Test
+    void testReportsFileLineOfMalformedRecordInLaterChunk(@TempDir final Path tempDir) throws IOException {
+        final String csv = statement(500) + "BE-;x;Kapot;03/10/2025;ABC;\n";
+        final long expectedLine = csv.chars().filter(c -> c == '\n').count();
+        final Path file = Files.writeString(tempDir.resolve("broken.csv"), csv);
+
+        final CsvParsingException exception = assertThrows(CsvParsingException.class,
+                () -> new ParallelStatementParser(8, 256, _ -> true).parse(file));
+
+        assertTrue(exception.getMessage().contains("(line " + expectedLine + ")"), exception.getMessage());
+    }
+}
@@ -0,0 +1,108 @@
+package be.jensberckmoes.insightfx.service;
+
+import be.jensberckmoes.insightfx.exception.CsvParsingException;
+import be.jensberckmoes.insightfx.model.DataRecord;
+import be.jensberckmoes.insightfx.model.TransactionTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementCsvDecoderTest {
+    private static final String HEADER = "Afschriftnummer;omschrijving;VALUTA;Bedrag;Vrije mededeling";
+
+    @Test
+    void testResolvesHeaderOnceIntoColumnIndices() {
+        final StatementCsvDecoder decoder = new StatementCsvDecoder(new StringReader(HEADER + "\n"));
+
+        assertEquals(new StatementCsvDecoder.Layout(5, 1, 2, 3, 4, 0, -1, -1), decoder.layout());
+        assertNull(decoder.next());
+    }
+
+    @Test
+    void testDecodesCrLfAndQuotedLineBreaks() {
+        final String csv = HEADER + "\r\n"
+                + "1;\"Lijn een\r\nlijn twee\";03/10/2025;-11,6;\"\"\r\n"
+                + "\r\n"
+                + "2;  Tweede   ;04/10/2025;10;Dokter?\r\n";
+        final StatementCsvDecoder decoder = new StatementCsvDecoder(new StringReader(csv));
+
+        final DataRecord first = decoder.next();
+        assertEquals("Lijn een\nlijn twee", first.getDescription());
+        assertEquals(new BigDecimal("-11.6"), first.getAmount());
+        assertEquals("", first.getComments());
+
+        final DataRecord second = decoder.next();
+        assertEquals("Tweede", second.getDescription());
+        assertEquals("2025-10-04", second.getCurrencyDate().toString());
+        assertEquals("Dokter?", second.getComments());
+
+        assertNull(decoder.next());
+    }
+
+    @Test
+    void testDecodesIntoTableLikeRecords() {
+        final String csv = HEADER + ";Datum;Naam tegenpartij\n"
+                + "1;Shell;03/10/2025;-11,6;Tanken;02/10/2025;Shell Belgium\n"
+                + "2;SALARIS;04/10/2025;2500;;;\n"
+                + "3;Dokter;05/10/2025;-40.00;;;\n";
+        final StatementCsvDecoder records = new StatementCsvDecoder(new StringReader(csv));
+        final StatementCsvDecoder rows = new StatementCsvDecoder(new StringReader(csv));
+        final TransactionTable.Builder table = TransactionTable.builder();
+
+        int decoded = 0;
+        while (rows.next(table, description -> !description.equals("SALARIS"))) {
+            decoded++;
+        }
+
+        assertEquals(3, decoded);
+
+        final DataRecord first = records.next();
+        records.next();
+        assertEquals(List.of(first, records.next()), table.build().asRecords());
+    }
+
+    @Test
+    void testTableDecodingReportsLineOfAmountWithTooManyDecimals() {
+        final String csv = HEADER + "\n1;Ok;03/10/2025;-1;\n2;Kapot;03/10/2025;-1,005;\n";
+        final StatementCsvDecoder decoder = new StatementCsvDecoder(new StringReader(csv));
+        final TransactionTable.Builder table = TransactionTable.builder();
+
+        assertTrue(decoder.next(table, _ -> true));
+        final CsvParsingException exception = assertThrows(CsvParsingException.class, () -> decoder.next(table, _ -> true));
+        assertTrue(exception.getMessage().endsWith("(line 3)"));
+    }
+
+    @Test
+    void testCommentsAreNullWhenColumnIsAbsent() {
+        final StatementCsvDecoder decoder = new StatementCsvDecoder(new StringReader("Omschrijving;Valuta;Bedrag\nShell;03/10/2025;-5"));
+
+        assertNull(decoder.next().getComments());
+    }
+
+    @Test
+    void testReportsLineOfMalformedRecord() {
+        final String csv = HEADER + "\n1;Ok;03/10/2025;-1;\n2;Kapot;32/10/2025;-1;\n";
+        final StatementCsvDecoder decoder = new StatementCsvDecoder(new StringReader(csv));
+
+        assertNotNull(decoder.next());
+        final CsvParsingException exception = assertThrows(CsvParsingException.class, decoder::next);
+        assertTrue(exception.getMessage().endsWith("(line 3)"));
+    }
+
+    @Test
+    void testThrowsForUnterminatedQuote() {
+        final StatementCsvDecoder decoder = new StatementCsvDecoder(new StringReader(HEADER + "\n1;\"Open;03/10/2025;-1;x\n"));
+
+        assertThrows(CsvParsingException.class, decoder::next);
+    }
+
+    @Test
+    void testThrowsForMissingMandatoryColumnOrHeader() {
+        assertThrows(CsvParsingException.class, () -> new StatementCsvDecoder(new StringReader("Omschrijving;Valuta\n")));
+        assertThrows(CsvParsingException.class, () -> new StatementCsvDecoder(new StringReader("")));
+    }
+}
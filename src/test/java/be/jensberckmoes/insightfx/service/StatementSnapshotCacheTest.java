@@ -0,0 +1,93 @@
+package be.jensberckmoes.insightfx.service;
+
+import be.jensberckmoes.insightfx.model.TransactionTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementSnapshotCacheTest {
+    private final CsvParserService parser = new CsvParserService();
+
+    private Path copyTestData(final Path directory) throws IOException {
+        final Path file = directory.resolve("test-data.csv");
+        try (final InputStream csvStream = getClass().getResourceAsStream("/test-data.csv")) {
+            assertNotNull(csvStream, "Test CSV moet bestaan");
+            Files.copy(csvStream, file);
+        }
+        return file;
+    }
+
+    private static List<Path> snapshots(final Path directory) throws IOException {
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    @Test
+    void testReopensUnchangedFileFromSnapshot(@TempDir final Path tempDir) throws IOException {
+        final Path file = copyTestData(tempDir);
+        final StatementSnapshotCache cache = new StatementSnapshotCache(tempDir.resolve("snapshots"), CsvParserService.FORMAT_VERSION);
+        final AtomicInteger parses = new AtomicInteger();
+        final Function<Path, TransactionTable> countingParser = path -> {
+            parses.incrementAndGet();
+            return parser.parseTable(path);
+        };
+
+        final TransactionTable first = cache.load(file, countingParser);
+        final TransactionTable second = cache.load(file, countingParser);
+
+        assertEquals(1, parses.get());
+        assertEquals(first.asRecords(), second.asRecords());
+        assertEquals(1, snapshots(tempDir.resolve("snapshots")).size());
+
+        Files.writeString(file, Files.readString(file).replace("-11,6", "-12,6"));
+        final TransactionTable changed = cache.load(file, countingParser);
+        assertEquals(2, parses.get());
+        assertEquals(parser.parseTable(file).asRecords(), changed.asRecords());
+    }
+
+    @Test
+    void testReparsesForAnotherFormatVersion(@TempDir final Path tempDir) throws IOException {
+        final Path file = copyTestData(tempDir);
+        final Path directory = tempDir.resolve("snapshots");
+        final AtomicInteger parses = new AtomicInteger();
+        final Function<Path, TransactionTable> countingParser = path -> {
+            parses.incrementAndGet();
+            return parser.parseTable(path);
+        };
+
+        new StatementSnapshotCache(directory, "1").load(file, countingParser);
+        new StatementSnapshotCache(directory, "1").load(file, countingParser);
+        assertEquals(1, parses.get());
+
+        new StatementSnapshotCache(directory, "2").load(file, countingParser);
+        assertEquals(2, parses.get());
+        assertEquals(2, snapshots(directory).size());
+    }
+
+    @Test
+    void testReparsesWhenSnapshotIsCorrupt(@TempDir final Path tempDir) throws IOException {
+        final Path file = copyTestData(tempDir);
+        final Path directory = tempDir.resolve("snapshots");
+        final StatementSnapshotCache cache = new StatementSnapshotCache(directory, CsvParserService.FORMAT_VERSION);
+        final TransactionTable expected = cache.load(file, parser::parseTable);
+
+        final Path snapshot = snapshots(directory).getFirst();
+        final byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+
+        final TransactionTable reloaded = cache.load(file, parser::parseTable);
+        assertEquals(expected.asRecords(), reloaded.asRecords());
+    }
+}
@@ -0,0 +1,77 @@
+package be.jensberckmoes.insightfx.service;
+
+import be.jensberckmoes.insightfx.model.ExportSchema;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XlsxRowWriterTest {
+    private record Row(String text, BigDecimal amount, LocalDate date) {
+    }
+
+    private static final ExportSchema<Row> SCHEMA = ExportSchema.<Row>builder()
+            .text("Text", Row::text)
+            .decimal("Amount", Row::amount)
+            .date("Date", Row::date)
+            .build();
+
+    private static Map<String, String> write(final List<Row> rows, final int maxSheetRows) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final XlsxRowWriter writer = new XlsxRowWriter(bytes, 64, maxSheetRows)) {
+            writer.writeHeaders(SCHEMA.headers());
+            for (final Row row : rows) writer.writeRow(SCHEMA, row);
+        }
+        final Map<String, String> entries = new LinkedHashMap<>();
+        try (final ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    @Test
+    void testWritesTypedCells() throws IOException {
+        final Map<String, String> entries = write(List.of(
+                new Row("Bakker & <Zonen>\u0001", new BigDecimal("-4.75"), LocalDate.of(2025, 10, 2)),
+                new Row(null, null, LocalDate.of(1899, 12, 31))), XlsxRowWriter.MAX_SHEET_ROWS);
+
+        assertEquals(List.of("xl/worksheets/sheet1.xml", "[Content_Types].xml", "_rels/.rels", "xl/workbook.xml",
+                "xl/_rels/workbook.xml.rels", "xl/styles.xml"), List.copyOf(entries.keySet()));
+        final String sheet = entries.get("xl/worksheets/sheet1.xml");
+        assertTrue(sheet.contains("<row><c t=\"inlineStr\" s=\"2\"><is><t xml:space=\"preserve\">Text</t></is></c>"), sheet);
+        // 2025-10-02 is day 45932 counted the spreadsheet way.
+        assertTrue(sheet.contains("<row><c t=\"inlineStr\"><is><t xml:space=\"preserve\">Bakker &amp; &lt;Zonen&gt;</t></is></c>"
+                + "<c><v>-4.75</v></c><c s=\"1\"><v>45932</v></c></row>"), sheet);
+        assertTrue(sheet.contains("<row><c/><c/><c t=\"inlineStr\"><is><t xml:space=\"preserve\">1899-12-31</t></is></c></row>"), sheet);
+        assertTrue(sheet.endsWith("</sheetData></worksheet>"), sheet);
+    }
+
+    @Test
+    void testContinuesOnNewSheetWhenFull() throws IOException {
+        final List<Row> rows = List.of(1, 2, 3, 4, 5).stream()
+                .map(i -> new Row("Row " + i, BigDecimal.valueOf(i), null)).toList();
+
+        final Map<String, String> entries = write(rows, 3);
+
+        assertTrue(entries.containsKey("xl/worksheets/sheet3.xml"));
+        assertFalse(entries.containsKey("xl/worksheets/sheet4.xml"));
+        final String third = entries.get("xl/worksheets/sheet3.xml");
+        assertTrue(third.contains(">Text<") && third.contains(">Row 5<") && !third.contains(">Row 4<"), third);
+        assertTrue(entries.get("xl/workbook.xml").contains("<sheet name=\"Sheet3\" sheetId=\"3\" r:id=\"rId3\"/>"));
+        assertTrue(entries.get("xl/_rels/workbook.xml.rels").contains("Id=\"rId4\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\""));
+        assertTrue(entries.get("[Content_Types].xml").contains("/xl/worksheets/sheet3.xml"));
+    }
+}